@@ -0,0 +1,389 @@
+package com.bq.autobus.compiler;
+
+import com.bq.autobus.BusChannel;
+import com.bq.autobus.Subscribe;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Annotation processor generating, at compile time:
+ * - A "Observables" class for every type declaring {@link BusChannel} constants, with a typed
+ * BusObservable factory per channel.
+ * - A "_BusBinding" class for every class declaring {@link Subscribe} methods, holding one listener per
+ * method grouped by channel, that subscribes and unsubscribes all of them at once.
+ * <p/>
+ * Generated code only uses class literals and direct method calls, so no reflection happens at runtime.
+ */
+public final class BusProcessor extends AbstractProcessor {
+
+    private static final String OBSERVABLES_SUFFIX = "Observables";
+    private static final String BINDING_SUFFIX = "_BusBinding";
+
+    // Channels declared in this compilation and the data class expected on each of them
+    private final Map<String, TypeMirror> channelDataClasses = new HashMap<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new HashSet<>();
+        types.add(BusChannel.class.getCanonicalName());
+        types.add(Subscribe.class.getCanonicalName());
+        return Collections.unmodifiableSet(types);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<VariableElement>> channelsByType = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(BusChannel.class)) {
+            if (isValidChannel(element)) {
+                TypeElement enclosingType = (TypeElement) element.getEnclosingElement();
+                if (!channelsByType.containsKey(enclosingType)) {
+                    channelsByType.put(enclosingType, new ArrayList<VariableElement>());
+                }
+                channelsByType.get(enclosingType).add((VariableElement) element);
+            }
+        }
+
+        Map<TypeElement, List<ExecutableElement>> subscribersByType = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(Subscribe.class)) {
+            if (isValidSubscriber(element)) {
+                TypeElement enclosingType = (TypeElement) element.getEnclosingElement();
+                if (!subscribersByType.containsKey(enclosingType)) {
+                    subscribersByType.put(enclosingType, new ArrayList<ExecutableElement>());
+                }
+                subscribersByType.get(enclosingType).add((ExecutableElement) element);
+            }
+        }
+
+        for (Map.Entry<TypeElement, List<VariableElement>> entry : channelsByType.entrySet()) {
+            writeObservables(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : subscribersByType.entrySet()) {
+            writeBinding(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    private boolean isValidChannel(Element element) {
+        Set<Modifier> modifiers = element.getModifiers();
+        Object channel = ((VariableElement) element).getConstantValue();
+        if (!modifiers.contains(Modifier.STATIC) || !modifiers.contains(Modifier.FINAL) || !(channel instanceof String)) {
+            error(element, "@BusChannel must annotate a static final String constant");
+            return false;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            error(element, "@BusChannel constants must not be private");
+            return false;
+        }
+
+        TypeMirror dataClass = getDataClass(element.getAnnotation(BusChannel.class));
+        TypeMirror declared = channelDataClasses.get(channel);
+        if (declared != null && !processingEnv.getTypeUtils().isSameType(declared, dataClass)) {
+            error(element, "Channel " + channel + " is already declared with data class " + declared);
+            return false;
+        }
+        channelDataClasses.put((String) channel, dataClass);
+        return true;
+    }
+
+    private boolean isValidSubscriber(Element element) {
+        ExecutableElement method = (ExecutableElement) element;
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC)) {
+            error(element, "@Subscribe methods must not be private nor static");
+            return false;
+        }
+        if (!method.getThrownTypes().isEmpty()) {
+            error(element, "@Subscribe methods must not declare thrown exceptions");
+            return false;
+        }
+
+        TypeElement enclosingType = (TypeElement) method.getEnclosingElement();
+        if (enclosingType.getKind() != ElementKind.CLASS) {
+            error(element, "@Subscribe methods must be declared in a class");
+            return false;
+        }
+        for (Element type = enclosingType; type instanceof TypeElement; type = type.getEnclosingElement()) {
+            if (type.getModifiers().contains(Modifier.PRIVATE)) {
+                error(element, "@Subscribe methods must not be declared in private classes");
+                return false;
+            }
+        }
+
+        List<? extends VariableElement> parameters = method.getParameters();
+        if (parameters.size() > 1) {
+            error(element, "@Subscribe methods must have at most one parameter");
+            return false;
+        }
+        if (parameters.isEmpty()) return true;
+
+        TypeMirror parameterType = parameters.get(0).asType();
+        if (parameterType.getKind().isPrimitive()) {
+            error(element, "@Subscribe methods must use boxed types instead of primitives");
+            return false;
+        }
+        if (parameterType.getKind() != TypeKind.DECLARED && parameterType.getKind() != TypeKind.ARRAY) {
+            error(element, "@Subscribe method parameters must be classes");
+            return false;
+        }
+        if (parameterType.getKind() == TypeKind.DECLARED
+                && !((DeclaredType) parameterType).getTypeArguments().isEmpty()) {
+            error(element, "@Subscribe method parameters must not be generic: data is matched by exact class");
+            return false;
+        }
+
+        // Check the contract of the channel when it is declared in this compilation
+        String channel = method.getAnnotation(Subscribe.class).value();
+        TypeMirror declared = channelDataClasses.get(channel);
+        if (declared != null && !isObject(parameterType) && !isObject(declared)
+                && !processingEnv.getTypeUtils().isSameType(declared, parameterType)) {
+            error(element, "Channel " + channel + " emits data of class " + declared
+                    + " but the method expects " + parameterType);
+            return false;
+        }
+        return true;
+    }
+
+    private void writeObservables(TypeElement type, List<VariableElement> channels) {
+        String packageName = getPackageName(type);
+        String className = getFlatName(type) + OBSERVABLES_SUFFIX;
+        String typeName = type.getQualifiedName().toString();
+
+        StringBuilder source = new StringBuilder();
+        appendHeader(source, packageName, "com.bq.autobus.Bus", "com.bq.autobus.BusObservable");
+        source.append("/**\n")
+                .append(" * Typed BusObservable factories for the channels declared in {@link ").append(typeName).append("}.\n")
+                .append(" */\n")
+                .append("public final class ").append(className).append(" {\n\n")
+                .append("    private ").append(className).append("() {\n")
+                .append("        // No instances.\n")
+                .append("    }\n");
+
+        Set<String> methodNames = new HashSet<>();
+        for (VariableElement channel : channels) {
+            String methodName = toMethodName(channel.getSimpleName().toString());
+            if (!methodNames.add(methodName)) {
+                error(channel, "Channel constant name clashes with another channel factory: " + methodName);
+                continue;
+            }
+            String dataClass = getDataClass(channel.getAnnotation(BusChannel.class)).toString();
+            String constant = typeName + "." + channel.getSimpleName();
+            source.append("\n")
+                    .append("    /**\n")
+                    .append("     * Creates a BusObservable for {@link ").append(typeName).append("#")
+                    .append(channel.getSimpleName()).append("}.\n")
+                    .append("     *\n")
+                    .append("     * @param bus Bus where the emission and subscription will take place.\n")
+                    .append("     * @return BusObservable of ").append(dataClass).append(" on the channel.\n")
+                    .append("     */\n")
+                    .append("    public static BusObservable<").append(dataClass).append("> ").append(methodName)
+                    .append("(Bus bus) {\n")
+                    .append("        return new BusObservable<").append(dataClass).append(">(").append(constant)
+                    .append(", bus);\n")
+                    .append("    }\n");
+        }
+        source.append("}\n");
+
+        writeSource(type, packageName, className, source);
+    }
+
+    private void writeBinding(TypeElement type, List<ExecutableElement> methods) {
+        String packageName = getPackageName(type);
+        String className = getFlatName(type) + BINDING_SUFFIX;
+        String targetName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+
+        // Dispatch table: listeners grouped by channel, in declaration order
+        Map<String, List<String>> listenersByChannel = new LinkedHashMap<>();
+        List<String> fields = new ArrayList<>();
+        List<String> initializers = new ArrayList<>();
+        Set<String> fieldNames = new HashSet<>();
+        for (ExecutableElement method : methods) {
+            String methodName = method.getSimpleName().toString();
+            String fieldName = methodName + "Listener";
+            for (int i = 2; !fieldNames.add(fieldName); i++) {
+                fieldName = methodName + "Listener" + i;
+            }
+
+            List<? extends VariableElement> parameters = method.getParameters();
+            TypeMirror parameterType = parameters.isEmpty() ? null : parameters.get(0).asType();
+            if (parameterType == null || isObject(parameterType)) {
+                fields.add("    private final BusAnyDataListener " + fieldName + ";\n");
+                initializers.add("        " + fieldName + " = new BusAnyDataListener() {\n"
+                        + "            @Override\n"
+                        + "            public void notifyEvent(Object busData) {\n"
+                        + "                target." + methodName + (parameterType == null ? "()" : "(busData)") + ";\n"
+                        + "            }\n"
+                        + "        };\n");
+            } else {
+                String dataClass = parameterType.toString();
+                fields.add("    private final BusListener<" + dataClass + "> " + fieldName + ";\n");
+                initializers.add("        " + fieldName + " = new BusListener<" + dataClass + ">(" + dataClass + ".class) {\n"
+                        + "            @Override\n"
+                        + "            public void notifyEvent(" + dataClass + " busData) {\n"
+                        + "                target." + methodName + "(busData);\n"
+                        + "            }\n"
+                        + "        };\n");
+            }
+
+            String channel = method.getAnnotation(Subscribe.class).value();
+            if (!listenersByChannel.containsKey(channel)) {
+                listenersByChannel.put(channel, new ArrayList<String>());
+            }
+            listenersByChannel.get(channel).add(fieldName);
+        }
+
+        StringBuilder source = new StringBuilder();
+        appendHeader(source, packageName,
+                "com.bq.autobus.Bus", "com.bq.autobus.BusAnyDataListener", "com.bq.autobus.BusListener");
+        source.append("/**\n")
+                .append(" * Subscribes the @Subscribe methods of {@link ").append(targetName).append("} to a Bus.\n")
+                .append(" */\n")
+                .append("public final class ").append(className).append(" {\n\n");
+        for (String field : fields) {
+            source.append(field);
+        }
+        source.append("\n")
+                .append("    /**\n")
+                .append("     * Creates the listeners notifying the @Subscribe methods of a target.\n")
+                .append("     *\n")
+                .append("     * @param target object whose methods will be notified.\n")
+                .append("     * @throws IllegalArgumentException if the target is null.\n")
+                .append("     */\n")
+                .append("    public ").append(className).append("(final ").append(targetName).append(" target) {\n")
+                .append("        if (target == null) throw new IllegalArgumentException(\"Target must not be null\");\n");
+        for (String initializer : initializers) {
+            source.append(initializer);
+        }
+        source.append("    }\n");
+
+        appendBindingMethod(source, "subscribe", "Subscribe every listener to its channel.", listenersByChannel);
+        appendBindingMethod(source, "unSubscribe", "Unsubscribe every listener from its channel.", listenersByChannel);
+        source.append("}\n");
+
+        writeSource(type, packageName, className, source);
+    }
+
+    private void appendBindingMethod(StringBuilder source, String name, String description,
+                                     Map<String, List<String>> listenersByChannel) {
+        source.append("\n")
+                .append("    /**\n")
+                .append("     * ").append(description).append("\n")
+                .append("     *\n")
+                .append("     * @param bus Bus the listeners are subscribed to.\n")
+                .append("     */\n")
+                .append("    public void ").append(name).append("(Bus bus) {\n");
+        for (Map.Entry<String, List<String>> entry : listenersByChannel.entrySet()) {
+            String channel = processingEnv.getElementUtils().getConstantExpression(entry.getKey());
+            for (String listener : entry.getValue()) {
+                source.append("        bus.").append(name).append("(").append(channel).append(", ")
+                        .append(listener).append(");\n");
+            }
+        }
+        source.append("    }\n");
+    }
+
+    private void appendHeader(StringBuilder source, String packageName, String... imports) {
+        source.append("// Generated code from Autobus. Do not modify!\n");
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        for (String importName : imports) {
+            source.append("import ").append(importName).append(";\n");
+        }
+        source.append("\n");
+    }
+
+    private void writeSource(TypeElement type, String packageName, String className, StringBuilder source) {
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(source.toString());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            error(type, "Unable to write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private TypeMirror getDataClass(BusChannel busChannel) {
+        // Class values can't be loaded while compiling: the compiler hands their mirror through the exception.
+        try {
+            return processingEnv.getElementUtils().getTypeElement(busChannel.value().getCanonicalName()).asType();
+        } catch (MirroredTypeException e) {
+            return e.getTypeMirror();
+        }
+    }
+
+    private boolean isObject(TypeMirror type) {
+        return type.toString().equals(Object.class.getName());
+    }
+
+    private String getPackageName(TypeElement type) {
+        Element element = type;
+        while (!(element instanceof PackageElement)) {
+            element = element.getEnclosingElement();
+        }
+        return ((PackageElement) element).getQualifiedName().toString();
+    }
+
+    private String getFlatName(TypeElement type) {
+        String packageName = getPackageName(type);
+        String qualifiedName = type.getQualifiedName().toString();
+        String name = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+        return name.replace('.', '_');
+    }
+
+    private static String toMethodName(String constantName) {
+        if (!constantName.equals(constantName.toUpperCase())) {
+            return Character.toLowerCase(constantName.charAt(0)) + constantName.substring(1);
+        }
+        StringBuilder methodName = new StringBuilder();
+        boolean upperNext = false;
+        for (char c : constantName.toLowerCase().toCharArray()) {
+            if (c == '_') {
+                upperNext = methodName.length() > 0;
+            } else {
+                methodName.append(upperNext ? Character.toUpperCase(c) : c);
+                upperNext = false;
+            }
+        }
+        return methodName.toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
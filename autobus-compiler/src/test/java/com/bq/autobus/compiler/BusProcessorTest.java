@@ -0,0 +1,164 @@
+package com.bq.autobus.compiler;
+
+import com.bq.autobus.Bus;
+import com.bq.autobus.BusObservable;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+public class BusProcessorTest extends TestCase {
+
+    private static final String CHANNELS = ""
+            + "package test;\n"
+            + "import com.bq.autobus.BusChannel;\n"
+            + "public interface Channels {\n"
+            + "    @BusChannel(Location.class)\n"
+            + "    String LOCATION_CHANGED = \"LOCATION_CHANGED\";\n"
+            + "    @BusChannel(Object.class)\n"
+            + "    String LOCATION_CLEAR = \"LOCATION_CLEAR\";\n"
+            + "}\n";
+
+    private static final String LOCATION = ""
+            + "package test;\n"
+            + "public class Location {\n"
+            + "}\n";
+
+    private static final String SUBSCRIBER = ""
+            + "package test;\n"
+            + "import com.bq.autobus.Subscribe;\n"
+            + "public class Subscriber {\n"
+            + "    public int locations;\n"
+            + "    public int clears;\n"
+            + "    public Object lastAny;\n"
+            + "    @Subscribe(Channels.LOCATION_CHANGED)\n"
+            + "    void onLocationChanged(Location location) { locations++; }\n"
+            + "    @Subscribe(Channels.LOCATION_CLEAR)\n"
+            + "    void onLocationCleared() { clears++; }\n"
+            + "    @Subscribe(Channels.LOCATION_CHANGED)\n"
+            + "    void onAnyLocationEvent(Object data) { lastAny = data; }\n"
+            + "}\n";
+
+    private File outputDirectory;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        outputDirectory = Files.createTempDirectory("autobus-compiler").toFile();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        delete(outputDirectory);
+    }
+
+    public void testGeneratedObservablesAndBinding() throws Exception {
+        String errors = compile(source("test.Channels", CHANNELS), source("test.Location", LOCATION),
+                source("test.Subscriber", SUBSCRIBER));
+        assertEquals("Compilation should succeed.", "", errors);
+
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDirectory.toURI().toURL()},
+                getClass().getClassLoader());
+        Bus bus = new Bus();
+        bus.setLoggingEnabled(false);
+
+        // Typed observable factory
+        Object observable = classLoader.loadClass("test.ChannelsObservables")
+                .getMethod("locationChanged", Bus.class).invoke(null, bus);
+        assertTrue("Factory should create a BusObservable.", observable instanceof BusObservable);
+
+        // Binding subscribing every method
+        Class<?> subscriberClass = classLoader.loadClass("test.Subscriber");
+        Object subscriber = subscriberClass.newInstance();
+        Class<?> bindingClass = classLoader.loadClass("test.Subscriber_BusBinding");
+        Object binding = bindingClass.getConstructor(subscriberClass).newInstance(subscriber);
+        bindingClass.getMethod("subscribe", Bus.class).invoke(binding, bus);
+
+        Object location = classLoader.loadClass("test.Location").newInstance();
+        bus.emitEvent("LOCATION_CHANGED", location);
+        bus.emitEvent("LOCATION_CHANGED", "not a location");
+        bus.emitEvent("LOCATION_CLEAR");
+
+        assertEquals(1, subscriberClass.getField("locations").getInt(subscriber));
+        assertEquals(1, subscriberClass.getField("clears").getInt(subscriber));
+        assertEquals("not a location", subscriberClass.getField("lastAny").get(subscriber));
+
+        bindingClass.getMethod("unSubscribe", Bus.class).invoke(binding, bus);
+        bus.emitEvent("LOCATION_CLEAR");
+        assertEquals(1, subscriberClass.getField("clears").getInt(subscriber));
+    }
+
+    public void testChannelContractMismatchFails() throws Exception {
+        String errors = compile(source("test.Channels", CHANNELS), source("test.Location", LOCATION),
+                source("test.WrongSubscriber", ""
+                        + "package test;\n"
+                        + "import com.bq.autobus.Subscribe;\n"
+                        + "public class WrongSubscriber {\n"
+                        + "    @Subscribe(Channels.LOCATION_CHANGED)\n"
+                        + "    void onLocationChanged(String location) { }\n"
+                        + "}\n"));
+        assertTrue(errors, errors.contains("Channel LOCATION_CHANGED emits data of class test.Location"));
+    }
+
+    public void testInvalidSubscribersFail() throws Exception {
+        String errors = compile(source("test.InvalidSubscriber", ""
+                + "package test;\n"
+                + "import com.bq.autobus.Subscribe;\n"
+                + "public class InvalidSubscriber {\n"
+                + "    @Subscribe(\"A\")\n"
+                + "    private void onPrivate(String data) { }\n"
+                + "    @Subscribe(\"A\")\n"
+                + "    void onPrimitive(int data) { }\n"
+                + "    @Subscribe(\"A\")\n"
+                + "    void onTwoParameters(String first, String second) { }\n"
+                + "}\n"));
+        assertTrue(errors, errors.contains("@Subscribe methods must not be private nor static"));
+        assertTrue(errors, errors.contains("@Subscribe methods must use boxed types instead of primitives"));
+        assertTrue(errors, errors.contains("@Subscribe methods must have at most one parameter"));
+    }
+
+    private String compile(JavaFileObject... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StringWriter output = new StringWriter();
+        List<String> options = Arrays.asList("-d", outputDirectory.getPath(), "-s", outputDirectory.getPath(),
+                "-classpath", System.getProperty("java.class.path"));
+        JavaCompiler.CompilationTask task = compiler.getTask(output, null, null, options, null, Arrays.asList(sources));
+        task.setProcessors(Arrays.asList(new BusProcessor()));
+        task.call();
+        return output.toString();
+    }
+
+    private static JavaFileObject source(String className, final String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private static void delete(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        Files.delete(file.toPath());
+    }
+}
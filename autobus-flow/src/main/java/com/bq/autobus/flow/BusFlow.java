@@ -0,0 +1,78 @@
+package com.bq.autobus.flow;
+
+import com.bq.autobus.BusObservable;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Adapters between Autobus and java.util.concurrent.Flow reactive streams.
+ */
+public final class BusFlow {
+
+    /**
+     * Number of events buffered per subscriber by default.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 128;
+
+    /**
+     * What to do with an event emitted on the channel when a subscriber's buffer is full,
+     * because the subscriber has not requested more events.
+     */
+    public enum OverflowStrategy {
+        /**
+         * Discard the oldest buffered event to make room for the new one.
+         */
+        DROP_OLDEST,
+        /**
+         * Discard the new event.
+         */
+        DROP_LATEST,
+        /**
+         * Cancel the subscription and signal an IllegalStateException to the subscriber.
+         */
+        ERROR
+    }
+
+    private BusFlow() {
+        // No instances.
+    }
+
+    /**
+     * Get a Flow.Publisher of the events emitted on a BusObservable channel, buffering up to
+     * DEFAULT_BUFFER_SIZE events per subscriber and dropping the oldest ones when the buffer is full.
+     *
+     * @see #asPublisher(BusObservable, Class, int, OverflowStrategy)
+     */
+    @NotNull
+    public static <T> Flow.Publisher<T> asPublisher(@NotNull BusObservable<T> observable, @NotNull Class<T> dataClass) {
+        return asPublisher(observable, dataClass, DEFAULT_BUFFER_SIZE, OverflowStrategy.DROP_OLDEST);
+    }
+
+    /**
+     * Get a Flow.Publisher of the events emitted on a BusObservable channel.
+     * - Every Flow.Subscriber is backed by its own BusListener, subscribed to the channel when the
+     * subscriber subscribes and unsubscribed when it cancels.
+     * - Events are delivered as the subscriber requests them; events emitted without demand are buffered
+     * and, once the buffer is full, handled according to the overflow strategy.
+     * - A persistent event stored on the channel is the first event a new subscriber receives.
+     * - Events without data are not published, as Flow does not allow null items.
+     *
+     * @param observable BusObservable whose channel events are published.
+     * @param dataClass  Class of the published data, Object to publish data of any class.
+     * @param bufferSize maximum number of events buffered per subscriber.
+     * @param strategy   what to do with new events when the buffer is full.
+     * @return Flow.Publisher of the channel events.
+     * @throws IllegalArgumentException if any argument is null or bufferSize is not positive.
+     */
+    @NotNull
+    public static <T> Flow.Publisher<T> asPublisher(@NotNull BusObservable<T> observable, @NotNull Class<T> dataClass,
+                                                    int bufferSize, @NotNull OverflowStrategy strategy) {
+        if (observable == null) throw new IllegalArgumentException("Observable must not be null");
+        if (dataClass == null) throw new IllegalArgumentException("Data class must not be null");
+        if (bufferSize <= 0) throw new IllegalArgumentException("Buffer size must be positive");
+        if (strategy == null) throw new IllegalArgumentException("Overflow strategy must not be null");
+        return new BusPublisher<>(observable, dataClass, bufferSize, strategy);
+    }
+}
@@ -0,0 +1,168 @@
+package com.bq.autobus.flow;
+
+import com.bq.autobus.BusAnyDataListener;
+import com.bq.autobus.BusListener;
+import com.bq.autobus.BusObservable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flow.Subscription backed by a BusListener.
+ * Events are queued by the emitting threads and drained to the subscriber by whichever thread
+ * (emitting or requesting) gets the drain loop, so onNext is never called concurrently nor reentrantly.
+ */
+/*package*/ final class BusFlowSubscription<T> implements Flow.Subscription {
+
+    private static final int UNSUBSCRIBED = 0;
+    private static final int SUBSCRIBED = 1;
+    private static final int TERMINATED = 2;
+
+    private final BusObservable<T> observable;
+    private final Flow.Subscriber<? super T> subscriber;
+    private final int bufferSize;
+    private final BusFlow.OverflowStrategy strategy;
+    private final BusListener<T> listener;
+
+    private final ArrayDeque<T> queue = new ArrayDeque<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    // Never updated under a lock: unsubscribing takes the channel monitor, which emitting threads already hold
+    private final AtomicInteger channelState = new AtomicInteger(UNSUBSCRIBED);
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+
+    @SuppressWarnings("unchecked")
+    /*package*/ BusFlowSubscription(@NotNull BusObservable<T> observable, @NotNull Class<T> dataClass,
+                                @NotNull Flow.Subscriber<? super T> subscriber, int bufferSize,
+                                @NotNull BusFlow.OverflowStrategy strategy) {
+        this.observable = observable;
+        this.subscriber = subscriber;
+        this.bufferSize = bufferSize;
+        this.strategy = strategy;
+        if (dataClass == Object.class) {
+            // Publishing any class of data: T is Object
+            this.listener = (BusListener<T>) (BusListener<?>) new BusAnyDataListener() {
+                @Override
+                public void notifyEvent(@Nullable Object busData) {
+                    // Events without data can't be published
+                    if (busData != null) onEvent((T) busData);
+                }
+            };
+        } else {
+            this.listener = new BusListener<T>(dataClass) {
+                @Override
+                public void notifyEvent(@NotNull T busData) {
+                    onEvent(busData);
+                }
+            };
+        }
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            signalError(new IllegalArgumentException("Requested events must be positive (rule 3.9): " + n));
+            return;
+        }
+        long current;
+        long next;
+        do {
+            current = requested.get();
+            if (current == Long.MAX_VALUE) break;
+            next = current + n;
+            if (next < 0) next = Long.MAX_VALUE;
+        } while (!requested.compareAndSet(current, next));
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        if (cancelled) return;
+        cancelled = true;
+        unSubscribeFromChannel();
+        // Buffered events are released by whichever thread runs the drain loop
+        drain();
+    }
+
+    /*package*/ void subscribeToChannel() {
+        if (channelState.get() == TERMINATED) return;
+        observable.subscribe(listener);
+        // Terminated while subscribing: the terminating thread saw no listener to unsubscribe
+        if (!channelState.compareAndSet(UNSUBSCRIBED, SUBSCRIBED)) observable.unSubscribe(listener);
+    }
+
+    private void unSubscribeFromChannel() {
+        if (channelState.getAndSet(TERMINATED) == SUBSCRIBED) observable.unSubscribe(listener);
+    }
+
+    private void onEvent(@NotNull T busData) {
+        if (cancelled) return;
+        boolean overflow = false;
+        synchronized (queue) {
+            if (queue.size() < bufferSize) {
+                queue.offer(busData);
+            } else if (strategy == BusFlow.OverflowStrategy.DROP_OLDEST) {
+                queue.poll();
+                queue.offer(busData);
+            } else if (strategy == BusFlow.OverflowStrategy.ERROR) {
+                overflow = true;
+            }
+        }
+        if (overflow) {
+            signalError(new IllegalStateException("Subscriber buffer overflow: more than "
+                    + bufferSize + " events emitted without demand"));
+        } else {
+            drain();
+        }
+    }
+
+    private void signalError(@NotNull Throwable throwable) {
+        if (error == null) error = throwable;
+        unSubscribeFromChannel();
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) return;
+        int missed = 1;
+        do {
+            long demand = requested.get();
+            long emitted = 0;
+            while (true) {
+                if (cancelled) {
+                    clearQueue();
+                    return;
+                }
+                Throwable failure = error;
+                if (failure != null) {
+                    cancelled = true;
+                    clearQueue();
+                    subscriber.onError(failure);
+                    return;
+                }
+                if (emitted == demand) break;
+                T item;
+                synchronized (queue) {
+                    item = queue.poll();
+                }
+                if (item == null) break;
+                subscriber.onNext(item);
+                emitted++;
+            }
+            if (emitted > 0 && demand != Long.MAX_VALUE) requested.addAndGet(-emitted);
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void clearQueue() {
+        synchronized (queue) {
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.bq.autobus.flow;
+
+import com.bq.autobus.BusObservable;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Flow.Publisher of the events emitted on a BusObservable channel.
+ */
+/*package*/ final class BusPublisher<T> implements Flow.Publisher<T> {
+
+    private final BusObservable<T> observable;
+    private final Class<T> dataClass;
+    private final int bufferSize;
+    private final BusFlow.OverflowStrategy strategy;
+
+    /*package*/ BusPublisher(@NotNull BusObservable<T> observable, @NotNull Class<T> dataClass,
+                             int bufferSize, @NotNull BusFlow.OverflowStrategy strategy) {
+        this.observable = observable;
+        this.dataClass = dataClass;
+        this.bufferSize = bufferSize;
+        this.strategy = strategy;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) throw new NullPointerException("Subscriber must not be null");
+        BusFlowSubscription<T> subscription = new BusFlowSubscription<>(observable, dataClass, subscriber, bufferSize, strategy);
+        subscriber.onSubscribe(subscription);
+        // Subscribing to the channel after onSubscribe: a persistent event is replayed into the buffer
+        subscription.subscribeToChannel();
+    }
+}
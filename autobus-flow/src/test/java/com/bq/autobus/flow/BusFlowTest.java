@@ -0,0 +1,238 @@
+package com.bq.autobus.flow;
+
+import com.bq.autobus.Bus;
+import com.bq.autobus.BusListener;
+import com.bq.autobus.BusObservable;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+public class BusFlowTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private Bus bus;
+    private BusObservable<String> observable;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        observable = new BusObservable<>(TEST_CHANNEL, bus);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+        observable = null;
+    }
+
+    public void testEventsAreDeliveredOnDemand() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        BusFlow.asPublisher(observable, String.class).subscribe(subscriber);
+
+        observable.emitEvent("1");
+        observable.emitEvent("2");
+        observable.emitEvent("3");
+        assertTrue("No events should be delivered without demand.", subscriber.items.isEmpty());
+
+        subscriber.subscription.request(2);
+        assertEquals("[1, 2]", subscriber.items.toString());
+
+        subscriber.subscription.request(5);
+        observable.emitEvent("4");
+        assertEquals("[1, 2, 3, 4]", subscriber.items.toString());
+    }
+
+    public void testPersistentEventIsReplayedFirst() throws Exception {
+        observable.emitPersistentEvent("persistent");
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        BusFlow.asPublisher(observable, String.class).subscribe(subscriber);
+        observable.emitEvent("next");
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals("[persistent, next]", subscriber.items.toString());
+    }
+
+    public void testOtherClassesAndEventsWithoutDataAreNotPublished() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        BusFlow.asPublisher(observable, String.class).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        bus.emitEvent(TEST_CHANNEL, 1);
+        bus.emitEvent(TEST_CHANNEL);
+        observable.emitEvent("string");
+
+        assertEquals("[string]", subscriber.items.toString());
+    }
+
+    public void testDropOldest() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        BusFlow.asPublisher(observable, String.class, 2, BusFlow.OverflowStrategy.DROP_OLDEST).subscribe(subscriber);
+
+        observable.emitEvent("1");
+        observable.emitEvent("2");
+        observable.emitEvent("3");
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals("[2, 3]", subscriber.items.toString());
+    }
+
+    public void testDropLatest() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        BusFlow.asPublisher(observable, String.class, 2, BusFlow.OverflowStrategy.DROP_LATEST).subscribe(subscriber);
+
+        observable.emitEvent("1");
+        observable.emitEvent("2");
+        observable.emitEvent("3");
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals("[1, 2]", subscriber.items.toString());
+    }
+
+    public void testOverflowError() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        BusFlow.asPublisher(observable, String.class, 1, BusFlow.OverflowStrategy.ERROR).subscribe(subscriber);
+
+        observable.emitEvent("1");
+        observable.emitEvent("2");
+
+        assertTrue("Overflow should be signalled.", subscriber.error instanceof IllegalStateException);
+        assertTrue("Buffered events should be discarded.", subscriber.items.isEmpty());
+        assertEquals("Listener should be unsubscribed.", 0, countListeners());
+    }
+
+    public void testOverflowErrorWhileTerminatingFromAnotherThread() throws Exception {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        // Notified before the publisher listener, while the emitting thread holds the channel monitor
+        bus.subscribe(TEST_CHANNEL, new BusListener<String>(String.class) {
+            @Override
+            public void notifyEvent(@NotNull String busData) {
+                if (!busData.equals("2")) return;
+                Thread terminating = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        subscriber.subscription.request(0);
+                    }
+                });
+                terminating.start();
+                // Wait for it to block unsubscribing from the channel
+                long deadline = System.currentTimeMillis() + 5000;
+                while (terminating.getState() != Thread.State.BLOCKED && terminating.isAlive()
+                        && System.currentTimeMillis() < deadline) {
+                    Thread.yield();
+                }
+            }
+        });
+        BusFlow.asPublisher(observable, String.class, 1, BusFlow.OverflowStrategy.ERROR).subscribe(subscriber);
+        observable.emitEvent("1");
+
+        Thread emitting = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                observable.emitEvent("2");
+            }
+        });
+        emitting.start();
+        emitting.join(5000);
+
+        assertFalse("Overflow and a concurrent error should not deadlock.", emitting.isAlive());
+        assertNotNull("Error should be signalled.", subscriber.error);
+    }
+
+    public void testInvalidRequestSignalsError() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        BusFlow.asPublisher(observable, String.class).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+
+        assertTrue("Invalid request should be signalled.", subscriber.error instanceof IllegalArgumentException);
+        assertEquals("Listener should be unsubscribed.", 0, countListeners());
+    }
+
+    public void testCancelFromOnNext() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(String item) {
+                super.onNext(item);
+                subscription.cancel();
+            }
+        };
+        BusFlow.asPublisher(observable, String.class).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        observable.emitEvent("1");
+        observable.emitEvent("2");
+
+        assertEquals("[1]", subscriber.items.toString());
+        assertEquals("Listener should be unsubscribed.", 0, countListeners());
+    }
+
+    public void testAnyDataPublisher() throws Exception {
+        BusObservable<Object> anyDataObservable = new BusObservable<>(TEST_CHANNEL, bus);
+        final List<Object> items = new ArrayList<>();
+        BusFlow.asPublisher(anyDataObservable, Object.class).subscribe(new Flow.Subscriber<Object>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Object item) {
+                items.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        bus.emitEvent(TEST_CHANNEL, 1);
+        bus.emitEvent(TEST_CHANNEL);
+        bus.emitEvent(TEST_CHANNEL, "string");
+
+        assertEquals("[1, string]", items.toString());
+    }
+
+    private long countListeners() throws Exception {
+        bus.setMetricsEnabled(true);
+        bus.emitEvent(TEST_CHANNEL, "probe");
+        return bus.getMetrics().getSnapshot(TEST_CHANNEL).getDeliveryCount();
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<String> {
+
+        final List<String> items = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(String item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
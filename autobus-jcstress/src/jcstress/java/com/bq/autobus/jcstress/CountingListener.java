@@ -0,0 +1,28 @@
+package com.bq.autobus.jcstress;
+
+import com.bq.autobus.BusListener;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Listener counting the events it is notified of, from any thread.
+ */
+/*package*/ final class CountingListener extends BusListener<String> {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    /*package*/ CountingListener() {
+        super(String.class);
+    }
+
+    @Override
+    public void notifyEvent(@NotNull String busData) {
+        count.incrementAndGet();
+    }
+
+    /*package*/ int getCount() {
+        return count.get();
+    }
+}
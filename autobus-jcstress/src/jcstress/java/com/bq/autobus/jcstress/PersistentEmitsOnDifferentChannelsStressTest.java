@@ -0,0 +1,60 @@
+package com.bq.autobus.jcstress;
+
+import com.bq.autobus.Bus;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Persistent events emitted concurrently on different channels hold different channel monitors, so the
+ * storage of persistent events must not lose any of them, even while it grows.
+ */
+@JCStressTest
+@Outcome(id = "16, 16", expect = ACCEPTABLE, desc = "Every persistent event is kept.")
+@Outcome(expect = FORBIDDEN, desc = "Persistent events lost.")
+@State
+public class PersistentEmitsOnDifferentChannelsStressTest {
+
+    private static final int CHANNELS_PER_ACTOR = 16;
+
+    private final Bus bus = new Bus();
+
+    public PersistentEmitsOnDifferentChannelsStressTest() {
+        bus.setLoggingEnabled(false);
+    }
+
+    @Actor
+    public void emitOnFirstChannels() {
+        for (int i = 0; i < CHANNELS_PER_ACTOR; i++) {
+            bus.emitPersistentEvent("first" + i, "data");
+        }
+    }
+
+    @Actor
+    public void emitOnSecondChannels() {
+        for (int i = 0; i < CHANNELS_PER_ACTOR; i++) {
+            bus.emitPersistentEvent("second" + i, "data");
+        }
+    }
+
+    @Arbiter
+    public void arbiter(II_Result result) {
+        result.r1 = countReplays("first");
+        result.r2 = countReplays("second");
+    }
+
+    private int countReplays(String channelPrefix) {
+        CountingListener listener = new CountingListener();
+        for (int i = 0; i < CHANNELS_PER_ACTOR; i++) {
+            bus.subscribe(channelPrefix + i, listener);
+        }
+        return listener.getCount();
+    }
+}
@@ -0,0 +1,49 @@
+package com.bq.autobus.jcstress;
+
+import com.bq.autobus.Bus;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.I_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * A listener subscribing while a persistent event is emitted must be notified of it exactly once:
+ * either live or as a replay, never both and never neither.
+ */
+@JCStressTest
+@Outcome(id = "1", expect = ACCEPTABLE, desc = "Notified once, live or replayed.")
+@Outcome(id = "0", expect = FORBIDDEN, desc = "Persistent event missed.")
+@Outcome(expect = FORBIDDEN, desc = "Persistent event notified more than once.")
+@State
+public class SubscribeVsPersistentEmitStressTest {
+
+    private static final String CHANNEL = "CHANNEL";
+
+    private final Bus bus = new Bus();
+    private final CountingListener listener = new CountingListener();
+
+    public SubscribeVsPersistentEmitStressTest() {
+        bus.setLoggingEnabled(false);
+    }
+
+    @Actor
+    public void subscribe() {
+        bus.subscribe(CHANNEL, listener);
+    }
+
+    @Actor
+    public void emit() {
+        bus.emitPersistentEvent(CHANNEL, "data");
+    }
+
+    @Arbiter
+    public void arbiter(I_Result result) {
+        result.r1 = listener.getCount();
+    }
+}
@@ -0,0 +1,53 @@
+package com.bq.autobus.jcstress;
+
+import com.bq.autobus.Bus;
+import com.bq.autobus.BusSubscription;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * A listener unsubscribing while an event is emitted is notified of it at most once, and is not subscribed
+ * anymore afterwards.
+ */
+@JCStressTest
+@Outcome(id = "0, 0", expect = ACCEPTABLE, desc = "Unsubscribed before the emission.")
+@Outcome(id = "1, 0", expect = ACCEPTABLE, desc = "Unsubscribed after the emission.")
+@Outcome(expect = FORBIDDEN, desc = "Notified twice or still subscribed.")
+@State
+public class UnSubscribeVsEmitStressTest {
+
+    private static final String CHANNEL = "CHANNEL";
+
+    private final Bus bus = new Bus();
+    private final CountingListener listener = new CountingListener();
+    private final BusSubscription subscription;
+
+    public UnSubscribeVsEmitStressTest() {
+        bus.setLoggingEnabled(false);
+        subscription = bus.subscribe(CHANNEL, listener);
+    }
+
+    @Actor
+    public void unSubscribe() {
+        subscription.unSubscribe();
+    }
+
+    @Actor
+    public void emit() {
+        bus.emitEvent(CHANNEL, "data");
+    }
+
+    @Arbiter
+    public void arbiter(II_Result result) {
+        result.r1 = listener.getCount();
+        result.r2 = bus.hasSubscribers(CHANNEL, String.class) ? 1 : 0;
+    }
+}
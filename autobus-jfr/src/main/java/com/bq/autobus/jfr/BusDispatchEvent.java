@@ -0,0 +1,19 @@
+package com.bq.autobus.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Fields shared by every Bus JFR event.
+ */
+abstract class BusDispatchEvent extends Event {
+
+    @Label("Channel")
+    String channel;
+
+    @Label("Data Class")
+    Class<?> dataClass;
+
+    @Label("Listener Class")
+    Class<?> listenerClass;
+}
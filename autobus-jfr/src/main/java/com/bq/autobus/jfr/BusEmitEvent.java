@@ -0,0 +1,17 @@
+package com.bq.autobus.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event recorded for every event emitted on a Bus channel. Its duration covers the
+ * notification of every listener subscribed to the channel.
+ */
+@Name("com.bq.autobus.Emit")
+@Label("Bus Emit")
+@Description("Event emitted on a bus channel, including the notification of its listeners")
+@Category("Autobus")
+class BusEmitEvent extends BusDispatchEvent {
+}
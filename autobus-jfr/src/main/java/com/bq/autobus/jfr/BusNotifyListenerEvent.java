@@ -0,0 +1,18 @@
+package com.bq.autobus.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event recorded for every listener notified of a Bus event.
+ */
+@Name("com.bq.autobus.NotifyListener")
+@Label("Bus Listener Notification")
+@Description("Bus listener notified of an event")
+@Category("Autobus")
+@StackTrace(false)
+class BusNotifyListenerEvent extends BusDispatchEvent {
+}
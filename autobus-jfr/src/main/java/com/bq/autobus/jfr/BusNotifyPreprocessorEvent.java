@@ -0,0 +1,18 @@
+package com.bq.autobus.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event recorded for every Bus event handed to a listener's preprocessor.
+ */
+@Name("com.bq.autobus.NotifyPreprocessor")
+@Label("Bus Preprocessor Handoff")
+@Description("Bus event handed to a listener's preprocessor")
+@Category("Autobus")
+@StackTrace(false)
+class BusNotifyPreprocessorEvent extends BusDispatchEvent {
+}
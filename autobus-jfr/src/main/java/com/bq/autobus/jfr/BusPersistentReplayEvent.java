@@ -0,0 +1,16 @@
+package com.bq.autobus.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event recorded for every persistent event replayed to a listener subscribing to a Bus channel.
+ */
+@Name("com.bq.autobus.PersistentReplay")
+@Label("Bus Persistent Replay")
+@Description("Persistent event replayed to a listener subscribing to a bus channel")
+@Category("Autobus")
+class BusPersistentReplayEvent extends BusDispatchEvent {
+}
@@ -0,0 +1,80 @@
+package com.bq.autobus.jfr;
+
+import com.bq.autobus.Bus;
+import com.bq.autobus.BusListener;
+import com.bq.autobus.BusTracer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import jdk.jfr.EventType;
+
+/**
+ * BusTracer that records Bus dispatch as Java Flight Recorder events, so bus activity can be
+ * correlated with GC, lock and I/O events of the same recording.
+ * <p/>
+ * Events are enabled, disabled and thresholded with regular JFR settings using their names:
+ * com.bq.autobus.Emit, com.bq.autobus.NotifyListener, com.bq.autobus.NotifyPreprocessor and
+ * com.bq.autobus.PersistentReplay. When an event is not enabled in any recording the tracer
+ * does not allocate and the Bus skips the end call.
+ */
+public final class JfrBusTracer implements BusTracer {
+
+    private static final EventType EMIT = EventType.getEventType(BusEmitEvent.class);
+    private static final EventType NOTIFY_LISTENER = EventType.getEventType(BusNotifyListenerEvent.class);
+    private static final EventType NOTIFY_PREPROCESSOR = EventType.getEventType(BusNotifyPreprocessorEvent.class);
+    private static final EventType PERSISTENT_REPLAY = EventType.getEventType(BusPersistentReplayEvent.class);
+
+    /**
+     * Creates a JfrBusTracer and sets it as the tracer of a Bus.
+     *
+     * @param bus Bus to trace.
+     * @return the tracer set on the bus.
+     * @throws IllegalArgumentException if the bus is null.
+     */
+    @NotNull
+    public static JfrBusTracer install(@NotNull Bus bus) {
+        if (bus == null) throw new IllegalArgumentException("Bus must not be null");
+        JfrBusTracer tracer = new JfrBusTracer();
+        bus.setTracer(tracer);
+        return tracer;
+    }
+
+    @Nullable
+    @Override
+    public Object begin(@NotNull Operation operation, @NotNull String channel,
+                        @Nullable BusListener listener, @Nullable Object busData) {
+        BusDispatchEvent event;
+        switch (operation) {
+            case EMIT:
+                if (!EMIT.isEnabled()) return null;
+                event = new BusEmitEvent();
+                break;
+            case NOTIFY_LISTENER:
+                if (!NOTIFY_LISTENER.isEnabled()) return null;
+                event = new BusNotifyListenerEvent();
+                break;
+            case NOTIFY_PREPROCESSOR:
+                if (!NOTIFY_PREPROCESSOR.isEnabled()) return null;
+                event = new BusNotifyPreprocessorEvent();
+                break;
+            case PERSISTENT_REPLAY:
+                if (!PERSISTENT_REPLAY.isEnabled()) return null;
+                event = new BusPersistentReplayEvent();
+                break;
+            default:
+                return null;
+        }
+        event.channel = channel;
+        event.dataClass = busData != null ? busData.getClass() : null;
+        event.listenerClass = listener != null ? listener.getClass() : null;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void end(@NotNull Object trace) {
+        // commit() also ends the event and drops it if it is under the configured threshold.
+        ((BusDispatchEvent) trace).commit();
+    }
+}
@@ -0,0 +1,86 @@
+package com.bq.autobus.jfr;
+
+import com.bq.autobus.Bus;
+import com.bq.autobus.BusAnyDataListener;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class JfrBusTracerTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private Bus bus;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        JfrBusTracer.install(bus);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+    }
+
+    public void testNothingTracedWithoutRecording() throws Exception {
+        assertNull("Nothing should be traced without a recording.",
+                bus.getTracer().begin(JfrBusTracer.Operation.EMIT, TEST_CHANNEL, null, null));
+    }
+
+    public void testDispatchIsRecorded() throws Exception {
+        Path file = Files.createTempFile("autobus", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(BusEmitEvent.class);
+            recording.enable(BusNotifyListenerEvent.class);
+            recording.enable(BusPersistentReplayEvent.class);
+            recording.start();
+
+            bus.emitPersistentEvent(TEST_CHANNEL, "data");
+            bus.subscribe(TEST_CHANNEL, new BusAnyDataListener() {
+                @Override
+                public void notifyEvent(@Nullable Object busData) {
+                }
+            });
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals("One emit should be recorded.", 1, count(events, "com.bq.autobus.Emit"));
+            assertEquals("One replay should be recorded.", 1, count(events, "com.bq.autobus.PersistentReplay"));
+            assertEquals("One notification should be recorded.", 1, count(events, "com.bq.autobus.NotifyListener"));
+
+            for (RecordedEvent event : events) {
+                if (event.getEventType().getName().equals("com.bq.autobus.NotifyListener")) {
+                    assertEquals(TEST_CHANNEL, event.getString("channel"));
+                    assertEquals(String.class.getName(), event.getClass("dataClass").getName());
+                    assertNotNull("Listener class should be recorded.", event.getClass("listenerClass"));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static int count(List<RecordedEvent> events, String name) {
+        int count = 0;
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,21 @@
+package com.bq.autobus.jmh;
+
+/**
+ * Payload classes emitted by the benchmarks. Several distinct classes are needed to measure
+ * how the bus behaves when listeners on a channel expect different data classes.
+ */
+public final class BenchmarkData {
+
+    public static final class First {
+    }
+
+    public static final class Second {
+    }
+
+    public static final class Third {
+    }
+
+    private BenchmarkData() {
+        // No instances.
+    }
+}
@@ -0,0 +1,25 @@
+package com.bq.autobus.jmh;
+
+import com.bq.autobus.BusAnyDataListener;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * BusAnyDataListener that hands every received event to a JMH Blackhole so the delivery cannot be
+ * optimized away.
+ */
+public class BlackholeAnyDataListener extends BusAnyDataListener {
+
+    private final Blackhole blackhole;
+
+    public BlackholeAnyDataListener(@NotNull Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void notifyEvent(@Nullable Object busData) {
+        blackhole.consume(busData);
+    }
+}
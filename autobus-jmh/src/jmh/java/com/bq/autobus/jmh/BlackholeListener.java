@@ -0,0 +1,25 @@
+package com.bq.autobus.jmh;
+
+import com.bq.autobus.BusListener;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * BusListener that hands every received event to a JMH Blackhole so the delivery cannot be
+ * optimized away.
+ */
+public class BlackholeListener<T> extends BusListener<T> {
+
+    private final Blackhole blackhole;
+
+    public BlackholeListener(@NotNull Class<T> expectedDataClass, @NotNull Blackhole blackhole) {
+        super(expectedDataClass);
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void notifyEvent(@NotNull T busData) {
+        blackhole.consume(busData);
+    }
+}
@@ -0,0 +1,53 @@
+package com.bq.autobus.jmh;
+
+import com.bq.autobus.Bus;
+import com.bq.autobus.BusObservable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of emitting through a BusObservable compared to emitting directly on the Bus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BusObservableBenchmark {
+
+    private static final String CHANNEL = "OBSERVABLE_BENCHMARK_CHANNEL";
+
+    private Bus bus;
+    private BusObservable<BenchmarkData.First> observable;
+    private final BenchmarkData.First first = new BenchmarkData.First();
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        observable = new BusObservable<>(CHANNEL, bus);
+        observable.subscribe(new BlackholeListener<>(BenchmarkData.First.class, blackhole));
+    }
+
+    @Benchmark
+    public void emitOnBus() {
+        bus.emitEvent(CHANNEL, first);
+    }
+
+    @Benchmark
+    public void emitOnObservable() {
+        observable.emitEvent(first);
+    }
+
+    @Benchmark
+    public void emitPersistentOnObservable() {
+        observable.emitPersistentEvent(first);
+    }
+}
@@ -0,0 +1,74 @@
+package com.bq.autobus.jmh;
+
+import com.bq.autobus.Bus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Bus.emitEvent from several threads at once, both on a single shared channel (contending
+ * on the channel monitor) and on one channel per thread (contending only on the channel registry).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class ContendedEmitBenchmark {
+
+    private static final String SHARED_CHANNEL = "CONTENDED_BENCHMARK_SHARED_CHANNEL";
+    private static final String CHANNEL_PREFIX = "CONTENDED_BENCHMARK_CHANNEL_";
+    private static final int MAX_THREADS = 64;
+
+    @State(Scope.Benchmark)
+    public static class SharedBus {
+
+        @Param({"1", "10"})
+        public int fanOut;
+
+        private Bus bus;
+
+        @Setup
+        public void setUp(Blackhole blackhole) {
+            bus = new Bus();
+            bus.setLoggingEnabled(false);
+            for (int i = 0; i < fanOut; i++) {
+                bus.subscribe(SHARED_CHANNEL, new BlackholeListener<>(BenchmarkData.First.class, blackhole));
+                for (int thread = 0; thread < MAX_THREADS; thread++) {
+                    bus.subscribe(CHANNEL_PREFIX + thread, new BlackholeListener<>(BenchmarkData.First.class, blackhole));
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadChannel {
+
+        private String channel;
+        private final BenchmarkData.First first = new BenchmarkData.First();
+
+        @Setup
+        public void setUp(ThreadParams threadParams) {
+            channel = CHANNEL_PREFIX + (threadParams.getThreadIndex() % MAX_THREADS);
+        }
+    }
+
+    @Benchmark
+    public void sharedChannel(SharedBus sharedBus, ThreadChannel threadChannel) {
+        sharedBus.bus.emitEvent(SHARED_CHANNEL, threadChannel.first);
+    }
+
+    @Benchmark
+    public void channelPerThread(SharedBus sharedBus, ThreadChannel threadChannel) {
+        sharedBus.bus.emitEvent(threadChannel.channel, threadChannel.first);
+    }
+}
@@ -0,0 +1,89 @@
+package com.bq.autobus.jmh;
+
+import com.bq.autobus.Bus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Bus.emitEvent on a single channel for different fan-outs.
+ * - matchingData: every listener expects the emitted class.
+ * - mixedData: listeners are split between three data classes (plus some any data listeners) and
+ * the emitted class rotates, so most listeners on the channel are skipped by class.
+ * - noData: event without data, only delivered to any data listeners.
+ * Every benchmark runs with and without bus metrics to measure their overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EmitBenchmark {
+
+    private static final String CHANNEL = "EMIT_BENCHMARK_CHANNEL";
+    private static final String MIXED_CHANNEL = "EMIT_BENCHMARK_MIXED_CHANNEL";
+
+    @Param({"1", "10", "1000"})
+    public int fanOut;
+
+    @Param({"false", "true"})
+    public boolean metricsEnabled;
+
+    private Bus bus;
+    private final BenchmarkData.First first = new BenchmarkData.First();
+    private final Object[] mixedData = {new BenchmarkData.First(), new BenchmarkData.Second(), new BenchmarkData.Third()};
+    private int mixedIndex;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        bus.setMetricsEnabled(metricsEnabled);
+        for (int i = 0; i < fanOut; i++) {
+            bus.subscribe(CHANNEL, new BlackholeListener<>(BenchmarkData.First.class, blackhole));
+
+            switch (i % 4) {
+                case 0:
+                    bus.subscribe(MIXED_CHANNEL, new BlackholeListener<>(BenchmarkData.First.class, blackhole));
+                    break;
+                case 1:
+                    bus.subscribe(MIXED_CHANNEL, new BlackholeListener<>(BenchmarkData.Second.class, blackhole));
+                    break;
+                case 2:
+                    bus.subscribe(MIXED_CHANNEL, new BlackholeListener<>(BenchmarkData.Third.class, blackhole));
+                    break;
+                default:
+                    bus.subscribe(MIXED_CHANNEL, new BlackholeAnyDataListener(blackhole));
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public void matchingData() {
+        bus.emitEvent(CHANNEL, first);
+    }
+
+    @Benchmark
+    public void mixedData() {
+        bus.emitEvent(MIXED_CHANNEL, mixedData[mixedIndex]);
+        mixedIndex = (mixedIndex + 1) % mixedData.length;
+    }
+
+    @Benchmark
+    public void noData() {
+        bus.emitEvent(MIXED_CHANNEL);
+    }
+
+    @Benchmark
+    public void noListeners() {
+        bus.emitEvent("EMIT_BENCHMARK_EMPTY_CHANNEL", first);
+    }
+}
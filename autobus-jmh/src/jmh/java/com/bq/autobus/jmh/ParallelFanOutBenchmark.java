@@ -0,0 +1,71 @@
+package com.bq.autobus.jmh;
+
+import com.bq.autobus.Bus;
+import com.bq.autobus.BusAnyDataListener;
+import com.bq.autobus.BusParallelFanOut;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures emissions to channels with thousands of any data listeners, each doing a little work,
+ * notified sequentially or in parallel (waiting for completion).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallelFanOutBenchmark {
+
+    private static final String CHANNEL = "PARALLEL_BENCHMARK_CHANNEL";
+
+    @Param({"1000", "10000"})
+    public int fanOut;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    @Param({"100"})
+    public int listenerWork;
+
+    private Bus bus;
+    private ForkJoinPool pool;
+    private final BenchmarkData.First first = new BenchmarkData.First();
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        pool = new ForkJoinPool();
+        if (parallel) bus.setParallelFanOut(new BusParallelFanOut(pool, 256, true));
+        for (int i = 0; i < fanOut; i++) {
+            bus.subscribe(CHANNEL, new BusAnyDataListener() {
+                @Override
+                public void notifyEvent(Object busData) {
+                    Blackhole.consumeCPU(listenerWork);
+                    blackhole.consume(busData);
+                }
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void emit() {
+        bus.emitEvent(CHANNEL, first);
+    }
+}
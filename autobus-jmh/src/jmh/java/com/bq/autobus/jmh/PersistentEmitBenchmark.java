@@ -0,0 +1,57 @@
+package com.bq.autobus.jmh;
+
+import com.bq.autobus.Bus;
+import com.bq.autobus.BusListener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures persistent events: emitting them to existing listeners and replaying the stored
+ * value to a listener that subscribes afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PersistentEmitBenchmark {
+
+    private static final String CHANNEL = "PERSISTENT_BENCHMARK_CHANNEL";
+
+    @Param({"1", "10", "1000"})
+    public int fanOut;
+
+    private Bus bus;
+    private BusListener<BenchmarkData.First> replayListener;
+    private final BenchmarkData.First first = new BenchmarkData.First();
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        for (int i = 0; i < fanOut; i++) {
+            bus.subscribe(CHANNEL, new BlackholeListener<>(BenchmarkData.First.class, blackhole));
+        }
+        bus.emitPersistentEvent(CHANNEL, first);
+        replayListener = new BlackholeListener<>(BenchmarkData.First.class, blackhole);
+    }
+
+    @Benchmark
+    public void emitPersistent() {
+        bus.emitPersistentEvent(CHANNEL, first);
+    }
+
+    @Benchmark
+    public void subscribeWithReplay() {
+        bus.subscribe(CHANNEL, replayListener);
+        bus.unSubscribe(CHANNEL, replayListener);
+    }
+}
@@ -0,0 +1,88 @@
+package com.bq.autobus.jmh;
+
+import com.bq.autobus.Bus;
+import com.bq.autobus.DoubleBusListener;
+import com.bq.autobus.IntBusListener;
+import com.bq.autobus.LongBusListener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures primitive emissions against their boxed equivalent.
+ * Run with the gc profiler: primitive emissions to primitive listeners should report
+ * gc.alloc.rate.norm close to 0 B/op, while boxed emissions allocate a wrapper per event.
+ * Values are kept outside the Integer and Long caches so boxing always allocates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PrimitiveEmitBenchmark {
+
+    private static final String INT_CHANNEL = "PRIMITIVE_BENCHMARK_INT_CHANNEL";
+    private static final String LONG_CHANNEL = "PRIMITIVE_BENCHMARK_LONG_CHANNEL";
+    private static final String DOUBLE_CHANNEL = "PRIMITIVE_BENCHMARK_DOUBLE_CHANNEL";
+    private static final String BOXED_CHANNEL = "PRIMITIVE_BENCHMARK_BOXED_CHANNEL";
+
+    @Param({"1", "10"})
+    public int fanOut;
+
+    private Bus bus;
+    private int value = 1 << 20;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        for (int i = 0; i < fanOut; i++) {
+            bus.subscribe(INT_CHANNEL, new IntBusListener() {
+                @Override
+                public void notifyEvent(int busData) {
+                    blackhole.consume(busData);
+                }
+            });
+            bus.subscribe(LONG_CHANNEL, new LongBusListener() {
+                @Override
+                public void notifyEvent(long busData) {
+                    blackhole.consume(busData);
+                }
+            });
+            bus.subscribe(DOUBLE_CHANNEL, new DoubleBusListener() {
+                @Override
+                public void notifyEvent(double busData) {
+                    blackhole.consume(busData);
+                }
+            });
+            bus.subscribe(BOXED_CHANNEL, new BlackholeListener<>(Integer.class, blackhole));
+        }
+    }
+
+    @Benchmark
+    public void intValue() {
+        bus.emitEvent(INT_CHANNEL, value++);
+    }
+
+    @Benchmark
+    public void longValue() {
+        bus.emitEvent(LONG_CHANNEL, (long) value++);
+    }
+
+    @Benchmark
+    public void doubleValue() {
+        bus.emitEvent(DOUBLE_CHANNEL, (double) value++);
+    }
+
+    @Benchmark
+    public void boxedValue() {
+        bus.emitEvent(BOXED_CHANNEL, (Object) value++);
+    }
+}
@@ -0,0 +1,64 @@
+package com.bq.autobus.jmh;
+
+import com.bq.autobus.Bus;
+import com.bq.autobus.BusListener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures subscribe/unsubscribe churn on a channel that already has a number of listeners,
+ * the way screens and components attach and detach during their lifecycle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SubscriptionBenchmark {
+
+    private static final String CHANNEL = "SUBSCRIPTION_BENCHMARK_CHANNEL";
+    private static final int CHURN_LISTENERS = 10;
+
+    @Param({"0", "10", "1000"})
+    public int existingListeners;
+
+    private Bus bus;
+    private BusListener[] churnListeners;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        for (int i = 0; i < existingListeners; i++) {
+            bus.subscribe(CHANNEL, new BlackholeListener<>(BenchmarkData.First.class, blackhole));
+        }
+        churnListeners = new BusListener[CHURN_LISTENERS];
+        for (int i = 0; i < CHURN_LISTENERS; i++) {
+            churnListeners[i] = new BlackholeListener<>(BenchmarkData.First.class, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void subscribeUnsubscribe() {
+        bus.subscribe(CHANNEL, churnListeners[0]);
+        bus.unSubscribe(CHANNEL, churnListeners[0]);
+    }
+
+    @Benchmark
+    public void subscribeUnsubscribeMany() {
+        for (BusListener listener : churnListeners) {
+            bus.subscribe(CHANNEL, listener);
+        }
+        for (BusListener listener : churnListeners) {
+            bus.unSubscribe(CHANNEL, listener);
+        }
+    }
+}
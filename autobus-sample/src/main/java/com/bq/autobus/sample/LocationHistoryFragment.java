@@ -21,6 +21,7 @@ import android.support.v4.app.ListFragment;
 import android.view.View;
 import android.widget.ArrayAdapter;
 
+import com.bq.autobus.Bus;
 import com.bq.autobus.BusAnyDataListener;
 import com.bq.autobus.BusListener;
 
@@ -52,22 +53,26 @@ public class LocationHistoryFragment extends ListFragment {
         }
     };
 
+    // Scope of the fragment listeners while it is resumed
+    private Bus bus;
+
     @Override
     public void onResume() {
         super.onResume();
 
         // Subscribe to events
-        BusProvider.getInstance().subscribe(BusChannels.LOCATION_CHANGED_BUS_CHANNEL, locationChangedEventListener);
-        BusProvider.getInstance().subscribe(BusChannels.LOCATION_CLEAR_BUS_CHANNEL, locationClearEventListener);
+        bus = BusProvider.getInstance().newChild();
+        bus.subscribe(BusChannels.LOCATION_CHANGED_BUS_CHANNEL, locationChangedEventListener);
+        bus.subscribe(BusChannels.LOCATION_CLEAR_BUS_CHANNEL, locationClearEventListener);
     }
 
     @Override
     public void onPause() {
         super.onPause();
 
-        // Unsubscribe from events
-        BusProvider.getInstance().unSubscribe(BusChannels.LOCATION_CHANGED_BUS_CHANNEL, locationChangedEventListener);
-        BusProvider.getInstance().unSubscribe(BusChannels.LOCATION_CLEAR_BUS_CHANNEL, locationClearEventListener);
+        // Unsubscribe from every event at once
+        bus.dispose();
+        bus = null;
     }
 
     @Override
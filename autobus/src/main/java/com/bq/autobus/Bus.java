@@ -3,10 +3,23 @@ package com.bq.autobus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,24 +30,151 @@ import java.util.logging.Logger;
  * will be notified when a event containing a data object of that class is emitted to that channel.
  * - Supports persistent events that are notified to new matching subscribers as soon as they subscribe
  * to the appropriate channel.
+ * - Supports keyed subscriptions: listeners subscribed to a key of a channel are only notified of the events
+ * whose data has that key, as extracted by the BusKeyExtractor registered for the data class.
+ * - Supports scopes: child buses share the events emitted on any bus of their tree, but keep their own
+ * listeners and persistent events, which are dropped at once when the child is disposed.
+ * - Supports admission control: per channel rate limits and a concurrency limit shed events emitted over them,
+ * so overloaded producers degrade gracefully instead of stalling on synchronous listeners.
+ * - Supports error isolation: listener failures can be caught and reported without aborting the emission,
+ * and listeners that keep failing can be circuit broken.
+ * - Supports batches: events emitted by a thread while it has a batch open are notified all at once when the
+ * batch is committed, or never if it is discarded.
  * <p/>
  * Created by imartinez on 13/04/15.
  */
 public final class Bus {
 
-    private final HashMap<String, Object> historic;
-    private final HashMap<String, List<BusListener>> observers;
+    private static final Object NO_DATA = new Object();
+    private static final BusTimingWheel TIMING_WHEEL = new BusTimingWheel(TimeUnit.MILLISECONDS.toNanos(1));
+    // Far enough for any practical delay while keeping deadlines from overflowing
+    private static final long MAX_DELAY_NANOS = Long.MAX_VALUE >> 2;
+
+    /**
+     * Persistent event of every channel. Channels write it under their own monitors, so it must be concurrent;
+     * events without data are stored as NO_DATA.
+     */
+    private final ConcurrentHashMap<String, Object> historic = new ConcurrentHashMap<>();
+    private final HashMap<String, BusListenerList> observers;
+    private final ConcurrentHashMap<String, KeyIndex> keyIndexes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ChannelInterest> interests = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, BusKeyExtractor<?>> keyExtractors = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, BusEquivalence> distinctPersistent = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TokenBucket> rateLimits = new ConcurrentHashMap<>();
+    private final BusReplyDispatcher replyDispatcher = new BusReplyDispatcher(this);
 
     private Logger logger = Logger.getLogger("Autobus");
+    private volatile BusMetrics metrics;
+    private volatile BusTracer tracer;
+    private volatile BusWatchdog watchdog;
+    private volatile BusParallelFanOut parallelFanOut;
+    private volatile long requestTimeoutNanos = TimeUnit.SECONDS.toNanos(30);
+    private volatile boolean queuedDispatchEnabled;
+    private volatile BusConcurrencyLimit concurrencyLimit;
+    private final AtomicInteger concurrentEmits = new AtomicInteger();
+    private volatile BusErrorIsolation errorIsolation;
+    private final AtomicInteger openBatches = new AtomicInteger();
+    private final ThreadLocal<BusBatch> batches = new ThreadLocal<>();
+    private final Bus parent;
+    private final Set<Bus> children = Collections.newSetFromMap(new ConcurrentHashMap<Bus, Boolean>());
+    private volatile boolean disposed;
+    private final ThreadLocal<DispatchQueue> dispatchQueues = new ThreadLocal<DispatchQueue>() {
+        @Override
+        protected DispatchQueue initialValue() {
+            return new DispatchQueue();
+        }
+    };
+    private final ThreadLocal<int[]> admittedEmits = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
 
     /**
      * Creates a new Bus instance.
      */
     public Bus() {
-        historic = new HashMap<>();
+        this(null);
+    }
+
+    private Bus(@Nullable Bus parent) {
+        this.parent = parent;
         observers = new HashMap<>();
     }
 
+    /**
+     * Create a child bus, for example for the listeners of a screen.
+     * - Events emitted on any bus of the tree are notified to the listeners of every bus of the tree.
+     * - Persistent events are kept by the bus they were emitted on: they are replayed to new subscribers of that
+     * bus and of its descendants, the closest one first.
+     * - Disposing the child drops all of its subscriptions and persistent events at once, without touching the
+     * listeners of its parent.
+     * The child starts with default settings: metrics, tracer, watchdog and key extractors are not inherited.
+     *
+     * @return new child Bus.
+     * @throws IllegalStateException if this bus has been disposed.
+     * @see #dispose()
+     */
+    @NotNull
+    public Bus newChild() {
+        Bus child = new Bus(this);
+        synchronized (children) {
+            if (disposed) throw new IllegalStateException("Bus has been disposed");
+            children.add(child);
+        }
+        return child;
+    }
+
+    /**
+     * Get the parent of a child bus.
+     *
+     * @return the parent Bus or null if this bus is not a child.
+     */
+    @Nullable
+    public Bus getParent() {
+        return parent;
+    }
+
+    /**
+     * Dispose of this bus and of its children.
+     * The bus is detached from its parent and its persistent events are released. Its listeners are dropped
+     * with it instead of being unsubscribed one by one: they are never notified again. Later emissions on the
+     * bus are ignored and later subscriptions are rejected.
+     * Does nothing if the bus has already been disposed.
+     */
+    public void dispose() {
+        synchronized (children) {
+            if (disposed) return;
+            disposed = true;
+        }
+        if (parent != null) parent.children.remove(this);
+        for (Bus child : children) {
+            child.dispose();
+        }
+        children.clear();
+
+        for (String channel : historic.keySet()) {
+            BusPooledData.release(historic.remove(channel));
+        }
+        for (Map.Entry<String, KeyIndex> entry : keyIndexes.entrySet()) {
+            synchronized (getBusListeners(entry.getKey())) {
+                for (Object persistentData : entry.getValue().historic.values()) {
+                    BusPooledData.release(persistentData);
+                }
+                entry.getValue().historic.clear();
+            }
+        }
+        logger.info("BUS -> Bus disposed.");
+    }
+
+    /**
+     * @return true if this bus has been disposed.
+     */
+    public boolean isDisposed() {
+        return disposed;
+    }
+
     /**
      * Check whether logging is enabled for this bus.
      * Enabled by default.
@@ -55,29 +195,426 @@ public final class Bus {
         logger.setLevel(loggingEnabled ? Level.INFO : Level.OFF);
     }
 
+    /**
+     * Check whether metrics are being collected for this bus.
+     * Disabled by default.
+     *
+     * @return true if metrics are enabled for this bus.
+     */
+    public boolean isMetricsEnabled() {
+        return metrics != null;
+    }
+
+    /**
+     * Sets whether metrics should be collected for this bus.
+     * Disabled by default. Disabling metrics discards everything recorded so far.
+     *
+     * @param metricsEnabled
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        if (metricsEnabled) {
+            if (metrics == null) metrics = new BusMetrics();
+        } else {
+            metrics = null;
+        }
+    }
+
+    /**
+     * Get the metrics collected for this bus.
+     *
+     * @return BusMetrics or null if metrics are not enabled.
+     */
+    @Nullable
+    public BusMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the tracer notified of this bus dispatch operations.
+     *
+     * @return BusTracer or null if no tracer is set.
+     */
+    @Nullable
+    public BusTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Sets a tracer to be notified of this bus dispatch operations: emissions, listener
+     * and preprocessor notifications and persistent event replays.
+     *
+     * @param tracer BusTracer or null to stop tracing.
+     */
+    public void setTracer(@Nullable BusTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Get the watchdog monitoring this bus listener invocations.
+     *
+     * @return BusWatchdog or null if no watchdog is set.
+     */
+    @Nullable
+    public BusWatchdog getWatchdog() {
+        return watchdog;
+    }
+
+    /**
+     * Sets a watchdog to detect listener invocations running longer than its threshold.
+     * Listeners quarantined by the watchdog are notified asynchronously, without holding the channel monitor.
+     * The watchdog must be started separately and may be shared between buses.
+     *
+     * @param watchdog BusWatchdog or null to stop monitoring listener invocations.
+     */
+    public void setWatchdog(@Nullable BusWatchdog watchdog) {
+        this.watchdog = watchdog;
+    }
+
+    /**
+     * Check whether events emitted from inside listeners are queued instead of notified recursively.
+     * Disabled by default.
+     *
+     * @return true if queued dispatch is enabled for this bus.
+     */
+    public boolean isQueuedDispatchEnabled() {
+        return queuedDispatchEnabled;
+    }
+
+    /**
+     * Sets whether events emitted from inside listeners should be queued instead of notified recursively.
+     * Disabled by default.
+     * When enabled, every thread has a dispatch queue: events emitted while the thread is notifying listeners
+     * are queued and notified by the outermost emission once it is done, in the order they were emitted.
+     * Listeners are notified without holding the channel monitor, so channels emitting into each other from
+     * different threads can't deadlock, and the stack depth doesn't grow with nested emissions.
+     * Persistent events replayed to new subscribers are still notified while subscribing.
+     *
+     * @param queuedDispatchEnabled
+     */
+    public void setQueuedDispatchEnabled(boolean queuedDispatchEnabled) {
+        this.queuedDispatchEnabled = queuedDispatchEnabled;
+    }
+
+    /**
+     * Get the parallel fan-out settings of this bus.
+     *
+     * @return BusParallelFanOut or null if listeners are always notified on the emitting thread.
+     */
+    @Nullable
+    public BusParallelFanOut getParallelFanOut() {
+        return parallelFanOut;
+    }
+
+    /**
+     * Sets whether events emitted on channels with many listeners should be notified to them in parallel.
+     * Disabled by default. Primitive emissions and keyed subscriptions are always notified on the emitting thread.
+     *
+     * @param parallelFanOut BusParallelFanOut settings or null to notify listeners on the emitting thread.
+     */
+    public void setParallelFanOut(@Nullable BusParallelFanOut parallelFanOut) {
+        this.parallelFanOut = parallelFanOut;
+    }
+
+    /**
+     * Get the key extractor registered for a data class.
+     *
+     * @param dataClass Class of the data being inspected.
+     * @return BusKeyExtractor or null if no key extractor is registered for the class.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> BusKeyExtractor<? super T> getKeyExtractor(@NotNull Class<T> dataClass) {
+        return (BusKeyExtractor<? super T>) keyExtractors.get(dataClass);
+    }
+
+    /**
+     * Sets the key extractor used to route events containing data of a concrete class to keyed subscriptions.
+     * Like listeners, extractors are matched by the exact class of the emitted data.
+     *
+     * @param dataClass Class of the data the extractor applies to.
+     * @param extractor BusKeyExtractor or null to stop routing data of the class to keyed subscriptions.
+     * @throws IllegalArgumentException if dataClass is null.
+     */
+    public <T> void setKeyExtractor(@NotNull Class<T> dataClass, @Nullable BusKeyExtractor<? super T> extractor) {
+        if (dataClass == null) throw new IllegalArgumentException("Data class must not be null");
+        if (extractor != null) {
+            keyExtractors.put(dataClass, extractor);
+        } else {
+            keyExtractors.remove(dataClass);
+        }
+    }
+
+    /**
+     * Get the equivalence used to skip persistent events equivalent to the last one of a channel.
+     *
+     * @param channel String representing the channel being inspected.
+     * @return BusEquivalence or null if every persistent event is emitted.
+     */
+    @Nullable
+    public BusEquivalence getDistinctPersistent(@NotNull String channel) {
+        if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+        return distinctPersistent.get(channel);
+    }
+
+    /**
+     * Sets whether persistent events equivalent to the last persistent event of a channel should be skipped.
+     * Disabled by default. Skipped events are neither kept nor notified to any listener, and are counted as
+     * suppressed emits in the metrics of the channel.
+     *
+     * @param channel     String representing the channel the equivalence applies to.
+     * @param equivalence BusEquivalence, for example BusEquivalence.EQUALS, or null to emit every persistent event.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public void setDistinctPersistent(@NotNull String channel, @Nullable BusEquivalence equivalence) {
+        if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+        if (equivalence != null) {
+            distinctPersistent.put(channel, equivalence);
+        } else {
+            distinctPersistent.remove(channel);
+        }
+    }
+
+    /**
+     * Get the rate limit of a channel.
+     *
+     * @param channel String representing the channel being inspected.
+     * @return BusRateLimit or null if events emitted on the channel are not rate limited.
+     */
+    @Nullable
+    public BusRateLimit getRateLimit(@NotNull String channel) {
+        if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+        TokenBucket bucket = rateLimits.get(channel);
+        return bucket != null ? bucket.rateLimit : null;
+    }
+
+    /**
+     * Sets the rate limit of the events emitted on a channel, persistent or not.
+     * Disabled by default. Events emitted over the limit are handled by its overflow policy and counted in the
+     * metrics of the channel. Setting a limit starts the channel with a full token bucket.
+     * Events forwarded from other buses of the tree are limited by the bus they were emitted on.
+     *
+     * @param channel   String representing the channel the limit applies to.
+     * @param rateLimit BusRateLimit settings or null to admit every event.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public void setRateLimit(@NotNull String channel, @Nullable BusRateLimit rateLimit) {
+        if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+        if (rateLimit != null) {
+            rateLimits.put(channel, new TokenBucket(rateLimit));
+        } else {
+            rateLimits.remove(channel);
+        }
+    }
+
+    /**
+     * Get the concurrency limit of this bus.
+     *
+     * @return BusConcurrencyLimit or null if any number of threads can emit at the same time.
+     */
+    @Nullable
+    public BusConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    /**
+     * Sets the maximum number of threads emitting events on this bus at the same time.
+     * Disabled by default. Events emitted over the limit are handled by its overflow policy and counted in the
+     * metrics of their channel. Rate limits are applied first, so events shed by them do not take a slot.
+     *
+     * @param concurrencyLimit BusConcurrencyLimit settings or null to admit any number of threads.
+     */
+    public void setConcurrencyLimit(@Nullable BusConcurrencyLimit concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    /**
+     * Get the error isolation settings of this bus.
+     *
+     * @return BusErrorIsolation or null if listener exceptions are thrown to the emitter.
+     */
+    @Nullable
+    public BusErrorIsolation getErrorIsolation() {
+        return errorIsolation;
+    }
+
+    /**
+     * Sets whether exceptions thrown by listeners should be isolated from the rest of the emission.
+     * Disabled by default: the first exception thrown by a listener stops notifying the channel and is thrown to
+     * the emitter. When isolated, failures are reported as told by the settings and counted in the metrics of
+     * the channel, and the remaining listeners are notified.
+     *
+     * @param errorIsolation BusErrorIsolation settings or null to throw listener exceptions to the emitter.
+     */
+    public void setErrorIsolation(@Nullable BusErrorIsolation errorIsolation) {
+        this.errorIsolation = errorIsolation;
+    }
+
+    /**
+     * Begin a batch buffering the events emitted on this bus by the current thread until it is committed or
+     * discarded. Events emitted by other threads are notified as usual.
+     *
+     * @return the open BusBatch.
+     * @throws IllegalStateException if this bus has been disposed or the thread already has a batch open on it.
+     * @see BusBatch
+     */
+    @NotNull
+    public BusBatch beginBatch() {
+        checkNotDisposed();
+        if (batches.get() != null) throw new IllegalStateException("A batch is already open on this thread");
+        BusBatch batch = new BusBatch(this);
+        batches.set(batch);
+        openBatches.incrementAndGet();
+        return batch;
+    }
+
+    /**
+     * Stop buffering the events emitted by the current thread into its batch.
+     */
+    /*package*/ void endBatch() {
+        batches.remove();
+        openBatches.decrementAndGet();
+    }
+
+    /**
+     * Notify the events buffered by a closed batch, holding the monitor of each channel once.
+     */
+    /*package*/ void commit(@NotNull BusBatch batch) {
+        if (disposed) {
+            logger.info("BUS -> Ignored batch committed on disposed bus.");
+            batch.discardClosed();
+            return;
+        }
+        RuntimeException listenerException = null;
+        for (Map.Entry<String, ArrayList<BusBatch.Emission>> entry : batch.getEmissions().entrySet()) {
+            RuntimeException e = flush(entry.getKey(), entry.getValue());
+            if (listenerException == null) listenerException = e;
+        }
+        batch.getEmissions().clear();
+        if (listenerException != null) throw listenerException;
+    }
+
+    /**
+     * Notify the buffered events of a channel, in a single pass holding the channel monitor when possible.
+     *
+     * @return the first exception thrown by a listener, or null if there was none.
+     */
+    @Nullable
+    private RuntimeException flush(@NotNull String channel, @NotNull List<BusBatch.Emission> emissions) {
+        RuntimeException listenerException = null;
+        // Queued and parallel notifications take place outside of the monitor, and other buses of the tree
+        // take their own monitors: notify those events one by one
+        if (queuedDispatchEnabled || parallelFanOut != null || parent != null || !children.isEmpty()) {
+            for (BusBatch.Emission emission : emissions) {
+                try {
+                    emitAdmitted(channel, emission.busData, emission.isPersistent);
+                } catch (RuntimeException e) {
+                    if (listenerException == null) listenerException = e;
+                }
+            }
+            return listenerException;
+        }
+
+        BusListenerList busListeners = getBusListeners(channel);
+        synchronized (busListeners) {
+            for (BusBatch.Emission emission : emissions) {
+                try {
+                    dispatch(channel, busListeners, emission.busData, emission.isPersistent, false);
+                } catch (RuntimeException e) {
+                    // Keep notifying the batch: the committer gets the first exception
+                    if (listenerException == null) listenerException = e;
+                }
+            }
+        }
+        return listenerException;
+    }
+
     /**
      * Subscribe a BusListener to a concrete channel.
      *
      * @param channel  String representing the channel the BusListener is being subscribed to.
      * @param listener BusListener to notify when an event containing data of the class expected by the listener
      *                 is emitted on the channel.
+     * @return BusSubscription to unsubscribe the listener.
      * @throws IllegalArgumentException if the listener is already subscribed to the channel or channel is null.
+     * @throws IllegalStateException    if this bus has been disposed.
      */
-    public void subscribe(@NotNull String channel, @NotNull BusListener listener) {
+    @NotNull
+    public BusSubscription subscribe(@NotNull String channel, @NotNull BusListener listener) {
         if (listener == null) throw new IllegalArgumentException("Listener must not be null");
-        List<BusListener> busListeners = getBusListeners(channel);
+        checkNotDisposed();
+        BusListenerList busListeners = getBusListeners(channel);
         synchronized (busListeners) {
             // Check if this listener was already subscribed to this channel
-            if (busListeners.contains(listener)) {
+            if (busListeners.get(listener) != null) {
                 throw new IllegalArgumentException("Listener already subscribed to channel: " + channel);
             }
 
-            busListeners.add(listener);
+            BusSubscription subscription = new BusSubscription(this, channel, null, listener, busListeners);
+            busListeners.add(subscription);
+            getChannelInterest(channel).add(listener);
             logger.info("BUS -> Listener subscribed to channel: " + channel + " for "
                     + ((listener instanceof BusAnyDataListener)
                     ? "any data." : "data: " + listener.getExpectedDataClass().toString()));
-            if (historic.containsKey(channel)) {
-                emit(historic.get(channel), Collections.singletonList(listener));
+            Object persistentData = findPersistent(channel);
+            if (persistentData != null) replay(channel, unmaskNoData(persistentData), listener);
+            return subscription;
+        }
+    }
+
+    /**
+     * Subscribe several BusListeners to several channels at once.
+     * The monitor of every channel is taken once, and the persistent event of a channel is notified to all
+     * its new listeners in a single pass. If a listener can't be subscribed, none of them remains subscribed.
+     *
+     * @param listeners BusListeners to subscribe, by channel.
+     * @return BusCompositeSubscription to unsubscribe every listener at once.
+     * @throws IllegalArgumentException if a listener is already subscribed to its channel or
+     *                                  listeners, a channel or a listener are null.
+     * @throws IllegalStateException    if this bus has been disposed.
+     */
+    @NotNull
+    public BusCompositeSubscription subscribeAll(@NotNull Map<String, ? extends Collection<? extends BusListener>> listeners) {
+        if (listeners == null) throw new IllegalArgumentException("Listeners must not be null");
+        checkNotDisposed();
+        BusCompositeSubscription compositeSubscription = new BusCompositeSubscription();
+        try {
+            for (Map.Entry<String, ? extends Collection<? extends BusListener>> entry : listeners.entrySet()) {
+                subscribeAll(entry.getKey(), entry.getValue(), compositeSubscription);
+            }
+        } catch (RuntimeException e) {
+            compositeSubscription.dispose();
+            throw e;
+        }
+        return compositeSubscription;
+    }
+
+    private void subscribeAll(@NotNull String channel, @NotNull Collection<? extends BusListener> listeners,
+                              @NotNull BusCompositeSubscription compositeSubscription) {
+        BusListenerList busListeners = getBusListeners(channel);
+        synchronized (busListeners) {
+            // Check every listener before subscribing any of them
+            Set<BusListener> checked = new HashSet<>();
+            for (BusListener listener : listeners) {
+                if (listener == null) throw new IllegalArgumentException("Listener must not be null");
+                if (busListeners.get(listener) != null || !checked.add(listener)) {
+                    throw new IllegalArgumentException("Listener already subscribed to channel: " + channel);
+                }
+            }
+
+            ChannelInterest interest = getChannelInterest(channel);
+            for (BusListener listener : listeners) {
+                BusSubscription subscription = new BusSubscription(this, channel, null, listener, busListeners);
+                busListeners.add(subscription);
+                interest.add(listener);
+                compositeSubscription.add(subscription);
+            }
+            logger.info("BUS -> " + listeners.size() + " listeners subscribed to channel: " + channel);
+            Object persistentData = findPersistent(channel);
+            if (persistentData != null) {
+                Object busData = unmaskNoData(persistentData);
+                for (BusListener listener : listeners) {
+                    replay(channel, busData, listener);
+                }
             }
         }
     }
@@ -88,21 +625,168 @@ public final class Bus {
      * @param channel  String representing the channel from which the listener is being unsubscribed.
      * @param listener BusListener being unsubscribed from the channel.
      * @throws IllegalArgumentException if the listener is not subscribed to the channel or channel is null.
+     * @see BusSubscription#unSubscribe()
      */
     public void unSubscribe(@NotNull String channel, @NotNull BusListener listener) {
         if (listener == null) throw new IllegalArgumentException("Listener must not be null");
-        List<BusListener> busListeners = getBusListeners(channel);
+        BusListenerList busListeners = getBusListeners(channel);
         synchronized (busListeners) {
             // Check if this listener is subscribed to this channel
-            if (!busListeners.contains(listener)) {
+            BusSubscription subscription = busListeners.get(listener);
+            if (subscription == null) {
                 throw new IllegalArgumentException("Trying to unsubscribe non-subscribed listener from channel: " + channel);
             }
+            unSubscribe(subscription);
+        }
+    }
+
+    /**
+     * Unsubscribe the listener of a subscription. Must be called while holding the channel monitor.
+     *
+     * @param subscription subscribed BusSubscription.
+     */
+    /*package*/ void unSubscribe(@NotNull BusSubscription subscription) {
+        BusListener listener = subscription.listener;
+        if (subscription.key == null) {
+            subscription.channelListeners.remove(subscription);
+            logger.info("BUS -> Listener Unsubscribed from channel: " + subscription.channel + ". Expected "
+                    + ((listener instanceof BusAnyDataListener)
+                    ? "any data." : "data: " + listener.getExpectedDataClass().toString()));
+        } else {
+            KeyIndex keyIndex = keyIndexes.get(subscription.channel);
+            BusListenerList keyListeners = keyIndex.listeners.get(subscription.key);
+            keyListeners.remove(subscription);
+            // Drop empty lists so short lived keys don't accumulate
+            if (keyListeners.isEmpty()) keyIndex.listeners.remove(subscription.key);
+            logger.info("BUS -> Listener Unsubscribed from key: " + subscription.key + " of channel: "
+                    + subscription.channel + ". Expected "
+                    + ((listener instanceof BusAnyDataListener)
+                    ? "any data." : "data: " + listener.getExpectedDataClass().toString()));
+        }
+        getChannelInterest(subscription.channel).remove(listener);
+    }
+
+    /**
+     * Subscribe a BusListener to a concrete key of a channel.
+     * The listener is only notified of the events emitted on the channel whose data has the key, so emissions
+     * don't visit listeners subscribed to other keys. If a persistent event with the key was emitted on the
+     * channel, the listener is notified of the last one as soon as it subscribes.
+     *
+     * @param channel  String representing the channel the BusListener is being subscribed to.
+     * @param key      key of the data the listener is interested in.
+     * @param listener BusListener to notify when an event containing data of the class expected by the listener
+     *                 and with the key is emitted on the channel.
+     * @return BusSubscription to unsubscribe the listener.
+     * @throws IllegalArgumentException if the listener is already subscribed to the key of the channel or
+     *                                  channel, key or listener are null.
+     * @throws IllegalStateException    if this bus has been disposed.
+     * @see #setKeyExtractor(Class, BusKeyExtractor)
+     */
+    @NotNull
+    public BusSubscription subscribe(@NotNull String channel, @NotNull Object key, @NotNull BusListener listener) {
+        if (key == null) throw new IllegalArgumentException("Key must not be null");
+        if (listener == null) throw new IllegalArgumentException("Listener must not be null");
+        checkNotDisposed();
+        BusListenerList busListeners = getBusListeners(channel);
+        synchronized (busListeners) {
+            KeyIndex keyIndex = getKeyIndex(channel);
+            BusListenerList keyListeners = keyIndex.listeners.get(key);
+            if (keyListeners == null) {
+                keyListeners = new BusListenerList();
+                keyIndex.listeners.put(key, keyListeners);
+            } else if (keyListeners.get(listener) != null) {
+                throw new IllegalArgumentException("Listener already subscribed to key: " + key + " of channel: " + channel);
+            }
 
-            logger.info("BUS -> Listener Unsubscribed from channel: " + channel + ". Expected "
+            BusSubscription subscription = new BusSubscription(this, channel, key, listener, busListeners);
+            keyListeners.add(subscription);
+            getChannelInterest(channel).add(listener);
+            logger.info("BUS -> Listener subscribed to key: " + key + " of channel: " + channel + " for "
                     + ((listener instanceof BusAnyDataListener)
                     ? "any data." : "data: " + listener.getExpectedDataClass().toString()));
-            busListeners.remove(listener);
+            if (keyIndex.historic.containsKey(key)) replay(channel, keyIndex.historic.get(key), listener);
+            return subscription;
+        }
+    }
+
+    /**
+     * Unsubscribe a BusListener from a concrete key of a channel.
+     *
+     * @param channel  String representing the channel from which the listener is being unsubscribed.
+     * @param key      key the listener was subscribed to.
+     * @param listener BusListener being unsubscribed from the key of the channel.
+     * @throws IllegalArgumentException if the listener is not subscribed to the key of the channel or
+     *                                  channel, key or listener are null.
+     * @see BusSubscription#unSubscribe()
+     */
+    public void unSubscribe(@NotNull String channel, @NotNull Object key, @NotNull BusListener listener) {
+        if (key == null) throw new IllegalArgumentException("Key must not be null");
+        if (listener == null) throw new IllegalArgumentException("Listener must not be null");
+        BusListenerList busListeners = getBusListeners(channel);
+        synchronized (busListeners) {
+            KeyIndex keyIndex = keyIndexes.get(channel);
+            BusListenerList keyListeners = keyIndex != null ? keyIndex.listeners.get(key) : null;
+            BusSubscription subscription = keyListeners != null ? keyListeners.get(listener) : null;
+            if (subscription == null) {
+                throw new IllegalArgumentException("Trying to unsubscribe non-subscribed listener from key: " + key
+                        + " of channel: " + channel);
+            }
+            unSubscribe(subscription);
+        }
+    }
+
+    /**
+     * Notify a persistent event to a listener as it subscribes. Must be called while holding the channel monitor.
+     */
+    private void replay(@NotNull String channel, @Nullable Object busData, @NotNull BusListener listener) {
+        BusMetrics.ChannelMetrics channelMetrics = getChannelMetrics(channel);
+        if (channelMetrics != null) channelMetrics.persistentReplays.incrementAndGet();
+        BusTracer busTracer = tracer;
+        Object trace = busTracer != null
+                ? busTracer.begin(BusTracer.Operation.PERSISTENT_REPLAY, channel, listener, busData) : null;
+        try {
+            emit(channel, busData, Collections.singletonList(listener), channelMetrics, busTracer);
+        } finally {
+            if (trace != null) busTracer.end(trace);
+        }
+    }
+
+    /**
+     * Combine the latest data of several channels, emitting it on an output channel whenever one of them changes.
+     * Every input is subscribed with a listener expecting any data, so inputs holding a persistent event are
+     * seeded from it right away. Once every input has been notified, each event on an input whose data is not
+     * equal to the latest one of the input emits a BusCombined with the latest data of every input as a
+     * persistent event of the output channel.
+     * Combinations are emitted on the thread notifying the input, in the order inputs are notified.
+     * Pooled data should not be combined, as combinations outlive the notification of their inputs.
+     *
+     * @param outputChannel String representing the channel combinations are emitted to.
+     * @param inputChannels Strings representing the channels being combined, in the order of the combination.
+     * @return BusCompositeSubscription to stop combining the channels.
+     * @throws IllegalArgumentException if outputChannel or an input channel are null, there are no input
+     *                                  channels, an input channel is repeated or is the output channel.
+     * @throws IllegalStateException    if this bus has been disposed.
+     * @see BusCombined
+     */
+    @NotNull
+    public BusCompositeSubscription combineLatest(@NotNull String outputChannel, @NotNull String... inputChannels) {
+        if (outputChannel == null) throw new IllegalArgumentException("Output channel must not be null");
+        if (inputChannels == null || inputChannels.length == 0) {
+            throw new IllegalArgumentException("Input channels must not be empty");
+        }
+        String[] channels = inputChannels.clone();
+        Set<String> distinctChannels = new HashSet<>();
+        for (String channel : channels) {
+            if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+            if (channel.equals(outputChannel)) {
+                throw new IllegalArgumentException("Input channel must not be the output channel: " + channel);
+            }
+            if (!distinctChannels.add(channel)) {
+                throw new IllegalArgumentException("Input channel must not be repeated: " + channel);
+            }
         }
+        checkNotDisposed();
+        return new BusCombiner(this, outputChannel, channels).subscribe();
     }
 
     /**
@@ -153,63 +837,1100 @@ public final class Bus {
         emit(channel, busData, false);
     }
 
-    private void emit(@NotNull String channel, @Nullable Object eventData, boolean isPersistent) {
-        List<BusListener> busListeners = getBusListeners(channel);
-        logger.info("BUS -> Data of class: " + (eventData != null ? eventData.getClass().toString() : "null") + " emitted on channel: " + channel);
-        synchronized (busListeners) {
-            if (isPersistent) historic.put(channel, eventData);
-            emit(eventData, busListeners);
-        }
+    /**
+     * Emit event containing data after a delay.
+     * Delayed events are kept in a timing wheel shared by every bus, with a resolution of one millisecond, and
+     * are emitted on its thread. Scheduling and cancelling them is O(1).
+     *
+     * @param channel String representing the channel the event will be emitted to.
+     * @param busData data sent to the channel.
+     * @param delay   time to wait before emitting the event.
+     * @param unit    time unit of the delay.
+     * @return BusScheduledEvent to cancel the event.
+     * @throws IllegalArgumentException if channel or unit are null or delay is negative.
+     */
+    @NotNull
+    public BusScheduledEvent emitEventAfter(@NotNull String channel, @Nullable Object busData,
+                                            long delay, @NotNull TimeUnit unit) {
+        return schedule(channel, busData, delay, 0, unit);
     }
 
-    private void emit(@Nullable Object busData, @NotNull List<BusListener> listeners) {
-        for (BusListener listener : listeners) {
-            // If listener is a BusAnyDataListener data may be null.
-            // Otherwise data must not be null.
-            if (listener instanceof BusAnyDataListener ||
-                    (busData != null && listener.getExpectedDataClass().equals(busData.getClass()))) {
-                if (listener.hasPreprocessor()) {
-                    listener.getPreprocessor().notifyEvent(listener, busData);
-
-                    logger.info("BUS -> Notified listener's preprocessor expecting data of "
-                            + ((listener instanceof BusAnyDataListener)
-                            ? "any class" : "class: " + listener.getExpectedDataClass().toString()));
-                } else {
-                    listener.notifyEvent(busData);
-
-                    logger.info("BUS -> Notified listener expecting data of "
-                            + ((listener instanceof BusAnyDataListener)
-                            ? "any class" : "class: " + listener.getExpectedDataClass().toString()));
-                }
-            } else {
-                logger.info("BUS -> Did not notify listener on channel due to different data class expectation: Listener expected: " +
-                        listener.getExpectedDataClass().toString() + " and data sent class was: " + (busData != null ? busData.getClass().toString() : "null"));
+    /**
+     * Emit event containing data periodically, at a fixed rate, until cancelled.
+     * Periodic events are kept in the same timing wheel as delayed events.
+     *
+     * @param channel      String representing the channel the event will be emitted to.
+     * @param busData      data sent to the channel on every emission.
+     * @param initialDelay time to wait before the first emission.
+     * @param period       time between emissions.
+     * @param unit         time unit of the initial delay and the period.
+     * @return BusScheduledEvent to cancel the event.
+     * @throws IllegalArgumentException if channel or unit are null, initialDelay is negative or period is not positive.
+     * @see #emitEventAfter(String, Object, long, TimeUnit)
+     */
+    @NotNull
+    public BusScheduledEvent emitEventEvery(@NotNull String channel, @Nullable Object busData,
+                                            long initialDelay, long period, @NotNull TimeUnit unit) {
+        if (period <= 0) throw new IllegalArgumentException("Period must be positive");
+        return schedule(channel, busData, initialDelay, period, unit);
+    }
+
+    @NotNull
+    private BusScheduledEvent schedule(@NotNull String channel, @Nullable Object busData, long delay, long period,
+                                       @NotNull TimeUnit unit) {
+        if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+        if (unit == null) throw new IllegalArgumentException("Time unit must not be null");
+        if (delay < 0) throw new IllegalArgumentException("Delay must not be negative");
+        return schedule(channel, busData, null, unit.toNanos(delay), period > 0 ? unit.toNanos(period) : 0);
+    }
+
+    /**
+     * Schedule a task on the timing wheel, run periodically on its thread until cancelled.
+     *
+     * @param channel channel the task emits to, used to report its failures.
+     */
+    @NotNull
+    /*package*/ BusScheduledEvent scheduleTask(@NotNull String channel, @NotNull Runnable task, long periodNanos) {
+        return schedule(channel, null, task, periodNanos, periodNanos);
+    }
+
+    /**
+     * Schedule a task on the timing wheel, run once on its thread after a delay unless cancelled.
+     * Unlike events and periodic tasks, it still runs if this bus is disposed in the meantime.
+     *
+     * @param channel channel the task belongs to, used to report its failures.
+     */
+    @NotNull
+    /*package*/ BusScheduledEvent scheduleTaskAfter(@NotNull String channel, @NotNull Runnable task, long delayNanos) {
+        return schedule(channel, null, task, delayNanos, 0);
+    }
+
+    @NotNull
+    private BusScheduledEvent schedule(@NotNull String channel, @Nullable Object busData, @Nullable Runnable task,
+                                       long delayNanos, long periodNanos) {
+        if (periodNanos > 0) periodNanos = Math.max(TIMING_WHEEL.getTickNanos(), periodNanos);
+        BusScheduledEvent event = new BusScheduledEvent(this, channel, busData, task, TIMING_WHEEL,
+                System.nanoTime() + Math.min(delayNanos, MAX_DELAY_NANOS), Math.min(periodNanos, MAX_DELAY_NANOS));
+        TIMING_WHEEL.schedule(event);
+        return event;
+    }
+
+    /**
+     * Emit event containing an int value.
+     * IntBusListeners subscribed to the channel are notified without boxing the value; BusListeners expecting
+     * Integer data or any data are notified of the boxed value.
+     *
+     * @param channel String representing the channel the event will be emitted to.
+     * @param busData value sent to the channel.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public void emitEvent(@NotNull String channel, int busData) {
+        emit(channel, Integer.class, busData);
+    }
+
+    /**
+     * Emit event containing a long value.
+     * LongBusListeners subscribed to the channel are notified without boxing the value; BusListeners expecting
+     * Long data or any data are notified of the boxed value.
+     *
+     * @param channel String representing the channel the event will be emitted to.
+     * @param busData value sent to the channel.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public void emitEvent(@NotNull String channel, long busData) {
+        emit(channel, Long.class, busData);
+    }
+
+    /**
+     * Emit event containing a double value.
+     * DoubleBusListeners subscribed to the channel are notified without boxing the value; BusListeners expecting
+     * Double data or any data are notified of the boxed value.
+     *
+     * @param channel String representing the channel the event will be emitted to.
+     * @param busData value sent to the channel.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public void emitEvent(@NotNull String channel, double busData) {
+        emit(channel, Double.class, Double.doubleToRawLongBits(busData));
+    }
+
+    /**
+     * Emit event containing a float value.
+     * Only BusListeners expecting Float data or any data are notified, of the boxed value.
+     *
+     * @param channel String representing the channel the event will be emitted to.
+     * @param busData value sent to the channel.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public void emitEvent(@NotNull String channel, float busData) {
+        // Keeps the wrapper class instead of widening to the double overload
+        emit(channel, Float.valueOf(busData), false);
+    }
+
+    /**
+     * Emit event containing a short value.
+     * Only BusListeners expecting Short data or any data are notified, of the boxed value.
+     *
+     * @param channel String representing the channel the event will be emitted to.
+     * @param busData value sent to the channel.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public void emitEvent(@NotNull String channel, short busData) {
+        emit(channel, Short.valueOf(busData), false);
+    }
+
+    /**
+     * Emit event containing a byte value.
+     * Only BusListeners expecting Byte data or any data are notified, of the boxed value.
+     *
+     * @param channel String representing the channel the event will be emitted to.
+     * @param busData value sent to the channel.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public void emitEvent(@NotNull String channel, byte busData) {
+        emit(channel, Byte.valueOf(busData), false);
+    }
+
+    /**
+     * Emit event containing a char value.
+     * Only BusListeners expecting Character data or any data are notified, of the boxed value.
+     *
+     * @param channel String representing the channel the event will be emitted to.
+     * @param busData value sent to the channel.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public void emitEvent(@NotNull String channel, char busData) {
+        emit(channel, Character.valueOf(busData), false);
+    }
+
+    /**
+     * Emit event containing data built lazily.
+     * The supplier is only called if some BusListener subscribed to the channel (or to any of its keys) expects
+     * the data class or any data, so expensive data is not built when nobody is listening.
+     * Checking for subscribers takes no locks. The supplier must return an instance of exactly the data class,
+     * as listeners are matched by the exact class of the data.
+     *
+     * @param channel   String representing the channel the event will be emitted to.
+     * @param dataClass Class of the data the supplier builds.
+     * @param supplier  BusDataSupplier building the data sent to the channel.
+     * @throws IllegalArgumentException if channel, dataClass or supplier are null.
+     * @see #hasSubscribers(String, Class)
+     */
+    public <T> void emitEvent(@NotNull String channel, @NotNull Class<T> dataClass,
+                              @NotNull BusDataSupplier<? extends T> supplier) {
+        if (supplier == null) throw new IllegalArgumentException("Supplier must not be null");
+        if (hasSubscribers(channel, dataClass)) emit(channel, supplier.get(), false);
+    }
+
+    /**
+     * Check whether an event containing data of a concrete class emitted on a channel would be notified to
+     * some listener, either subscribed to the whole channel or to any of its keys, on any bus of the tree.
+     * Takes no locks, so it can be called on every emission.
+     *
+     * @param channel   String representing the channel being inspected.
+     * @param dataClass Class of the data.
+     * @return true if some listener subscribed to the channel expects the data class or any data.
+     * @throws IllegalArgumentException if channel or dataClass are null.
+     */
+    public boolean hasSubscribers(@NotNull String channel, @NotNull Class<?> dataClass) {
+        if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+        if (dataClass == null) throw new IllegalArgumentException("Data class must not be null");
+        if (disposed) return false;
+        Bus root = this;
+        while (root.parent != null) {
+            root = root.parent;
+        }
+        return root.hasSubscribersInTree(channel, dataClass);
+    }
+
+    private boolean hasSubscribersInTree(@NotNull String channel, @NotNull Class<?> dataClass) {
+        if (disposed) return false;
+        ChannelInterest interest = interests.get(channel);
+        if (interest != null && interest.isInterested(dataClass)) return true;
+        if (children.isEmpty()) return false;
+        for (Bus child : children) {
+            if (child.hasSubscribersInTree(channel, dataClass)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get the data of the last persistent event emitted on a channel without subscribing to it.
+     * Persistent events of this bus hide those of its ancestors, as when replaying them to new subscribers.
+     * Takes no locks, so it can be polled at high rates without disturbing dispatch.
+     * Pooled data is not retained for the caller: it may be recycled once replaced by a newer persistent event.
+     *
+     * @param channel   String representing the channel being inspected.
+     * @param dataClass Class of the expected data.
+     * @return data of the last persistent event or null if there is none, it has no data or it is not of the class.
+     * @throws IllegalArgumentException if channel or dataClass are null.
+     */
+    @Nullable
+    public <T> T getPersistent(@NotNull String channel, @NotNull Class<T> dataClass) {
+        if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+        if (dataClass == null) throw new IllegalArgumentException("Data class must not be null");
+        Object persistentData = findPersistent(channel);
+        return persistentData != null && persistentData.getClass() == dataClass ? dataClass.cast(persistentData) : null;
+    }
+
+    /**
+     * Check whether a persistent event has been emitted on a channel. Takes no locks.
+     *
+     * @param channel String representing the channel being inspected.
+     * @return true if a persistent event, with or without data, has been emitted on the channel of this bus
+     * or of any of its ancestors.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public boolean hasPersistent(@NotNull String channel) {
+        if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+        return findPersistent(channel) != null;
+    }
+
+    /**
+     * Get the data of the last persistent event of every channel, on this bus or on any of its ancestors.
+     * Takes no locks. Every channel is read consistently, but channels emitting while the snapshot is taken
+     * may be read before or after their emission.
+     *
+     * @return unmodifiable map of channel to the data of its last persistent event, null for events without data.
+     */
+    @NotNull
+    public Map<String, Object> getPersistentSnapshot() {
+        Map<String, Object> snapshot = parent != null ? new HashMap<>(parent.getPersistentSnapshot())
+                : new HashMap<String, Object>();
+        for (Map.Entry<String, Object> entry : historic.entrySet()) {
+            snapshot.put(entry.getKey(), unmaskNoData(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Get the time requests wait for a reply when no explicit timeout is given.
+     * 30 seconds by default.
+     *
+     * @param unit time unit of the returned timeout.
+     * @return the default request timeout.
+     */
+    public long getRequestTimeout(@NotNull TimeUnit unit) {
+        return unit.convert(requestTimeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the time requests wait for a reply when no explicit timeout is given.
+     *
+     * @param timeout default request timeout, 0 or less to wait forever.
+     * @param unit    time unit of the timeout.
+     */
+    public void setRequestTimeout(long timeout, @NotNull TimeUnit unit) {
+        requestTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Emit a request and wait for its reply, with the default request timeout.
+     *
+     * @param channel    String representing the channel the request will be emitted to.
+     * @param payload    payload of the request.
+     * @param replyClass Class the reply must be an instance of.
+     * @return BusFuture completed with the first reply.
+     * @throws IllegalArgumentException if channel or replyClass are null.
+     * @see #request(String, Object, Class, long, TimeUnit)
+     */
+    @NotNull
+    public <R> BusFuture<R> request(@NotNull String channel, @Nullable Object payload, @NotNull Class<R> replyClass) {
+        return request(channel, payload, replyClass, requestTimeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Emit a request and wait for its reply.
+     * The request is emitted as a BusRequest event containing the payload, so only listeners subscribed to the
+     * channel expecting BusRequest data (or any data) are notified. Its reply is routed back by correlation ID
+     * without subscribing any listener.
+     * The returned future fails with a TimeoutException if no reply is received in time, and with
+     * the exception thrown by a responder if notifying the request fails.
+     *
+     * @param channel    String representing the channel the request will be emitted to.
+     * @param payload    payload of the request.
+     * @param replyClass Class the reply must be an instance of.
+     * @param timeout    time to wait for a reply, 0 or less to wait forever.
+     * @param unit       time unit of the timeout.
+     * @return BusFuture completed with the first reply.
+     * @throws IllegalArgumentException if channel or replyClass are null.
+     */
+    @NotNull
+    public <R> BusFuture<R> request(@NotNull String channel, @Nullable Object payload, @NotNull Class<R> replyClass,
+                                    long timeout, @NotNull TimeUnit unit) {
+        if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+        if (replyClass == null) throw new IllegalArgumentException("Reply class must not be null");
+        BusReplyDispatcher.PendingRequest<R> pendingRequest =
+                replyDispatcher.register(channel, payload, replyClass, timeout, unit);
+        try {
+            emit(channel, pendingRequest.request, false);
+        } catch (RuntimeException e) {
+            pendingRequest.request.replyError(e);
+        }
+        return pendingRequest.future;
+    }
+
+    private void emit(@NotNull String channel, @Nullable Object eventData, boolean isPersistent) {
+        if (disposed) {
+            logger.info("BUS -> Ignored event emitted on channel: " + channel + " of disposed bus.");
+            BusPooledData.release(eventData);
+            return;
+        }
+        BusConcurrencyLimit limit = concurrencyLimit;
+        if (limit == null && rateLimits.isEmpty()) {
+            emitAdmitted(channel, eventData, isPersistent);
+        } else {
+            admit(channel, eventData, isPersistent, limit);
+        }
+    }
+
+    /**
+     * Apply the rate limit of the channel and the concurrency limit of the bus to an emission.
+     */
+    private void admit(@NotNull String channel, @Nullable Object eventData, boolean isPersistent,
+                       @Nullable BusConcurrencyLimit limit) {
+        if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+        TokenBucket bucket = rateLimits.get(channel);
+        if (bucket != null && !bucket.tryAcquire()) {
+            shed(channel, eventData, isPersistent, bucket.rateLimit.getPolicy(), "rate limit");
+            return;
+        }
+        if (limit == null) {
+            emitAdmitted(channel, eventData, isPersistent);
+            return;
+        }
+
+        // Events emitted by listeners belong to the emission of the thread: they do not take another slot
+        int[] admitted = admittedEmits.get();
+        if (admitted[0] == 0 && !tryAcquireConcurrentEmit(limit.getMaxConcurrentEmits())) {
+            shed(channel, eventData, isPersistent, limit.getPolicy(), "concurrency limit");
+            return;
+        }
+        admitted[0]++;
+        try {
+            emitAdmitted(channel, eventData, isPersistent);
+        } finally {
+            if (--admitted[0] == 0) concurrentEmits.decrementAndGet();
+        }
+    }
+
+    private boolean tryAcquireConcurrentEmit(int maxConcurrentEmits) {
+        while (true) {
+            int current = concurrentEmits.get();
+            if (current >= maxConcurrentEmits) return false;
+            if (concurrentEmits.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /**
+     * Handle an event emitted over a limit as told by the overflow policy of the limit.
+     */
+    private void shed(@NotNull String channel, @Nullable Object eventData, boolean isPersistent,
+                      @NotNull BusOverflowPolicy policy, @NotNull String limitName) {
+        BusMetrics.ChannelMetrics channelMetrics = getChannelMetrics(channel);
+        switch (policy.getAction()) {
+            case OVERFLOW:
+                if (channelMetrics != null) channelMetrics.overflowedEmits.incrementAndGet();
+                logger.info("BUS -> Event emitted on channel: " + channel + " over the " + limitName
+                        + " overflowed to channel: " + policy.getOverflowChannel());
+                // Overflowed events skip the limits, so shedding never loops between channels
+                emitAdmitted(policy.getOverflowChannel(), eventData, isPersistent);
+                break;
+            case DROP:
+                if (channelMetrics != null) channelMetrics.droppedEmits.incrementAndGet();
+                logger.info("BUS -> Event emitted on channel: " + channel + " over the " + limitName + " dropped.");
+                BusPooledData.release(eventData);
+                break;
+            default:
+                if (channelMetrics != null) channelMetrics.rejectedEmits.incrementAndGet();
+                BusPooledData.release(eventData);
+                throw new RejectedExecutionException("Event emitted on channel: " + channel
+                        + " rejected: " + limitName + " exceeded");
+        }
+    }
+
+    private void emitAdmitted(@NotNull String channel, @Nullable Object eventData, boolean isPersistent) {
+        if (openBatches.get() != 0) {
+            BusBatch batch = batches.get();
+            if (batch != null) {
+                if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+                batch.add(channel, eventData, isPersistent);
+                return;
+            }
+        }
+        if (!queuedDispatchEnabled) {
+            dispatchInTree(channel, eventData, isPersistent, false);
+            return;
+        }
+
+        getBusListeners(channel); // Fail fast on null channels
+        DispatchQueue dispatchQueue = dispatchQueues.get();
+        dispatchQueue.emissions.add(new QueuedEmission(channel, eventData, isPersistent));
+        // Nested emissions are notified by the outermost one
+        if (dispatchQueue.dispatching) return;
+
+        dispatchQueue.dispatching = true;
+        RuntimeException listenerException = null;
+        try {
+            QueuedEmission emission;
+            while ((emission = dispatchQueue.emissions.poll()) != null) {
+                try {
+                    dispatchInTree(emission.channel, emission.busData, emission.isPersistent, true);
+                } catch (RuntimeException e) {
+                    // Keep notifying the queued emissions: the emitter gets the first exception
+                    if (listenerException == null) listenerException = e;
+                }
+            }
+        } finally {
+            dispatchQueue.dispatching = false;
+            QueuedEmission emission;
+            while ((emission = dispatchQueue.emissions.poll()) != null) {
+                BusPooledData.release(emission.busData);
+            }
+        }
+        if (listenerException != null) throw listenerException;
+    }
+
+    /**
+     * Notify an event to the listeners of a channel on every bus of the tree. Only this bus keeps it if persistent.
+     */
+    private void dispatchInTree(@NotNull String channel, @Nullable Object eventData, boolean isPersistent,
+                                boolean outsideMonitor) {
+        if (parent == null && children.isEmpty()) {
+            dispatch(channel, eventData, isPersistent, outsideMonitor);
+            return;
+        }
+
+        // Every bus releases its own reference to pooled data: keep one while forwarding
+        BusPooledData.retain(eventData);
+        try {
+            if (!dispatch(channel, eventData, isPersistent, outsideMonitor)) return;
+            Bus from = this;
+            for (Bus ancestor = parent; ancestor != null; from = ancestor, ancestor = ancestor.parent) {
+                ancestor.dispatchForwarded(channel, eventData, from);
+            }
+            forwardToChildren(channel, eventData, null);
+        } finally {
+            BusPooledData.release(eventData);
+        }
+    }
+
+    /**
+     * Notify an event emitted on another bus of the tree to the listeners of this bus and of its children,
+     * except the child it comes from.
+     */
+    private void dispatchForwarded(@NotNull String channel, @Nullable Object eventData, @Nullable Bus from) {
+        if (disposed) return;
+        BusPooledData.retain(eventData);
+        dispatch(channel, eventData, false, queuedDispatchEnabled);
+        forwardToChildren(channel, eventData, from);
+    }
+
+    private void forwardToChildren(@NotNull String channel, @Nullable Object eventData, @Nullable Bus except) {
+        if (children.isEmpty()) return;
+        for (Bus child : children) {
+            if (child != except) child.dispatchForwarded(channel, eventData, null);
+        }
+    }
+
+    /**
+     * Notify an event to the listeners of a channel.
+     *
+     * @param outsideMonitor true to notify the listeners after leaving the channel monitor.
+     * @return false if the event was suppressed for being equivalent to the persistent event of the channel.
+     */
+    private boolean dispatch(@NotNull String channel, @Nullable Object eventData, boolean isPersistent,
+                          boolean outsideMonitor) {
+        return dispatch(channel, getBusListeners(channel), eventData, isPersistent, outsideMonitor);
+    }
+
+    private boolean dispatch(@NotNull String channel, @NotNull BusListenerList busListeners,
+                             @Nullable Object eventData, boolean isPersistent, boolean outsideMonitor) {
+        logger.info("BUS -> Data of class: " + (eventData != null ? eventData.getClass().toString() : "null") + " emitted on channel: " + channel);
+        BusParallelFanOut fanOut = parallelFanOut;
+        BusListener[] parallelListeners = null;
+        Iterable<BusListener> channelListeners = null;
+        Iterable<BusListener> keyListeners = null;
+        BusMetrics.ChannelMetrics channelMetrics;
+        BusTracer busTracer = tracer;
+        Object trace = null;
+        try {
+            synchronized (busListeners) {
+                if (isPersistent && isSuppressed(channel, eventData)) return false;
+                if (isPersistent) {
+                    // The historic keeps its own reference to pooled data
+                    BusPooledData.retain(eventData);
+                    BusPooledData.release(historic.put(channel, eventData != null ? eventData : NO_DATA));
+                }
+                BusListenerList keyListenerList = getKeyListeners(channel, eventData, isPersistent);
+                channelMetrics = getChannelMetrics(channel);
+                if (channelMetrics != null) channelMetrics.emits.incrementAndGet();
+                trace = busTracer != null
+                        ? busTracer.begin(BusTracer.Operation.EMIT, channel, null, eventData) : null;
+                if (fanOut != null && busListeners.size() >= fanOut.getThreshold()) {
+                    // Notified after leaving the monitor, so listeners running on the pool can use the channel
+                    parallelListeners = busListeners.toArray();
+                } else if (outsideMonitor) {
+                    channelListeners = busListeners.snapshot();
+                } else {
+                    emit(channel, eventData, busListeners, channelMetrics, busTracer);
+                }
+                if (keyListenerList != null) {
+                    if (outsideMonitor) {
+                        keyListeners = keyListenerList.snapshot();
+                    } else {
+                        emit(channel, eventData, keyListenerList, channelMetrics, busTracer);
+                    }
+                }
+            }
+            if (channelListeners != null) emit(channel, eventData, channelListeners, channelMetrics, busTracer);
+            if (keyListeners != null) emit(channel, eventData, keyListeners, channelMetrics, busTracer);
+            if (parallelListeners != null) {
+                emitParallel(fanOut, channel, eventData, parallelListeners, channelMetrics, busTracer);
+            }
+            return true;
+        } finally {
+            if (trace != null) busTracer.end(trace);
+            // The emitter hands its reference to pooled data over to the bus
+            BusPooledData.release(eventData);
+        }
+    }
+
+    /**
+     * Check whether a persistent event is equivalent to the persistent event of its channel, counting it if so.
+     * Must be called while holding the channel monitor.
+     */
+    private boolean isSuppressed(@NotNull String channel, @Nullable Object eventData) {
+        if (distinctPersistent.isEmpty()) return false;
+        BusEquivalence equivalence = distinctPersistent.get(channel);
+        Object persistentData = equivalence != null ? historic.get(channel) : null;
+        if (persistentData == null || !equivalence.isEquivalent(unmaskNoData(persistentData), eventData)) return false;
+
+        BusMetrics.ChannelMetrics channelMetrics = getChannelMetrics(channel);
+        if (channelMetrics != null) channelMetrics.suppressedEmits.incrementAndGet();
+        logger.info("BUS -> Persistent event emitted on channel: " + channel + " suppressed: equivalent to the previous one.");
+        return true;
+    }
+
+    /**
+     * Get the listeners subscribed to the key of an event, storing it as the persistent event of the key if needed.
+     * Must be called while holding the channel monitor.
+     *
+     * @return listeners subscribed to the key of the data or null if there are none.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private BusListenerList getKeyListeners(@NotNull String channel, @Nullable Object busData, boolean isPersistent) {
+        // Most buses never register an extractor: skip hashing the data class
+        if (busData == null || keyExtractors.isEmpty()) return null;
+        BusKeyExtractor<Object> extractor = (BusKeyExtractor<Object>) keyExtractors.get(busData.getClass());
+        if (extractor == null) return null;
+        Object key = extractor.getKey(busData);
+        if (key == null) return null;
+
+        KeyIndex keyIndex;
+        if (isPersistent) {
+            keyIndex = getKeyIndex(channel);
+            BusPooledData.retain(busData);
+            BusPooledData.release(keyIndex.historic.put(key, busData));
+        } else {
+            keyIndex = keyIndexes.get(channel);
+            if (keyIndex == null) return null;
+        }
+        return keyIndex.listeners.get(key);
+    }
+
+    private void emit(@NotNull String channel, @Nullable Object busData, @NotNull Iterable<BusListener> listeners,
+                      @Nullable BusMetrics.ChannelMetrics channelMetrics, @Nullable BusTracer busTracer) {
+        BusWatchdog busWatchdog = watchdog;
+        BusWatchdog.Slot slot = busWatchdog != null ? busWatchdog.getSlot() : null;
+        for (BusListener listener : listeners) {
+            deliver(channel, busData, listener, channelMetrics, busTracer, busWatchdog, slot);
+        }
+    }
+
+    private void deliver(@NotNull String channel, @Nullable Object busData, @NotNull BusListener listener,
+                         @Nullable BusMetrics.ChannelMetrics channelMetrics, @Nullable BusTracer busTracer,
+                         @Nullable BusWatchdog busWatchdog, @Nullable BusWatchdog.Slot slot) {
+        // If listener is a BusAnyDataListener data may be null.
+        // Otherwise data must not be null.
+        if (listener instanceof BusAnyDataListener ||
+                (busData != null && listener.getExpectedDataClass().equals(busData.getClass()))) {
+            Executor quarantineExecutor = busWatchdog != null ? busWatchdog.getQuarantineExecutor(listener) : null;
+            if (quarantineExecutor != null) {
+                notifyListenerAsync(quarantineExecutor, channel, listener, busData, channelMetrics, busTracer);
+                return;
+            }
+
+            BusErrorIsolation isolation = errorIsolation;
+            if (isolation != null && isolation.shouldSkip(listener)) {
+                skipOpenCircuit(channel, channelMetrics);
+                return;
+            }
+            if (slot != null) slot.begin(channel, listener);
+            try {
+                notifyListener(channel, listener, busData, channelMetrics, busTracer);
+                if (isolation != null) isolation.onSuccess(listener);
+            } catch (RuntimeException e) {
+                if (isolation == null) throw e;
+                onListenerFailure(isolation, channel, listener, busData, e, channelMetrics);
+            } finally {
+                if (slot != null) slot.end();
+            }
+        } else {
+            if (channelMetrics != null) channelMetrics.classMismatches.incrementAndGet();
+            logger.info("BUS -> Did not notify listener on channel due to different data class expectation: Listener expected: " +
+                    listener.getExpectedDataClass().toString() + " and data sent class was: " + (busData != null ? busData.getClass().toString() : "null"));
+        }
+    }
+
+    private void emitParallel(@NotNull BusParallelFanOut fanOut, @NotNull String channel, @Nullable Object busData,
+                              @NotNull BusListener[] listeners, @Nullable BusMetrics.ChannelMetrics channelMetrics,
+                              @Nullable BusTracer busTracer) {
+        FanOutTask task = new FanOutTask(channel, busData, listeners, 0, listeners.length,
+                fanOut.getTaskSize(listeners.length), channelMetrics, busTracer);
+        ForkJoinPool pool = fanOut.getPool();
+        if (fanOut.isWaitForCompletion()) {
+            pool.invoke(task);
+        } else {
+            // The emission ends before the listeners are notified: the task keeps its own reference to pooled data
+            BusPooledData.retain(busData);
+            pool.execute(new DetachedFanOutTask(task));
+        }
+    }
+
+    /**
+     * Emit a primitive value, stored in a long, without boxing it for primitive listeners.
+     *
+     * @param wrapperClass Integer, Long or Double class, telling how the value is stored.
+     * @param bits         the value, or the raw bits of a double value.
+     */
+    private void emit(@NotNull String channel, @NotNull Class<?> wrapperClass, long bits) {
+        // Tracers and key extractors are handed the data itself, queued emissions, batches and other buses
+        // hold it and limits may emit it on an overflow channel
+        if (tracer != null || queuedDispatchEnabled || parent != null || !children.isEmpty() || disposed
+                || concurrencyLimit != null || !rateLimits.isEmpty() || openBatches.get() != 0
+                || (!keyExtractors.isEmpty() && keyExtractors.containsKey(wrapperClass))) {
+            emit(channel, box(wrapperClass, bits), false);
+            return;
+        }
+
+        BusListenerList busListeners = getBusListeners(channel);
+        // Check the level first: building the message would allocate on every emission
+        if (logger.isLoggable(Level.INFO)) {
+            logger.info("BUS -> Data of class: " + wrapperClass.toString() + " emitted on channel: " + channel);
+        }
+        synchronized (busListeners) {
+            BusMetrics.ChannelMetrics channelMetrics = getChannelMetrics(channel);
+            if (channelMetrics != null) channelMetrics.emits.incrementAndGet();
+            BusWatchdog busWatchdog = watchdog;
+            BusWatchdog.Slot slot = busWatchdog != null ? busWatchdog.getSlot() : null;
+            BusErrorIsolation isolation = errorIsolation;
+            Object boxed = null;
+            for (BusListener listener : busListeners) {
+                if (!(listener instanceof BusAnyDataListener) && listener.getExpectedDataClass() != wrapperClass) {
+                    if (channelMetrics != null) channelMetrics.classMismatches.incrementAndGet();
+                    if (logger.isLoggable(Level.INFO)) {
+                        logger.info("BUS -> Did not notify listener on channel due to different data class expectation: Listener expected: " +
+                                listener.getExpectedDataClass().toString() + " and data sent class was: " + wrapperClass.toString());
+                    }
+                    continue;
+                }
+
+                Executor quarantineExecutor = busWatchdog != null ? busWatchdog.getQuarantineExecutor(listener) : null;
+                boolean primitive = quarantineExecutor == null && !listener.hasPreprocessor()
+                        && (listener instanceof IntBusListener || listener instanceof LongBusListener
+                        || listener instanceof DoubleBusListener);
+                if (!primitive && boxed == null) boxed = box(wrapperClass, bits);
+                if (quarantineExecutor != null) {
+                    notifyListenerAsync(quarantineExecutor, channel, listener, boxed, channelMetrics, null);
+                    continue;
+                }
+                if (isolation != null && isolation.shouldSkip(listener)) {
+                    skipOpenCircuit(channel, channelMetrics);
+                    continue;
+                }
+
+                if (slot != null) slot.begin(channel, listener);
+                try {
+                    if (primitive) {
+                        notifyPrimitiveListener(listener, wrapperClass, bits, channelMetrics);
+                    } else {
+                        notifyListener(channel, listener, boxed, channelMetrics, null);
+                    }
+                    if (isolation != null) isolation.onSuccess(listener);
+                } catch (RuntimeException e) {
+                    if (isolation == null) throw e;
+                    onListenerFailure(isolation, channel, listener, boxed != null ? boxed : box(wrapperClass, bits),
+                            e, channelMetrics);
+                } finally {
+                    if (slot != null) slot.end();
+                }
+            }
+        }
+    }
+
+    private void notifyPrimitiveListener(@NotNull BusListener listener, @NotNull Class<?> wrapperClass, long bits,
+                                         @Nullable BusMetrics.ChannelMetrics channelMetrics) {
+        long start = channelMetrics != null ? System.nanoTime() : 0;
+        if (wrapperClass == Integer.class) {
+            ((IntBusListener) listener).notifyEvent((int) bits);
+        } else if (wrapperClass == Long.class) {
+            ((LongBusListener) listener).notifyEvent(bits);
+        } else {
+            ((DoubleBusListener) listener).notifyEvent(Double.longBitsToDouble(bits));
+        }
+        if (channelMetrics != null) channelMetrics.recordDelivery(System.nanoTime() - start);
+
+        if (logger.isLoggable(Level.INFO)) {
+            logger.info("BUS -> Notified listener expecting data of class: " + wrapperClass.toString());
+        }
+    }
+
+    @NotNull
+    private static Object box(@NotNull Class<?> wrapperClass, long bits) {
+        if (wrapperClass == Integer.class) return (int) bits;
+        if (wrapperClass == Long.class) return bits;
+        return Double.longBitsToDouble(bits);
+    }
+
+    private void notifyListener(@NotNull String channel, @NotNull BusListener listener, @Nullable Object busData,
+                                @Nullable BusMetrics.ChannelMetrics channelMetrics, @Nullable BusTracer busTracer) {
+        long start = channelMetrics != null ? System.nanoTime() : 0;
+        if (listener.hasPreprocessor()) {
+            Object trace = busTracer != null
+                    ? busTracer.begin(BusTracer.Operation.NOTIFY_PREPROCESSOR, channel, listener, busData) : null;
+            // Preprocessors may deliver pooled data later: they own a reference until they release it
+            BusPooledData.retain(busData);
+            try {
+                listener.getPreprocessor().notifyEvent(listener, busData);
+            } catch (RuntimeException e) {
+                // A failing preprocessor does not take ownership of its reference
+                BusPooledData.release(busData);
+                throw e;
+            } finally {
+                if (trace != null) busTracer.end(trace);
+            }
+            if (channelMetrics != null) channelMetrics.recordDelivery(System.nanoTime() - start);
+
+            logger.info("BUS -> Notified listener's preprocessor expecting data of "
+                    + ((listener instanceof BusAnyDataListener)
+                    ? "any class" : "class: " + listener.getExpectedDataClass().toString()));
+        } else {
+            Object trace = busTracer != null
+                    ? busTracer.begin(BusTracer.Operation.NOTIFY_LISTENER, channel, listener, busData) : null;
+            try {
+                listener.notifyEvent(busData);
+            } finally {
+                if (trace != null) busTracer.end(trace);
+            }
+            if (channelMetrics != null) channelMetrics.recordDelivery(System.nanoTime() - start);
+
+            logger.info("BUS -> Notified listener expecting data of "
+                    + ((listener instanceof BusAnyDataListener)
+                    ? "any class" : "class: " + listener.getExpectedDataClass().toString()));
+        }
+    }
+
+    private void skipOpenCircuit(@NotNull String channel, @Nullable BusMetrics.ChannelMetrics channelMetrics) {
+        if (channelMetrics != null) channelMetrics.openCircuitSkips.incrementAndGet();
+        if (logger.isLoggable(Level.INFO)) {
+            logger.info("BUS -> Did not notify listener on channel: " + channel + " due to its circuit being open.");
+        }
+    }
+
+    /**
+     * Report a listener failure isolated from the emission, opening the circuit of the listener if needed.
+     */
+    private void onListenerFailure(@NotNull BusErrorIsolation isolation, @NotNull String channel,
+                                   @NotNull BusListener listener, @Nullable Object busData,
+                                   @NotNull RuntimeException exception,
+                                   @Nullable BusMetrics.ChannelMetrics channelMetrics) {
+        if (channelMetrics != null) channelMetrics.listenerFailures.incrementAndGet();
+        logger.log(Level.WARNING, "BUS -> Listener failed on channel: " + channel, exception);
+        if (isolation.onFailure(listener)) {
+            logger.warning("BUS -> Circuit of listener " + listener.getClass().getName() + " opened on channel: " + channel);
+        }
+
+        BusErrorIsolation.ListenerError listenerError =
+                new BusErrorIsolation.ListenerError(channel, listener, busData, exception);
+        BusErrorIsolation.Handler handler = isolation.getHandler();
+        if (handler != null) {
+            try {
+                handler.onListenerError(listenerError);
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "BUS -> Error handler failed on channel: " + channel, e);
+            }
+        }
+        String errorChannel = isolation.getErrorChannel();
+        // Failures of error listeners are not emitted again, so they cannot loop
+        if (errorChannel != null && !errorChannel.equals(channel)) emit(errorChannel, listenerError, false);
+    }
+
+    private void notifyListenerAsync(@NotNull Executor executor, @NotNull final String channel,
+                                     @NotNull final BusListener listener, @Nullable final Object busData,
+                                     @Nullable final BusMetrics.ChannelMetrics channelMetrics,
+                                     @Nullable final BusTracer busTracer) {
+        logger.info("BUS -> Delivering event asynchronously to quarantined listener on channel: " + channel);
+        BusPooledData.retain(busData);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    notifyListener(channel, listener, busData, channelMetrics, busTracer);
+                } finally {
+                    BusPooledData.release(busData);
+                }
             }
+        });
+    }
+
+    @Nullable
+    private BusMetrics.ChannelMetrics getChannelMetrics(@NotNull String channel) {
+        BusMetrics busMetrics = metrics;
+        return busMetrics != null ? busMetrics.getChannelMetrics(channel) : null;
+    }
+
+    @NotNull
+    private ChannelInterest getChannelInterest(@NotNull String channel) {
+        ChannelInterest interest = interests.get(channel);
+        if (interest == null) {
+            ChannelInterest newInterest = new ChannelInterest();
+            interest = interests.putIfAbsent(channel, newInterest);
+            if (interest == null) interest = newInterest;
         }
+        return interest;
+    }
+
+    @NotNull
+    private KeyIndex getKeyIndex(@NotNull String channel) {
+        KeyIndex keyIndex = keyIndexes.get(channel);
+        if (keyIndex == null) {
+            KeyIndex newKeyIndex = new KeyIndex();
+            keyIndex = keyIndexes.putIfAbsent(channel, newKeyIndex);
+            if (keyIndex == null) keyIndex = newKeyIndex;
+        }
+        return keyIndex;
+    }
+
+    /**
+     * Get the persistent event of a channel kept by this bus or by its closest ancestor.
+     *
+     * @return the persistent data, NO_DATA for events without data, or null if there is none.
+     */
+    @Nullable
+    private Object findPersistent(@NotNull String channel) {
+        for (Bus bus = this; bus != null; bus = bus.parent) {
+            Object persistentData = bus.historic.get(channel);
+            if (persistentData != null) return persistentData;
+        }
+        return null;
+    }
+
+    private void checkNotDisposed() {
+        if (disposed) throw new IllegalStateException("Bus has been disposed");
+    }
+
+    @Nullable
+    private static Object unmaskNoData(@NotNull Object persistentData) {
+        return persistentData != NO_DATA ? persistentData : null;
     }
 
     /**
      * Get all BusListener listeners subscribed to a concrete channel.
      *
      * @param channel String representing the channel being inspected.
-     * @return List<BusListener> list of BusListeners subscribed to the channel.
+     * @return BusListenerList listeners subscribed to the channel.
      * @throws IllegalArgumentException if channel is null.
      */
     @NotNull
-    /*package*/ List<BusListener> getBusListeners(@NotNull String channel) {
+    /*package*/ BusListenerList getBusListeners(@NotNull String channel) {
         if (channel == null) {
             throw new IllegalArgumentException("Channel must not be null");
         }
 
-        List<BusListener> busListeners;
+        BusListenerList busListeners;
         synchronized (observers) {
             busListeners = observers.get(channel);
             if (busListeners == null) {
-                busListeners = new LinkedList<>();
+                busListeners = new BusListenerList();
                 observers.put(channel, busListeners);
             }
         }
         return busListeners;
     }
 
+    /**
+     * Token bucket of a rate limited channel.
+     * Tracks the time at which the bucket will be full again instead of the number of tokens, so admitting an
+     * event is a single compare and set: each admitted event pushes that time one refill interval further, and
+     * the bucket is empty once it is more than a burst of intervals away.
+     */
+    private static final class TokenBucket {
+
+        private final BusRateLimit rateLimit;
+        private final long intervalNanos;
+        private final long capacityNanos;
+        private final AtomicLong fullAtNanos = new AtomicLong(System.nanoTime());
+
+        private TokenBucket(@NotNull BusRateLimit rateLimit) {
+            this.rateLimit = rateLimit;
+            this.intervalNanos = rateLimit.getIntervalNanos();
+            this.capacityNanos = rateLimit.getBurst() * intervalNanos;
+        }
+
+        private boolean tryAcquire() {
+            long now = System.nanoTime();
+            while (true) {
+                long fullAt = fullAtNanos.get();
+                long next = (fullAt - now > 0 ? fullAt : now) + intervalNanos;
+                if (next - now > capacityNanos) return false;
+                if (fullAtNanos.compareAndSet(fullAt, next)) return true;
+            }
+        }
+    }
+
+    /**
+     * Events emitted by a thread while it notifies listeners, when queued dispatch is enabled.
+     */
+    private static final class DispatchQueue {
+        private final ArrayDeque<QueuedEmission> emissions = new ArrayDeque<>();
+        private boolean dispatching;
+    }
+
+    private static final class QueuedEmission {
+
+        private final String channel;
+        private final Object busData;
+        private final boolean isPersistent;
+
+        private QueuedEmission(@NotNull String channel, @Nullable Object busData, boolean isPersistent) {
+            this.channel = channel;
+            this.busData = busData;
+            this.isPersistent = isPersistent;
+        }
+    }
+
+    /**
+     * Keyed subscriptions and persistent events of a channel, only accessed while holding the channel monitor.
+     */
+    private static final class KeyIndex {
+        private final HashMap<Object, BusListenerList> listeners = new HashMap<>();
+        private final HashMap<Object, Object> historic = new HashMap<>();
+    }
+
+    /**
+     * Data classes expected by the listeners of a channel.
+     * Only updated while holding the channel monitor; read without locks, so updates replace the map.
+     */
+    private static final class ChannelInterest {
+
+        private volatile int anyDataListeners;
+        private volatile Map<Class<?>, Integer> listenersByClass = Collections.emptyMap();
+
+        private void add(@NotNull BusListener listener) {
+            if (listener instanceof BusAnyDataListener) {
+                anyDataListeners++;
+                return;
+            }
+            Class<?> dataClass = listener.getExpectedDataClass();
+            HashMap<Class<?>, Integer> updated = new HashMap<>(listenersByClass);
+            Integer count = updated.get(dataClass);
+            updated.put(dataClass, count != null ? count + 1 : 1);
+            listenersByClass = updated;
+        }
+
+        private void remove(@NotNull BusListener listener) {
+            if (listener instanceof BusAnyDataListener) {
+                anyDataListeners--;
+                return;
+            }
+            Class<?> dataClass = listener.getExpectedDataClass();
+            HashMap<Class<?>, Integer> updated = new HashMap<>(listenersByClass);
+            Integer count = updated.get(dataClass);
+            if (count == null) return;
+            if (count > 1) {
+                updated.put(dataClass, count - 1);
+            } else {
+                updated.remove(dataClass);
+            }
+            listenersByClass = updated;
+        }
+
+        private boolean isInterested(@NotNull Class<?> dataClass) {
+            return anyDataListeners > 0 || listenersByClass.containsKey(dataClass);
+        }
+    }
+
+    /**
+     * Notifies a range of a channel listeners snapshot, splitting it in halves until it is small enough.
+     */
+    private final class FanOutTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String channel;
+        private final Object busData;
+        private final BusListener[] listeners;
+        private final int from;
+        private final int to;
+        private final int taskSize;
+        private final BusMetrics.ChannelMetrics channelMetrics;
+        private final BusTracer busTracer;
+
+        private FanOutTask(@NotNull String channel, @Nullable Object busData, @NotNull BusListener[] listeners,
+                           int from, int to, int taskSize, @Nullable BusMetrics.ChannelMetrics channelMetrics,
+                           @Nullable BusTracer busTracer) {
+            this.channel = channel;
+            this.busData = busData;
+            this.listeners = listeners;
+            this.from = from;
+            this.to = to;
+            this.taskSize = taskSize;
+            this.channelMetrics = channelMetrics;
+            this.busTracer = busTracer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > taskSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new FanOutTask(channel, busData, listeners, from, middle, taskSize, channelMetrics, busTracer),
+                        new FanOutTask(channel, busData, listeners, middle, to, taskSize, channelMetrics, busTracer));
+                return;
+            }
+            BusWatchdog busWatchdog = watchdog;
+            BusWatchdog.Slot slot = busWatchdog != null ? busWatchdog.getSlot() : null;
+            for (int i = from; i < to; i++) {
+                deliver(channel, busData, listeners[i], channelMetrics, busTracer, busWatchdog, slot);
+            }
+        }
+    }
+
+    /**
+     * Runs a fan-out nobody waits for, logging its failures and releasing its reference to pooled data.
+     */
+    private final class DetachedFanOutTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FanOutTask task;
+
+        private DetachedFanOutTask(@NotNull FanOutTask task) {
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                task.invoke();
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "BUS -> Listener failed while being notified in parallel on channel: "
+                        + task.channel, e);
+            } finally {
+                BusPooledData.release(task.busData);
+            }
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Aggregates the data of the events of a window into an accumulator.
+ * Accumulators are combined incrementally, so combine must be associative: combining the accumulators of two
+ * consecutive groups of events must give the accumulator of all of them. It does not need to be commutative
+ * or invertible, so minimums and maximums can be aggregated over sliding windows too.
+ *
+ * @param <T> class of the data being aggregated.
+ * @param <A> class of the accumulators, emitted as the result of each window.
+ * @see BusWindowAggregator
+ * @see BusWindowStats
+ */
+public interface BusAggregation<T, A> {
+
+    /**
+     * Get the accumulator of a single event.
+     *
+     * @param busData data of the event.
+     * @return accumulator of the event.
+     */
+    @NotNull
+    A lift(@NotNull T busData);
+
+    /**
+     * Combine the accumulators of two consecutive groups of events.
+     *
+     * @param older accumulator of the older events.
+     * @param newer accumulator of the newer events.
+     * @return accumulator of every event of both groups.
+     */
+    @NotNull
+    A combine(@NotNull A older, @NotNull A newer);
+}
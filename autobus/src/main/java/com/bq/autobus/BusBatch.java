@@ -0,0 +1,113 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * Buffer of the events emitted on a Bus by a thread, notified all at once on commit or not at all.
+ * - While the batch is open, events emitted on its bus by the thread that began it, persistent or not, are
+ * buffered instead of being notified.
+ * - Committing notifies the buffered events grouped by channel, in the order their channels were first emitted
+ * on and keeping the order of the events of each channel. The events of a channel are notified in a single
+ * pass holding its monitor, so listeners never see only part of them and the channel is only looked up once.
+ * - Discarding drops the buffered events: listeners never see them.
+ * <p/>
+ * Rate and concurrency limits are applied when events are emitted into the batch, not when it is committed.
+ * A batch can only be committed or discarded once, from the thread that began it.
+ *
+ * @see Bus#beginBatch()
+ */
+public final class BusBatch {
+
+    private final Bus bus;
+    private final Thread thread;
+    private final LinkedHashMap<String, ArrayList<Emission>> emissions = new LinkedHashMap<>();
+    private int size;
+    private boolean open = true;
+
+    /*package*/ BusBatch(@NotNull Bus bus) {
+        this.bus = bus;
+        this.thread = Thread.currentThread();
+    }
+
+    /**
+     * @return true if the batch is still buffering events.
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * @return number of events buffered by the batch.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Close the batch and notify every buffered event.
+     * If listeners throw exceptions, the remaining events are still notified and the first exception is thrown.
+     *
+     * @throws IllegalStateException if the batch is not open or is committed from another thread.
+     */
+    public void commit() {
+        close();
+        bus.commit(this);
+    }
+
+    /**
+     * Close the batch dropping every buffered event.
+     *
+     * @throws IllegalStateException if the batch is not open or is discarded from another thread.
+     */
+    public void discard() {
+        close();
+        discardClosed();
+    }
+
+    /*package*/ void discardClosed() {
+        for (ArrayList<Emission> channelEmissions : emissions.values()) {
+            for (Emission emission : channelEmissions) {
+                BusPooledData.release(emission.busData);
+            }
+        }
+        emissions.clear();
+        size = 0;
+    }
+
+    private void close() {
+        if (!open) throw new IllegalStateException("Batch is not open");
+        if (Thread.currentThread() != thread) throw new IllegalStateException("Batch belongs to another thread");
+        open = false;
+        bus.endBatch();
+    }
+
+    /*package*/ void add(@NotNull String channel, @Nullable Object busData, boolean isPersistent) {
+        ArrayList<Emission> channelEmissions = emissions.get(channel);
+        if (channelEmissions == null) {
+            channelEmissions = new ArrayList<>();
+            emissions.put(channel, channelEmissions);
+        }
+        channelEmissions.add(new Emission(busData, isPersistent));
+        size++;
+    }
+
+    @NotNull
+    /*package*/ LinkedHashMap<String, ArrayList<Emission>> getEmissions() {
+        return emissions;
+    }
+
+    /*package*/ static final class Emission {
+
+        /*package*/ final Object busData;
+        /*package*/ final boolean isPersistent;
+
+        private Emission(@Nullable Object busData, boolean isPersistent) {
+            this.busData = busData;
+            this.isPersistent = isPersistent;
+        }
+    }
+}
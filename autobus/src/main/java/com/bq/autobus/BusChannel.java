@@ -0,0 +1,30 @@
+package com.bq.autobus;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a String constant as a Bus channel and the class of the data emitted on it.
+ * The autobus-compiler annotation processor generates, for every type declaring annotated constants,
+ * a class named after the type with the "Observables" suffix containing a typed BusObservable factory
+ * per channel. Subscribe methods on a declared channel are checked against its data class at compile time.
+ * <pre>
+ * public interface BusChannels {
+ *     {@literal @}BusChannel(LocationChangedBusData.class)
+ *     String LOCATION_CHANGED_BUS_CHANNEL = "LOCATION_CHANGED_BUS_CHANNEL";
+ * }
+ *
+ * BusObservable&lt;LocationChangedBusData&gt; observable = BusChannelsObservables.locationChangedBusChannel(bus);
+ * </pre>
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface BusChannel {
+
+    /**
+     * @return class of the data emitted on the channel, Object for any class of data.
+     */
+    Class<?> value();
+}
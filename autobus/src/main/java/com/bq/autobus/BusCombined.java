@@ -0,0 +1,95 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Latest data of several channels, emitted by {@link Bus#combineLatest(String, String...)} whenever one of
+ * them changes. Values are kept in the order the channels were given in; null for events without data.
+ * <p/>
+ * Combined data is immutable and implements equals, so unchanged combinations can be suppressed on the output
+ * channel with {@link Bus#setDistinctPersistent(String, BusEquivalence)}.
+ */
+public final class BusCombined {
+
+    private final String[] channels;
+    private final Object[] values;
+
+    /*package*/ BusCombined(@NotNull String[] channels, @NotNull Object[] values) {
+        this.channels = channels;
+        this.values = values;
+    }
+
+    /**
+     * @return number of combined channels.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Get the name of a combined channel.
+     *
+     * @param index index of the channel, from 0 to size() - 1.
+     * @return String representing the channel.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    @NotNull
+    public String getChannel(int index) {
+        return channels[index];
+    }
+
+    /**
+     * Get the latest data of a combined channel by index.
+     *
+     * @param index index of the channel, from 0 to size() - 1.
+     * @return the latest data of the channel, or null if its latest event had no data.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    @Nullable
+    public Object get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Get the latest data of a combined channel.
+     *
+     * @param channel   String representing the channel.
+     * @param dataClass Class the data is expected to be an instance of.
+     * @return the latest data of the channel, or null if its latest event had no data.
+     * @throws IllegalArgumentException if the channel is not combined.
+     * @throws ClassCastException       if the data is not an instance of dataClass.
+     */
+    @Nullable
+    public <T> T get(@NotNull String channel, @NotNull Class<T> dataClass) {
+        for (int i = 0; i < channels.length; i++) {
+            if (channels[i].equals(channel)) return dataClass.cast(values[i]);
+        }
+        throw new IllegalArgumentException("Channel is not combined: " + channel);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BusCombined)) return false;
+        BusCombined other = (BusCombined) o;
+        return Arrays.equals(channels, other.channels) && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(channels) + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder("BusCombined{");
+        for (int i = 0; i < channels.length; i++) {
+            if (i > 0) description.append(", ");
+            description.append(channels[i]).append('=').append(values[i]);
+        }
+        return description.append('}').toString();
+    }
+}
@@ -0,0 +1,85 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps the latest data of several input channels and emits their combination on an output channel.
+ * Each input updates a single slot, and a new combination is only built once every input has been seen and
+ * an input is notified of data not equal to its latest one, so nothing is recomputed when inputs do not change.
+ *
+ * @see Bus#combineLatest(String, String...)
+ */
+/*package*/ final class BusCombiner {
+
+    private final Bus bus;
+    private final String outputChannel;
+    private final String[] inputChannels;
+    private final Object[] latest;
+    private final boolean[] seen;
+    private int missing;
+    // Combinations are not emitted until every input is subscribed
+    private boolean subscribing = true;
+
+    /*package*/ BusCombiner(@NotNull Bus bus, @NotNull String outputChannel, @NotNull String[] inputChannels) {
+        this.bus = bus;
+        this.outputChannel = outputChannel;
+        this.inputChannels = inputChannels;
+        this.latest = new Object[inputChannels.length];
+        this.seen = new boolean[inputChannels.length];
+        this.missing = inputChannels.length;
+    }
+
+    /**
+     * Subscribe to every input channel. Inputs with persistent events are seeded right away by their replay, and
+     * the seeded combination is emitted once every input is subscribed. If an input can't be subscribed or the
+     * seeded combination fails, the inputs already subscribed are unsubscribed before rethrowing.
+     *
+     * @return BusCompositeSubscription to stop combining.
+     */
+    @NotNull
+    /*package*/ BusCompositeSubscription subscribe() {
+        BusCompositeSubscription subscription = new BusCompositeSubscription();
+        try {
+            for (int i = 0; i < inputChannels.length; i++) {
+                final int index = i;
+                subscription.add(bus.subscribe(inputChannels[i], new BusAnyDataListener() {
+                    @Override
+                    public void notifyEvent(@Nullable Object busData) {
+                        onInput(index, busData);
+                    }
+                }));
+            }
+            onSubscribed();
+        } catch (RuntimeException e) {
+            subscription.dispose();
+            throw e;
+        }
+        return subscription;
+    }
+
+    private synchronized void onSubscribed() {
+        subscribing = false;
+        if (missing == 0) emit();
+    }
+
+    /**
+     * Store the latest data of an input and emit the new combination.
+     * Emitting while holding the combiner monitor keeps combinations in order when inputs are notified on
+     * different threads.
+     */
+    private synchronized void onInput(int index, @Nullable Object busData) {
+        if (!seen[index]) {
+            seen[index] = true;
+            missing--;
+        } else if (BusEquivalence.EQUALS.isEquivalent(latest[index], busData)) {
+            return;
+        }
+        latest[index] = busData;
+        if (missing == 0 && !subscribing) emit();
+    }
+
+    private void emit() {
+        bus.emitPersistentEvent(outputChannel, new BusCombined(inputChannels, latest.clone()));
+    }
+}
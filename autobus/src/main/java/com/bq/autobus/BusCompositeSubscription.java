@@ -0,0 +1,90 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Group of subscriptions disposed of at once, for example every listener of a screen.
+ * Disposing takes the monitor of every channel only once, however many listeners are subscribed to it.
+ *
+ * @see Bus#subscribeAll(Map)
+ */
+public final class BusCompositeSubscription {
+
+    private final List<BusSubscription> subscriptions = new ArrayList<>();
+    private boolean disposed;
+
+    /**
+     * Creates a new empty BusCompositeSubscription.
+     */
+    public BusCompositeSubscription() {
+    }
+
+    /**
+     * Add a subscription to the group.
+     * If the group has already been disposed, the subscription is unsubscribed right away.
+     *
+     * @param subscription BusSubscription to add.
+     * @throws IllegalArgumentException if subscription is null.
+     */
+    public void add(@NotNull BusSubscription subscription) {
+        if (subscription == null) throw new IllegalArgumentException("Subscription must not be null");
+        synchronized (this) {
+            if (!disposed) {
+                subscriptions.add(subscription);
+                return;
+            }
+        }
+        subscription.unSubscribe();
+    }
+
+    /**
+     * @return number of subscriptions in the group.
+     */
+    public synchronized int size() {
+        return subscriptions.size();
+    }
+
+    /**
+     * @return true if the group has been disposed.
+     */
+    public synchronized boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Unsubscribe every subscription of the group. Subscriptions added afterwards are unsubscribed right away.
+     * Does nothing if the group has already been disposed.
+     */
+    public void dispose() {
+        List<BusSubscription> disposing;
+        synchronized (this) {
+            if (disposed) return;
+            disposed = true;
+            disposing = new ArrayList<>(subscriptions);
+            subscriptions.clear();
+        }
+
+        // Group by channel so every channel monitor is taken once
+        Map<BusListenerList, List<BusSubscription>> byChannel = new IdentityHashMap<>();
+        for (BusSubscription subscription : disposing) {
+            List<BusSubscription> channelSubscriptions = byChannel.get(subscription.channelListeners);
+            if (channelSubscriptions == null) {
+                channelSubscriptions = new ArrayList<>();
+                byChannel.put(subscription.channelListeners, channelSubscriptions);
+            }
+            channelSubscriptions.add(subscription);
+        }
+        for (Map.Entry<BusListenerList, List<BusSubscription>> entry : byChannel.entrySet()) {
+            synchronized (entry.getKey()) {
+                for (BusSubscription subscription : entry.getValue()) {
+                    if (subscription.subscribed) subscription.bus.unSubscribe(subscription);
+                }
+            }
+        }
+    }
+}
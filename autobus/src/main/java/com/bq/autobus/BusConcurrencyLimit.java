@@ -0,0 +1,47 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Settings of the concurrency limit of a Bus.
+ * Limits the number of threads emitting events on the bus at the same time, so producers are shed instead of
+ * piling up behind slow listeners. Events emitted by listeners while notifying an admitted event belong to the
+ * same emission and are always admitted. Events emitted while the limit is reached are handled by the
+ * overflow policy.
+ *
+ * @see Bus#setConcurrencyLimit(BusConcurrencyLimit)
+ */
+public final class BusConcurrencyLimit {
+
+    private final int maxConcurrentEmits;
+    private final BusOverflowPolicy policy;
+
+    /**
+     * Creates new concurrency limit settings.
+     *
+     * @param maxConcurrentEmits maximum number of threads emitting events at the same time.
+     * @param policy             BusOverflowPolicy handling events emitted over the limit.
+     * @throws IllegalArgumentException if maxConcurrentEmits is not positive or policy is null.
+     */
+    public BusConcurrencyLimit(int maxConcurrentEmits, @NotNull BusOverflowPolicy policy) {
+        if (maxConcurrentEmits <= 0) throw new IllegalArgumentException("Max concurrent emits must be positive");
+        if (policy == null) throw new IllegalArgumentException("Policy must not be null");
+        this.maxConcurrentEmits = maxConcurrentEmits;
+        this.policy = policy;
+    }
+
+    /**
+     * @return maximum number of threads emitting events at the same time.
+     */
+    public int getMaxConcurrentEmits() {
+        return maxConcurrentEmits;
+    }
+
+    /**
+     * @return the BusOverflowPolicy handling events emitted over the limit.
+     */
+    @NotNull
+    public BusOverflowPolicy getPolicy() {
+        return policy;
+    }
+}
@@ -0,0 +1,114 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of recyclable event data of a concrete class.
+ * Every thread keeps a small cache of recycled data, so obtaining and recycling data on the emitting thread
+ * does not contend with other threads. Data recycled when the cache of its thread is full goes to a bounded
+ * pool shared by every thread, for example when listeners release data on another thread.
+ *
+ * @see BusPooledData
+ */
+public final class BusDataPool<T extends BusPooledData> {
+
+    /**
+     * Default maximum number of recycled data objects shared by every thread.
+     */
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private static final int LOCAL_CACHE_SIZE = 16;
+
+    private final Factory<T> factory;
+    private final int maxSize;
+    private final ThreadLocal<ArrayDeque<T>> localCache = new ThreadLocal<ArrayDeque<T>>() {
+        @Override
+        protected ArrayDeque<T> initialValue() {
+            return new ArrayDeque<>(LOCAL_CACHE_SIZE);
+        }
+    };
+    private final ConcurrentLinkedQueue<T> shared = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger sharedSize = new AtomicInteger();
+    private final AtomicInteger createdCount = new AtomicInteger();
+
+    /**
+     * Creates a new BusDataPool sharing up to DEFAULT_MAX_SIZE recycled objects between threads.
+     *
+     * @param factory Factory creating data when no recycled data is available.
+     * @throws IllegalArgumentException if factory is null.
+     */
+    public BusDataPool(@NotNull Factory<T> factory) {
+        this(factory, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new BusDataPool.
+     *
+     * @param factory Factory creating data when no recycled data is available.
+     * @param maxSize maximum number of recycled objects shared between threads, on top of the small cache
+     *                kept by every thread. Data recycled when the pool is full is left to the garbage collector.
+     * @throws IllegalArgumentException if factory is null or maxSize is negative.
+     */
+    public BusDataPool(@NotNull Factory<T> factory, int maxSize) {
+        if (factory == null) throw new IllegalArgumentException("Factory must not be null");
+        if (maxSize < 0) throw new IllegalArgumentException("Max size must not be negative");
+        this.factory = factory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Obtain data from the pool, creating it if no recycled data is available.
+     *
+     * @return data with a single reference, owned by the caller.
+     * @throws IllegalStateException if the factory returns null or data belonging to another pool.
+     */
+    @NotNull
+    public T obtain() {
+        T data = localCache.get().pollLast();
+        if (data == null) {
+            data = shared.poll();
+            if (data != null) sharedSize.decrementAndGet();
+        }
+        if (data == null) {
+            data = factory.create();
+            if (data == null) throw new IllegalStateException("Factory must not create null data");
+            if (data.pool != null) throw new IllegalStateException("Data already belongs to a pool: " + data);
+            data.pool = this;
+            createdCount.incrementAndGet();
+            return data;
+        }
+        data.reuse();
+        return data;
+    }
+
+    /**
+     * @return number of data objects created by the factory so far.
+     */
+    public int getCreatedCount() {
+        return createdCount.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    /*package*/ void recycle(@NotNull BusPooledData data) {
+        ArrayDeque<T> cache = localCache.get();
+        if (cache.size() < LOCAL_CACHE_SIZE) {
+            cache.addLast((T) data);
+        } else if (sharedSize.incrementAndGet() <= maxSize) {
+            shared.offer((T) data);
+        } else {
+            sharedSize.decrementAndGet();
+        }
+    }
+
+    /**
+     * Creates the data of a pool.
+     */
+    public interface Factory<T> {
+        @NotNull
+        T create();
+    }
+}
@@ -0,0 +1,20 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Builds the data of an event only when it is going to be notified to some listener.
+ *
+ * @see Bus#emitEvent(String, Class, BusDataSupplier)
+ */
+public interface BusDataSupplier<T> {
+
+    /**
+     * Build the data of the event.
+     * Called on the emitting thread, before holding the channel monitor.
+     *
+     * @return data object or null to emit the event without data.
+     */
+    @Nullable
+    T get();
+}
@@ -0,0 +1,32 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decides whether the data of a persistent event is equivalent to the one already kept for its channel,
+ * so emitting it again can be skipped.
+ * <p/>
+ * Equivalences are registered per channel with {@link Bus#setDistinctPersistent(String, BusEquivalence)}.
+ */
+public interface BusEquivalence {
+
+    /**
+     * Equivalence based on equals. Null data is only equivalent to null data.
+     */
+    BusEquivalence EQUALS = new BusEquivalence() {
+        @Override
+        public boolean isEquivalent(@Nullable Object previousData, @Nullable Object busData) {
+            return previousData == null ? busData == null : previousData.equals(busData);
+        }
+    };
+
+    /**
+     * Check whether the data of a persistent event is equivalent to the previous one.
+     * Called on the emitting thread while holding the channel monitor, so it should be cheap.
+     *
+     * @param previousData data of the persistent event kept for the channel, null if it had no data.
+     * @param busData      data being emitted, null if the event has no data.
+     * @return true if the event should not be emitted.
+     */
+    boolean isEquivalent(@Nullable Object previousData, @Nullable Object busData);
+}
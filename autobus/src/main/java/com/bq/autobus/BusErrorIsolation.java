@@ -0,0 +1,244 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Isolates the failures of listeners from the rest of an emission.
+ * - Exceptions thrown by a listener are caught, so the other listeners of the channel are still notified and
+ * the emitter does not see them. Failures are reported to a handler and emitted as ListenerError data on an
+ * error channel, when set.
+ * - Optionally, listeners failing failureThreshold times in a row are circuit broken: they are skipped for a
+ * while instead of being notified, so a listener that keeps throwing stops costing an exception and its stack
+ * trace on every event. The first event after that time is notified to it again as a trial: the circuit is
+ * closed if it succeeds and opened again if it fails.
+ * <p/>
+ * Failures of listeners subscribed to the error channel are logged but not emitted again, so a failing error
+ * listener does not loop. Events handed over to other threads, by a preprocessor or the quarantine executor
+ * of a watchdog, fail outside of the emission and are not isolated.
+ *
+ * @see Bus#setErrorIsolation(BusErrorIsolation)
+ */
+public final class BusErrorIsolation {
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final ConcurrentHashMap<BusListener, Circuit> circuits = new ConcurrentHashMap<>();
+
+    private volatile String errorChannel;
+    private volatile Handler handler;
+
+    /**
+     * Creates a new BusErrorIsolation that never circuit breaks listeners.
+     */
+    public BusErrorIsolation() {
+        this.failureThreshold = 0;
+        this.openNanos = 0;
+    }
+
+    /**
+     * Creates a new BusErrorIsolation circuit breaking listeners that keep failing.
+     *
+     * @param failureThreshold number of failures in a row that open the circuit of a listener.
+     * @param openTime         time a listener is skipped for once its circuit is open.
+     * @param unit             time unit of the open time.
+     * @throws IllegalArgumentException if failureThreshold or openTime are not positive or unit is null.
+     */
+    public BusErrorIsolation(int failureThreshold, long openTime, @NotNull TimeUnit unit) {
+        if (failureThreshold <= 0) throw new IllegalArgumentException("Failure threshold must be positive");
+        if (openTime <= 0) throw new IllegalArgumentException("Open time must be positive");
+        if (unit == null) throw new IllegalArgumentException("Time unit must not be null");
+        this.failureThreshold = failureThreshold;
+        this.openNanos = unit.toNanos(openTime);
+    }
+
+    /**
+     * @return the channel failures are emitted to, or null if they are not emitted.
+     */
+    @Nullable
+    public String getErrorChannel() {
+        return errorChannel;
+    }
+
+    /**
+     * Sets the channel failures are emitted to, as ListenerError data, on the bus the failing listener belongs to.
+     *
+     * @param errorChannel String representing the error channel or null to not emit failures.
+     */
+    public void setErrorChannel(@Nullable String errorChannel) {
+        this.errorChannel = errorChannel;
+    }
+
+    /**
+     * @return the handler notified of failures, or null if there is none.
+     */
+    @Nullable
+    public Handler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Sets the handler notified of failures, on the thread notifying the failing listener.
+     *
+     * @param handler Handler to notify or null to only log failures.
+     */
+    public void setHandler(@Nullable Handler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Check whether a listener is being skipped because it kept failing.
+     *
+     * @param listener BusListener being inspected.
+     * @return true if the circuit of the listener is open.
+     */
+    public boolean isCircuitOpen(@NotNull BusListener listener) {
+        if (circuits.isEmpty()) return false;
+        Circuit circuit = circuits.get(listener);
+        return circuit != null && circuit.isOpen();
+    }
+
+    /**
+     * Close the circuit of a listener and forget its failures, so it is notified again right away.
+     *
+     * @param listener BusListener being reset.
+     */
+    public void reset(@NotNull BusListener listener) {
+        circuits.remove(listener);
+    }
+
+    /**
+     * Check whether a listener should be skipped instead of being notified of an event.
+     * Lets a single trial event through once the open time is over.
+     */
+    /*package*/ boolean shouldSkip(@NotNull BusListener listener) {
+        if (circuits.isEmpty()) return false;
+        Circuit circuit = circuits.get(listener);
+        return circuit != null && !circuit.tryPass(System.nanoTime());
+    }
+
+    /*package*/ void onSuccess(@NotNull BusListener listener) {
+        // Most listeners never fail: skip hashing them
+        if (!circuits.isEmpty()) circuits.remove(listener);
+    }
+
+    /**
+     * Record a failure of a listener, opening its circuit if it failed too many times in a row.
+     *
+     * @return true if the failure opened the circuit.
+     */
+    /*package*/ boolean onFailure(@NotNull BusListener listener) {
+        if (failureThreshold == 0) return false;
+        Circuit circuit = circuits.get(listener);
+        if (circuit == null) {
+            Circuit newCircuit = new Circuit();
+            circuit = circuits.putIfAbsent(listener, newCircuit);
+            if (circuit == null) circuit = newCircuit;
+        }
+        return circuit.onFailure(System.nanoTime(), failureThreshold, openNanos);
+    }
+
+    /**
+     * Callback notified of listener failures.
+     */
+    public interface Handler {
+        void onListenerError(@NotNull ListenerError listenerError);
+    }
+
+    /**
+     * Failure of a listener notified of an event.
+     * The event data is only valid while the failure is being handled if it is pooled.
+     */
+    public static final class ListenerError {
+
+        private final String channel;
+        private final BusListener listener;
+        private final Object busData;
+        private final RuntimeException exception;
+
+        /*package*/ ListenerError(@NotNull String channel, @NotNull BusListener listener, @Nullable Object busData,
+                                  @NotNull RuntimeException exception) {
+            this.channel = channel;
+            this.listener = listener;
+            this.busData = busData;
+            this.exception = exception;
+        }
+
+        /**
+         * @return the channel of the event being notified.
+         */
+        @NotNull
+        public String getChannel() {
+            return channel;
+        }
+
+        /**
+         * @return the listener that failed.
+         */
+        @NotNull
+        public BusListener getListener() {
+            return listener;
+        }
+
+        /**
+         * @return the data of the event being notified.
+         */
+        @Nullable
+        public Object getBusData() {
+            return busData;
+        }
+
+        /**
+         * @return the exception thrown by the listener.
+         */
+        @NotNull
+        public RuntimeException getException() {
+            return exception;
+        }
+
+        @Override
+        public String toString() {
+            return "Listener " + listener.getClass().getName() + " failed on channel: " + channel + " with " + exception;
+        }
+    }
+
+    /**
+     * Failures in a row of a listener and the state of its circuit.
+     */
+    private static final class Circuit {
+
+        private int failures;
+        private boolean open;
+        private boolean trial;
+        private long openUntilNanos;
+
+        private synchronized boolean isOpen() {
+            return open;
+        }
+
+        /**
+         * @return true if the listener should be notified.
+         */
+        private synchronized boolean tryPass(long now) {
+            if (!open) return true;
+            if (trial || openUntilNanos - now > 0) return false;
+            trial = true;
+            return true;
+        }
+
+        /**
+         * @return true if the failure opened the circuit.
+         */
+        private synchronized boolean onFailure(long now, int failureThreshold, long openNanos) {
+            failures++;
+            if (failures < failureThreshold) return false;
+            open = true;
+            trial = false;
+            openUntilNanos = now + openNanos;
+            return true;
+        }
+    }
+}
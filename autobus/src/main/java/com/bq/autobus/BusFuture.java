@@ -0,0 +1,158 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Result of a request emitted on a Bus, completed with the first reply, a failure or a timeout.
+ * Callbacks can be added to be notified on completion instead of blocking on get.
+ *
+ * @see Bus#request(String, Object, Class)
+ */
+public final class BusFuture<T> implements Future<T> {
+
+    private final Object lock = new Object();
+    private final Runnable cancellationHook;
+    private List<Callback<T>> callbacks = new ArrayList<>();
+    private boolean done;
+    private boolean cancelled;
+    private T result;
+    private Throwable failure;
+
+    /*package*/ BusFuture(@Nullable Runnable cancellationHook) {
+        this.cancellationHook = cancellationHook;
+    }
+
+    /**
+     * Add a callback to be notified when this future completes.
+     * If the future is already completed the callback is notified immediately on the calling thread;
+     * otherwise it is notified on the thread completing the future.
+     *
+     * @param callback Callback to notify.
+     * @throws IllegalArgumentException if callback is null.
+     */
+    public void addCallback(@NotNull Callback<T> callback) {
+        if (callback == null) throw new IllegalArgumentException("Callback must not be null");
+        synchronized (lock) {
+            if (!done) {
+                callbacks.add(callback);
+                return;
+            }
+        }
+        notifyCallback(callback);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelledNow = complete(null, new CancellationException("Request cancelled"), true);
+        if (cancelledNow && cancellationHook != null) cancellationHook.run();
+        return cancelledNow;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        synchronized (lock) {
+            return cancelled;
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        synchronized (lock) {
+            return done;
+        }
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        synchronized (lock) {
+            while (!done) {
+                lock.wait();
+            }
+            return getResult();
+        }
+    }
+
+    @Override
+    public T get(long timeout, @NotNull TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (!done) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) throw new TimeoutException("Timed out waiting for reply");
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+            return getResult();
+        }
+    }
+
+    /*package*/ boolean complete(@Nullable T result) {
+        return complete(result, null, false);
+    }
+
+    /*package*/ boolean fail(@NotNull Throwable failure) {
+        return complete(null, failure, false);
+    }
+
+    private boolean complete(@Nullable T result, @Nullable Throwable failure, boolean cancelled) {
+        List<Callback<T>> toNotify;
+        synchronized (lock) {
+            if (done) return false;
+            this.done = true;
+            this.result = result;
+            this.failure = failure;
+            this.cancelled = cancelled;
+            toNotify = callbacks;
+            callbacks = null;
+            lock.notifyAll();
+        }
+        for (Callback<T> callback : toNotify) {
+            notifyCallback(callback);
+        }
+        return true;
+    }
+
+    private T getResult() throws ExecutionException {
+        if (cancelled) throw (CancellationException) failure;
+        if (failure != null) throw new ExecutionException(failure);
+        return result;
+    }
+
+    private void notifyCallback(@NotNull Callback<T> callback) {
+        // Completed futures are immutable, so no lock is needed to read them
+        if (failure != null) {
+            callback.onFailure(failure);
+        } else {
+            callback.onReply(result);
+        }
+    }
+
+    /**
+     * Callback notified when a BusFuture completes.
+     */
+    public interface Callback<T> {
+
+        /**
+         * Called with the reply to the request.
+         *
+         * @param reply reply object or null if the responder replied without data.
+         */
+        void onReply(@Nullable T reply);
+
+        /**
+         * Called when the request fails: the responder replied with an error, the reply had an unexpected
+         * class, the request timed out (TimeoutException) or was cancelled (CancellationException).
+         *
+         * @param failure cause of the failure.
+         */
+        void onFailure(@NotNull Throwable failure);
+    }
+}
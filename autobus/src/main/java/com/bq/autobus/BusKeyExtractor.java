@@ -0,0 +1,25 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Extracts the key of the data emitted on a channel, so events can be routed only to the
+ * listeners subscribed to that key, for example the ID of the device a location belongs to.
+ * <p/>
+ * Extractors are registered per data class with {@link Bus#setKeyExtractor(Class, BusKeyExtractor)}.
+ * Keys must implement equals and hashCode consistently.
+ */
+public interface BusKeyExtractor<T> {
+
+    /**
+     * Get the key of an event data object.
+     * Called on the emitting thread while holding the channel monitor, so it should be cheap.
+     *
+     * @param busData data object being emitted.
+     * @return key of the data or null if the event should only be notified to listeners subscribed
+     * to the whole channel.
+     */
+    @Nullable
+    Object getKey(@NotNull T busData);
+}
@@ -77,6 +77,7 @@ public abstract class BusListener<T> {
     /**
      * Preprocessor to intercept every event notification.
      * Useful, for example, when you need to execute listeners on the main thread.
+     * Pooled data ({@link BusPooledData}) is handed over retained: release it once the listener has been notified.
      */
     public interface Preprocessor<T> {
         void notifyEvent(@NotNull BusListener<T> listener, @NotNull T busData);
@@ -0,0 +1,159 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Listeners subscribed to a channel (or to a key of a channel).
+ * - Emissions iterate a snapshot without locking, so listeners can subscribe and unsubscribe while being
+ * notified. Listeners subscribed during an emission are not notified of it; listeners unsubscribed during
+ * an emission are not notified anymore.
+ * - Subscriptions are appended to a growing array and indexed by listener, so subscribing and unsubscribing
+ * are amortized O(1). Unsubscribed entries are only flagged, and the array is compacted once most of its
+ * entries are unsubscribed.
+ * <p/>
+ * Only modified while holding the channel monitor.
+ */
+/*package*/ final class BusListenerList implements Iterable<BusListener> {
+
+    private static final Snapshot EMPTY = new Snapshot(new BusSubscription[0], 0);
+    private static final int MIN_CAPACITY = 4;
+
+    private final HashMap<BusListener, BusSubscription> subscriptions = new HashMap<>();
+    private volatile Snapshot snapshot = EMPTY;
+    private volatile int size;
+
+    /**
+     * @return number of subscribed listeners.
+     */
+    /*package*/ int size() {
+        return size;
+    }
+
+    /*package*/ boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Nullable
+    /*package*/ BusSubscription get(@NotNull BusListener listener) {
+        return subscriptions.get(listener);
+    }
+
+    /*package*/ void add(@NotNull BusSubscription subscription) {
+        Snapshot current = snapshot;
+        BusSubscription[] entries = current.entries;
+        int count = current.count;
+        if (count == entries.length) {
+            // Grow by doubling, keeping only subscribed entries
+            BusSubscription[] grown = new BusSubscription[Math.max(MIN_CAPACITY, size * 2 + 1)];
+            count = compact(entries, count, grown);
+            entries = grown;
+        }
+        // Older snapshots don't see slots beyond their count, so the array can be shared
+        entries[count] = subscription;
+        subscriptions.put(subscription.listener, subscription);
+        snapshot = new Snapshot(entries, count + 1);
+        size++;
+    }
+
+    /*package*/ void remove(@NotNull BusSubscription subscription) {
+        subscriptions.remove(subscription.listener);
+        subscription.subscribed = false;
+        size--;
+        Snapshot current = snapshot;
+        if (size == 0) {
+            snapshot = EMPTY;
+        } else if (current.count - size > size && current.count >= MIN_CAPACITY * 4) {
+            BusSubscription[] compacted = new BusSubscription[size * 2];
+            snapshot = new Snapshot(compacted, compact(current.entries, current.count, compacted));
+        }
+    }
+
+    /**
+     * @return array of the subscribed listeners.
+     */
+    @NotNull
+    /*package*/ BusListener[] toArray() {
+        Snapshot current = snapshot;
+        BusListener[] listeners = new BusListener[current.count];
+        int count = 0;
+        for (int i = 0; i < current.count; i++) {
+            BusSubscription subscription = current.entries[i];
+            if (subscription.subscribed) listeners[count++] = subscription.listener;
+        }
+        if (count == listeners.length) return listeners;
+        BusListener[] trimmed = new BusListener[count];
+        System.arraycopy(listeners, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    /**
+     * @return the listeners currently subscribed, unaffected by later subscriptions.
+     */
+    @NotNull
+    /*package*/ Iterable<BusListener> snapshot() {
+        return snapshot;
+    }
+
+    @NotNull
+    @Override
+    public Iterator<BusListener> iterator() {
+        return snapshot.iterator();
+    }
+
+    private static int compact(@NotNull BusSubscription[] entries, int count, @NotNull BusSubscription[] target) {
+        int compacted = 0;
+        for (int i = 0; i < count; i++) {
+            if (entries[i].subscribed) target[compacted++] = entries[i];
+        }
+        return compacted;
+    }
+
+    private static final class Snapshot implements Iterable<BusListener> {
+
+        private final BusSubscription[] entries;
+        private final int count;
+
+        private Snapshot(@NotNull BusSubscription[] entries, int count) {
+            this.entries = entries;
+            this.count = count;
+        }
+
+        @NotNull
+        @Override
+        public Iterator<BusListener> iterator() {
+            return new Iterator<BusListener>() {
+
+                private int index = advance(0);
+
+                private int advance(int from) {
+                    while (from < count && !entries[from].subscribed) {
+                        from++;
+                    }
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    index = advance(index);
+                    return index < count;
+                }
+
+                @Override
+                public BusListener next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return entries[index++].listener;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per channel metrics of a Bus.
+ * - Counts emitted events, deliveries to listeners (or their preprocessors), listeners skipped due to
+ * a different data class expectation, persistent events replayed to new subscribers, persistent events
+ * suppressed for being equivalent to the previous one, events rejected, dropped or overflowed for being
+ * emitted over a limit, listener failures isolated from the emission and listeners skipped for having their
+ * circuit open.
+ * - Keeps a latency histogram of listener callbacks with fixed buckets. Bucket i counts callbacks that
+ * took less than 4^(i+1) nanoseconds (and at least 4^i for i > 0); the last bucket is unbounded.
+ * <p/>
+ * Metrics are only collected while enabled with {@link Bus#setMetricsEnabled(boolean)}.
+ * Snapshots can be read from any thread without disturbing dispatch, so they can be polled by a local
+ * scraper or exposed through JMX where available.
+ */
+public final class BusMetrics {
+
+    /**
+     * Number of buckets of the latency histograms.
+     */
+    public static final int LATENCY_BUCKET_COUNT = 16;
+
+    private final ConcurrentHashMap<String, ChannelMetrics> channels = new ConcurrentHashMap<>();
+
+    /*package*/ BusMetrics() {
+    }
+
+    /**
+     * Get the exclusive upper bound, in nanoseconds, of a latency histogram bucket.
+     *
+     * @param bucket bucket index, from 0 to LATENCY_BUCKET_COUNT - 1.
+     * @return upper bound in nanoseconds, Long.MAX_VALUE for the last (unbounded) bucket.
+     * @throws IllegalArgumentException if the bucket index is out of range.
+     */
+    public static long getLatencyBucketUpperBoundNanos(int bucket) {
+        if (bucket < 0 || bucket >= LATENCY_BUCKET_COUNT) {
+            throw new IllegalArgumentException("Bucket out of range: " + bucket);
+        }
+        return bucket == LATENCY_BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << (2 * (bucket + 1));
+    }
+
+    /**
+     * Take a snapshot of the metrics of a concrete channel.
+     *
+     * @param channel String representing the channel being inspected.
+     * @return snapshot of the channel metrics or null if nothing has been recorded for the channel.
+     */
+    @Nullable
+    public ChannelSnapshot getSnapshot(@NotNull String channel) {
+        ChannelMetrics channelMetrics = channels.get(channel);
+        return channelMetrics != null ? channelMetrics.snapshot(channel) : null;
+    }
+
+    /**
+     * Take a snapshot of the metrics of every channel with recorded activity.
+     *
+     * @return unmodifiable map of channel to its metrics snapshot.
+     */
+    @NotNull
+    public Map<String, ChannelSnapshot> getSnapshots() {
+        Map<String, ChannelSnapshot> snapshots = new HashMap<>();
+        for (Map.Entry<String, ChannelMetrics> entry : channels.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+        }
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    /**
+     * Discard every recorded metric.
+     */
+    public void reset() {
+        channels.clear();
+    }
+
+    @NotNull
+    /*package*/ ChannelMetrics getChannelMetrics(@NotNull String channel) {
+        ChannelMetrics channelMetrics = channels.get(channel);
+        if (channelMetrics == null) {
+            ChannelMetrics newChannelMetrics = new ChannelMetrics();
+            channelMetrics = channels.putIfAbsent(channel, newChannelMetrics);
+            if (channelMetrics == null) channelMetrics = newChannelMetrics;
+        }
+        return channelMetrics;
+    }
+
+    /**
+     * Mutable metrics of a channel.
+     * Counters are mostly updated while holding the channel monitor, so they never contend with each other;
+     * atomics are used so snapshots taken from other threads are consistent per counter, and so events over
+     * a limit can be counted before taking the monitor.
+     */
+    /*package*/ static final class ChannelMetrics {
+
+        /*package*/ final AtomicLong emits = new AtomicLong();
+        private final AtomicLong deliveries = new AtomicLong();
+        /*package*/ final AtomicLong classMismatches = new AtomicLong();
+        /*package*/ final AtomicLong persistentReplays = new AtomicLong();
+        /*package*/ final AtomicLong suppressedEmits = new AtomicLong();
+        /*package*/ final AtomicLong rejectedEmits = new AtomicLong();
+        /*package*/ final AtomicLong droppedEmits = new AtomicLong();
+        /*package*/ final AtomicLong overflowedEmits = new AtomicLong();
+        /*package*/ final AtomicLong listenerFailures = new AtomicLong();
+        /*package*/ final AtomicLong openCircuitSkips = new AtomicLong();
+        private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BUCKET_COUNT);
+
+        /*package*/ void recordDelivery(long nanos) {
+            deliveries.incrementAndGet();
+            int bucket = nanos <= 1 ? 0 : (63 - Long.numberOfLeadingZeros(nanos)) >> 1;
+            latencyBuckets.incrementAndGet(bucket < LATENCY_BUCKET_COUNT ? bucket : LATENCY_BUCKET_COUNT - 1);
+        }
+
+        @NotNull
+        private ChannelSnapshot snapshot(@NotNull String channel) {
+            long[] buckets = new long[LATENCY_BUCKET_COUNT];
+            for (int i = 0; i < LATENCY_BUCKET_COUNT; i++) {
+                buckets[i] = latencyBuckets.get(i);
+            }
+            return new ChannelSnapshot(channel, emits.get(), deliveries.get(), classMismatches.get(),
+                    persistentReplays.get(), suppressedEmits.get(), rejectedEmits.get(), droppedEmits.get(),
+                    overflowedEmits.get(), listenerFailures.get(), openCircuitSkips.get(), buckets);
+        }
+    }
+
+    /**
+     * Immutable snapshot of the metrics of a channel.
+     */
+    public static final class ChannelSnapshot {
+
+        private final String channel;
+        private final long emitCount;
+        private final long deliveryCount;
+        private final long classMismatchCount;
+        private final long persistentReplayCount;
+        private final long suppressedEmitCount;
+        private final long rejectedEmitCount;
+        private final long droppedEmitCount;
+        private final long overflowedEmitCount;
+        private final long listenerFailureCount;
+        private final long openCircuitSkipCount;
+        private final long[] latencyBuckets;
+
+        private ChannelSnapshot(@NotNull String channel, long emitCount, long deliveryCount, long classMismatchCount,
+                                long persistentReplayCount, long suppressedEmitCount, long rejectedEmitCount,
+                                long droppedEmitCount, long overflowedEmitCount, long listenerFailureCount,
+                                long openCircuitSkipCount, @NotNull long[] latencyBuckets) {
+            this.channel = channel;
+            this.emitCount = emitCount;
+            this.deliveryCount = deliveryCount;
+            this.classMismatchCount = classMismatchCount;
+            this.persistentReplayCount = persistentReplayCount;
+            this.suppressedEmitCount = suppressedEmitCount;
+            this.rejectedEmitCount = rejectedEmitCount;
+            this.droppedEmitCount = droppedEmitCount;
+            this.overflowedEmitCount = overflowedEmitCount;
+            this.listenerFailureCount = listenerFailureCount;
+            this.openCircuitSkipCount = openCircuitSkipCount;
+            this.latencyBuckets = latencyBuckets;
+        }
+
+        /**
+         * @return the channel these metrics belong to.
+         */
+        @NotNull
+        public String getChannel() {
+            return channel;
+        }
+
+        /**
+         * @return number of events emitted on the channel.
+         */
+        public long getEmitCount() {
+            return emitCount;
+        }
+
+        /**
+         * @return number of times a listener (or its preprocessor) was notified, persistent replays included.
+         */
+        public long getDeliveryCount() {
+            return deliveryCount;
+        }
+
+        /**
+         * @return number of times a listener was skipped due to a different data class expectation.
+         */
+        public long getClassMismatchCount() {
+            return classMismatchCount;
+        }
+
+        /**
+         * @return number of persistent events replayed to listeners when subscribing.
+         */
+        public long getPersistentReplayCount() {
+            return persistentReplayCount;
+        }
+
+        /**
+         * @return number of persistent events skipped for being equivalent to the previous one.
+         * @see Bus#setDistinctPersistent(String, BusEquivalence)
+         */
+        public long getSuppressedEmitCount() {
+            return suppressedEmitCount;
+        }
+
+        /**
+         * @return number of events emitted over a limit and rejected to the emitter.
+         * @see BusOverflowPolicy#REJECT
+         */
+        public long getRejectedEmitCount() {
+            return rejectedEmitCount;
+        }
+
+        /**
+         * @return number of events emitted over a limit and dropped.
+         * @see BusOverflowPolicy#DROP
+         */
+        public long getDroppedEmitCount() {
+            return droppedEmitCount;
+        }
+
+        /**
+         * @return number of events emitted over a limit and emitted on an overflow channel instead.
+         * @see BusOverflowPolicy#overflowTo(String)
+         */
+        public long getOverflowedEmitCount() {
+            return overflowedEmitCount;
+        }
+
+        /**
+         * @return number of listener failures caught without aborting the emission.
+         * @see Bus#setErrorIsolation(BusErrorIsolation)
+         */
+        public long getListenerFailureCount() {
+            return listenerFailureCount;
+        }
+
+        /**
+         * @return number of times a listener was skipped because its circuit was open.
+         */
+        public long getOpenCircuitSkipCount() {
+            return openCircuitSkipCount;
+        }
+
+        /**
+         * Get the number of listener callbacks recorded in a latency histogram bucket.
+         *
+         * @param bucket bucket index, from 0 to LATENCY_BUCKET_COUNT - 1.
+         * @return number of callbacks in the bucket.
+         * @see BusMetrics#getLatencyBucketUpperBoundNanos(int)
+         */
+        public long getLatencyBucketCount(int bucket) {
+            if (bucket < 0 || bucket >= LATENCY_BUCKET_COUNT) {
+                throw new IllegalArgumentException("Bucket out of range: " + bucket);
+            }
+            return latencyBuckets[bucket];
+        }
+
+        @Override
+        public String toString() {
+            return "ChannelSnapshot{channel=" + channel
+                    + ", emits=" + emitCount
+                    + ", deliveries=" + deliveryCount
+                    + ", classMismatches=" + classMismatchCount
+                    + ", persistentReplays=" + persistentReplayCount
+                    + ", suppressedEmits=" + suppressedEmitCount
+                    + ", rejectedEmits=" + rejectedEmitCount
+                    + ", droppedEmits=" + droppedEmitCount
+                    + ", overflowedEmits=" + overflowedEmitCount
+                    + ", listenerFailures=" + listenerFailureCount
+                    + ", openCircuitSkips=" + openCircuitSkipCount + "}";
+        }
+    }
+}
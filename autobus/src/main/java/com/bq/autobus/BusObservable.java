@@ -36,10 +36,12 @@ public class BusObservable<T> {
      *
      * @param listener BusListener to notify when an event containing data of the class expected by the listener
      *                 is emitted on the channel.
+     * @return BusSubscription to unsubscribe the listener.
      * @throws IllegalArgumentException if the listener is null or if is already subscribed to the channel.
      */
-    public void subscribe(@NotNull BusListener<T> listener) {
-        bus.subscribe(channel, listener);
+    @NotNull
+    public BusSubscription subscribe(@NotNull BusListener<T> listener) {
+        return bus.subscribe(channel, listener);
     }
 
     /**
@@ -52,6 +54,34 @@ public class BusObservable<T> {
         bus.unSubscribe(channel, listener);
     }
 
+    /**
+     * Subscribe a BusListener to a concrete key of the channel.
+     *
+     * @param key      key of the data the listener is interested in.
+     * @param listener BusListener to notify when an event containing data of the class expected by the listener
+     *                 and with the key is emitted on the channel.
+     * @return BusSubscription to unsubscribe the listener.
+     * @throws IllegalArgumentException if the key or the listener are null or if the listener is already
+     *                                  subscribed to the key.
+     * @see Bus#subscribe(String, Object, BusListener)
+     */
+    @NotNull
+    public BusSubscription subscribe(@NotNull Object key, @NotNull BusListener<T> listener) {
+        return bus.subscribe(channel, key, listener);
+    }
+
+    /**
+     * Unsubscribe a BusListener from a concrete key of the channel.
+     *
+     * @param key      key the listener was subscribed to.
+     * @param listener BusListener being unsubscribed from the key.
+     * @throws IllegalArgumentException if the key or the listener are null or if the listener is not
+     *                                  subscribed to the key.
+     */
+    public void unSubscribe(@NotNull Object key, @NotNull BusListener<T> listener) {
+        bus.unSubscribe(channel, key, listener);
+    }
+
     /**
      * Emit event to the channel without data.
      * Only BusListeners subscribed to the channel and expecting the data class will be notified.
@@ -0,0 +1,79 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decides what happens to an event emitted over a limit of a Bus.
+ * - REJECT throws a RejectedExecutionException to the emitter.
+ * - DROP discards the event silently.
+ * - Overflow policies emit the event on another channel instead, for example to handle it later or elsewhere.
+ * <p/>
+ * Every event over a limit is counted in the metrics of the channel it was emitted on.
+ *
+ * @see BusRateLimit
+ * @see BusConcurrencyLimit
+ */
+public final class BusOverflowPolicy {
+
+    /**
+     * Actions taken on events emitted over a limit.
+     */
+    public enum Action {
+        REJECT, DROP, OVERFLOW
+    }
+
+    /**
+     * Throw a RejectedExecutionException to the emitter.
+     */
+    public static final BusOverflowPolicy REJECT = new BusOverflowPolicy(Action.REJECT, null);
+
+    /**
+     * Discard the event without notifying any listener.
+     */
+    public static final BusOverflowPolicy DROP = new BusOverflowPolicy(Action.DROP, null);
+
+    private final Action action;
+    private final String overflowChannel;
+
+    private BusOverflowPolicy(@NotNull Action action, @Nullable String overflowChannel) {
+        this.action = action;
+        this.overflowChannel = overflowChannel;
+    }
+
+    /**
+     * Get a policy emitting events over a limit on another channel.
+     * Overflowed events skip the limits of the Bus, so the overflow channel always receives them.
+     *
+     * @param overflowChannel String representing the channel the events are emitted to instead.
+     * @return BusOverflowPolicy routing events to the overflow channel.
+     * @throws IllegalArgumentException if overflowChannel is null.
+     */
+    @NotNull
+    public static BusOverflowPolicy overflowTo(@NotNull String overflowChannel) {
+        if (overflowChannel == null) throw new IllegalArgumentException("Overflow channel must not be null");
+        return new BusOverflowPolicy(Action.OVERFLOW, overflowChannel);
+    }
+
+    /**
+     * @return the action taken on events emitted over a limit.
+     */
+    @NotNull
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * @return the channel events are emitted to instead, or null if the action is not OVERFLOW.
+     */
+    @Nullable
+    public String getOverflowChannel() {
+        return overflowChannel;
+    }
+
+    @Override
+    public String toString() {
+        return action == Action.OVERFLOW ? "BusOverflowPolicy{overflowTo=" + overflowChannel + "}"
+                : "BusOverflowPolicy{" + action + "}";
+    }
+}
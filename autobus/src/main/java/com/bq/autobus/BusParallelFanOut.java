@@ -0,0 +1,81 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Settings of the parallel fan-out of a Bus.
+ * Events emitted on a channel with at least threshold listeners are notified to them in parallel: the snapshot
+ * of the channel listeners is split across the tasks of a ForkJoinPool, so emission latency scales with the
+ * number of cores instead of the number of listeners.
+ * <p/>
+ * Parallel notifications take place outside of the channel monitor, so listeners running on the pool may emit
+ * and subscribe to the channel. As a consequence:
+ * - Listeners of a channel may be notified concurrently, and of different events at the same time.
+ * - When not waiting for completion, events are not notified in order and exceptions thrown by
+ * listeners are logged instead of being thrown to the emitter.
+ *
+ * @see Bus#setParallelFanOut(BusParallelFanOut)
+ */
+public final class BusParallelFanOut {
+
+    /**
+     * Minimum number of listeners notified by each task.
+     */
+    private static final int MIN_TASK_SIZE = 16;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final boolean waitForCompletion;
+
+    /**
+     * Creates new parallel fan-out settings.
+     *
+     * @param pool              ForkJoinPool notifying the listeners.
+     * @param threshold         minimum number of listeners of a channel to notify them in parallel.
+     * @param waitForCompletion true if emissions should wait until every listener has been notified, false
+     *                          to return as soon as the notifications have been submitted to the pool.
+     * @throws IllegalArgumentException if pool is null or threshold is not positive.
+     */
+    public BusParallelFanOut(@NotNull ForkJoinPool pool, int threshold, boolean waitForCompletion) {
+        if (pool == null) throw new IllegalArgumentException("Pool must not be null");
+        if (threshold <= 0) throw new IllegalArgumentException("Threshold must be positive");
+        this.pool = pool;
+        this.threshold = threshold;
+        this.waitForCompletion = waitForCompletion;
+    }
+
+    /**
+     * @return the ForkJoinPool notifying the listeners.
+     */
+    @NotNull
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * @return minimum number of listeners of a channel to notify them in parallel.
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return true if emissions wait until every listener has been notified.
+     */
+    public boolean isWaitForCompletion() {
+        return waitForCompletion;
+    }
+
+    /**
+     * Get the number of listeners each task should notify, so every worker of the pool gets a few tasks
+     * to balance the load without splitting the listeners too much.
+     *
+     * @param listenerCount number of listeners being notified.
+     * @return number of listeners notified by each task.
+     */
+    /*package*/ int getTaskSize(int listenerCount) {
+        return Math.max(MIN_TASK_SIZE, listenerCount / (pool.getParallelism() * 4));
+    }
+}
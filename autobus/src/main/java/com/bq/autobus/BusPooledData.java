@@ -0,0 +1,88 @@
+package com.bq.autobus;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Base class of reference counted event data that can be recycled through a {@link BusDataPool}.
+ * <p/>
+ * Pooled data is obtained from its pool with one reference, owned by the emitter. Emitting the data
+ * hands that reference over to the Bus, which releases it once every listener has been notified, so the
+ * data returns to its pool as soon as the emission ends. To use the data after that:
+ * - Listeners keeping the data beyond notifyEvent must retain it and release it when done.
+ * - Preprocessors are handed a retained reference and must release it once the listener has been notified.
+ * Preprocessors throwing an exception do not own it: the Bus releases it.
+ * - Emitters emitting the same data more than once must retain it before every additional emission.
+ * - Persistent events are retained by the Bus until they are replaced by a new persistent event.
+ * <p/>
+ * Data that is never released is not recycled, it is just garbage collected as any other object.
+ */
+public abstract class BusPooledData {
+
+    private static final AtomicIntegerFieldUpdater<BusPooledData> REFERENCES =
+            AtomicIntegerFieldUpdater.newUpdater(BusPooledData.class, "references");
+
+    private volatile int references = 1;
+    /*package*/ BusDataPool<?> pool;
+
+    /**
+     * Add a reference to this data, so it is not recycled until the reference is released.
+     *
+     * @throws IllegalStateException if the data has already been recycled.
+     */
+    public final void retain() {
+        int current;
+        do {
+            current = references;
+            if (current <= 0) throw new IllegalStateException("Data already recycled: " + this);
+        } while (!REFERENCES.compareAndSet(this, current, current + 1));
+    }
+
+    /**
+     * Release a reference to this data. The data returns to its pool when its last reference is released.
+     *
+     * @throws IllegalStateException if every reference to the data has already been released.
+     */
+    public final void release() {
+        int current;
+        do {
+            current = references;
+            if (current <= 0) throw new IllegalStateException("Data already recycled: " + this);
+        } while (!REFERENCES.compareAndSet(this, current, current - 1));
+        if (current == 1 && pool != null) {
+            onRecycle();
+            pool.recycle(this);
+        }
+    }
+
+    /**
+     * Called when the data is returned to its pool, before it is reused.
+     * Override to clear references held by the data.
+     */
+    protected void onRecycle() {
+    }
+
+    /**
+     * @return number of references to this data, 0 once recycled.
+     */
+    /*package*/ int getReferenceCount() {
+        return references;
+    }
+
+    /*package*/ void reuse() {
+        references = 1;
+    }
+
+    /**
+     * Retain data if it is pooled.
+     */
+    /*package*/ static void retain(Object busData) {
+        if (busData instanceof BusPooledData) ((BusPooledData) busData).retain();
+    }
+
+    /**
+     * Release data if it is pooled.
+     */
+    /*package*/ static void release(Object busData) {
+        if (busData instanceof BusPooledData) ((BusPooledData) busData).release();
+    }
+}
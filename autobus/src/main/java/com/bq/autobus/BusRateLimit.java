@@ -0,0 +1,72 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of the rate limit of a channel.
+ * Events are admitted through a token bucket: it holds up to burst tokens, is refilled at permitsPerSecond
+ * tokens per second and every admitted event takes one token. Events emitted while the bucket is empty are
+ * handled by the overflow policy.
+ * <p/>
+ * Each channel gets its own bucket, so the same settings can be shared by several channels.
+ *
+ * @see Bus#setRateLimit(String, BusRateLimit)
+ */
+public final class BusRateLimit {
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final BusOverflowPolicy policy;
+    private final long intervalNanos;
+
+    /**
+     * Creates new rate limit settings.
+     *
+     * @param permitsPerSecond sustained number of events admitted per second.
+     * @param burst            maximum number of events admitted at once after the channel has been idle.
+     * @param policy           BusOverflowPolicy handling events emitted over the limit.
+     * @throws IllegalArgumentException if permitsPerSecond or burst are not positive or policy is null.
+     */
+    public BusRateLimit(double permitsPerSecond, int burst, @NotNull BusOverflowPolicy policy) {
+        if (!(permitsPerSecond > 0)) throw new IllegalArgumentException("Permits per second must be positive");
+        if (burst <= 0) throw new IllegalArgumentException("Burst must be positive");
+        if (policy == null) throw new IllegalArgumentException("Policy must not be null");
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.policy = policy;
+        // Bounded so a whole burst of intervals still fits in a difference of System.nanoTime() values
+        this.intervalNanos = Math.max(1, Math.min(Math.round(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond),
+                (Long.MAX_VALUE >> 2) / burst));
+    }
+
+    /**
+     * @return sustained number of events admitted per second.
+     */
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * @return maximum number of events admitted at once.
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * @return the BusOverflowPolicy handling events emitted over the limit.
+     */
+    @NotNull
+    public BusOverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return time it takes to refill one token, in nanoseconds.
+     */
+    /*package*/ long getIntervalNanos() {
+        return intervalNanos;
+    }
+}
@@ -0,0 +1,105 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes replies to pending Bus requests by correlation ID.
+ * A single dispatcher serves every request of a Bus, so requests don't need a reply channel nor
+ * subscribing and unsubscribing a temporary listener. Timeouts are scheduled on the timing wheel of delayed
+ * events, shared by every Bus, and cancelled as soon as their request is answered.
+ */
+/*package*/ final class BusReplyDispatcher {
+
+    private final Bus bus;
+    private final AtomicLong nextCorrelationId = new AtomicLong();
+    private final ConcurrentHashMap<Long, PendingRequest<?>> pendingRequests = new ConcurrentHashMap<>();
+
+    /*package*/ BusReplyDispatcher(@NotNull Bus bus) {
+        this.bus = bus;
+    }
+
+    /**
+     * Register a new pending request.
+     *
+     * @param channel    channel the request is emitted to.
+     * @param payload    payload of the request.
+     * @param replyClass Class the reply must be an instance of.
+     * @param timeout    time to wait for a reply, 0 or less to wait forever.
+     * @param unit       time unit of the timeout.
+     * @return the request to emit and the future completed by its reply.
+     */
+    @NotNull
+    /*package*/ <R> PendingRequest<R> register(@NotNull String channel, @Nullable Object payload,
+                                              @NotNull Class<R> replyClass, long timeout, @NotNull TimeUnit unit) {
+        final long correlationId = nextCorrelationId.incrementAndGet();
+        PendingRequest<R> pendingRequest = new PendingRequest<>(new BusRequest(correlationId, payload, this), replyClass);
+        pendingRequests.put(correlationId, pendingRequest);
+        if (timeout > 0) {
+            pendingRequest.timeout = bus.scheduleTaskAfter(channel, new Runnable() {
+                @Override
+                public void run() {
+                    replyError(correlationId, new TimeoutException("No reply received for request " + correlationId));
+                }
+            }, unit.toNanos(timeout));
+        }
+        return pendingRequest;
+    }
+
+    /*package*/ boolean reply(long correlationId, @Nullable Object reply) {
+        PendingRequest<?> pendingRequest = pendingRequests.remove(correlationId);
+        return pendingRequest != null && pendingRequest.complete(reply);
+    }
+
+    /*package*/ boolean replyError(long correlationId, @NotNull Throwable error) {
+        PendingRequest<?> pendingRequest = pendingRequests.remove(correlationId);
+        return pendingRequest != null && pendingRequest.fail(error);
+    }
+
+    /**
+     * A request waiting for its reply.
+     */
+    /*package*/ final class PendingRequest<R> {
+
+        /*package*/ final BusRequest request;
+        /*package*/ final BusFuture<R> future;
+        private final Class<R> replyClass;
+        private volatile BusScheduledEvent timeout;
+
+        private PendingRequest(@NotNull BusRequest request, @NotNull Class<R> replyClass) {
+            this.request = request;
+            this.replyClass = replyClass;
+            this.future = new BusFuture<>(new Runnable() {
+                @Override
+                public void run() {
+                    pendingRequests.remove(PendingRequest.this.request.getCorrelationId());
+                    cancelTimeout();
+                }
+            });
+        }
+
+        private boolean complete(@Nullable Object reply) {
+            cancelTimeout();
+            if (reply != null && !replyClass.isInstance(reply)) {
+                return future.fail(new ClassCastException("Reply of class " + reply.getClass().getName()
+                        + " is not a " + replyClass.getName()));
+            }
+            return future.complete(replyClass.cast(reply));
+        }
+
+        private boolean fail(@NotNull Throwable error) {
+            cancelTimeout();
+            return future.fail(error);
+        }
+
+        private void cancelTimeout() {
+            BusScheduledEvent scheduledTimeout = timeout;
+            if (scheduledTimeout != null) scheduledTimeout.cancel();
+        }
+    }
+}
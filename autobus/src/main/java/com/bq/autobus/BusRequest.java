@@ -0,0 +1,67 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Data emitted on a channel by {@link Bus#request(String, Object, Class)}.
+ * It carries the request payload and the correlation ID its reply is routed by.
+ * Responders subscribe to the channel expecting BusRequest data (see {@link BusRequestListener})
+ * and answer with reply or replyError. Only the first answer to a request is taken into account.
+ */
+public final class BusRequest {
+
+    private final long correlationId;
+    private final Object payload;
+    private final BusReplyDispatcher replyDispatcher;
+
+    /*package*/ BusRequest(long correlationId, @Nullable Object payload, @NotNull BusReplyDispatcher replyDispatcher) {
+        this.correlationId = correlationId;
+        this.payload = payload;
+        this.replyDispatcher = replyDispatcher;
+    }
+
+    /**
+     * @return the ID replies to this request are routed by.
+     */
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * @return the payload of the request or null if the request has no payload.
+     */
+    @Nullable
+    public Object getPayload() {
+        return payload;
+    }
+
+    /**
+     * Reply to the request.
+     *
+     * @param reply reply object, or null to reply without data.
+     * @return true if this was the first answer to a pending request, false if the request was already
+     * answered, timed out or was cancelled.
+     */
+    public boolean reply(@Nullable Object reply) {
+        return replyDispatcher.reply(correlationId, reply);
+    }
+
+    /**
+     * Answer the request with an error.
+     *
+     * @param error cause of the failure, delivered to the requester.
+     * @return true if this was the first answer to a pending request, false if the request was already
+     * answered, timed out or was cancelled.
+     * @throws IllegalArgumentException if error is null.
+     */
+    public boolean replyError(@NotNull Throwable error) {
+        if (error == null) throw new IllegalArgumentException("Error must not be null");
+        return replyDispatcher.replyError(correlationId, error);
+    }
+
+    @Override
+    public String toString() {
+        return "BusRequest{correlationId=" + correlationId + ", payload=" + payload + "}";
+    }
+}
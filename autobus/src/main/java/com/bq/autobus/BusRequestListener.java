@@ -0,0 +1,54 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents a responder that can be subscribed to a Bus channel to answer requests whose payload
+ * is of a concrete class. Requests with a payload of any other class (or without payload) are ignored.
+ *
+ * @see Bus#request(String, Object, Class)
+ */
+public abstract class BusRequestListener<P> extends BusListener<BusRequest> {
+
+    private final Class<P> payloadClass;
+
+    /**
+     * Creates a BusRequestListener that answers requests with a concrete payload class.
+     *
+     * @param payloadClass Class of the expected request payload.
+     */
+    public BusRequestListener(@NotNull Class<P> payloadClass) {
+        this(payloadClass, null);
+    }
+
+    /**
+     * Creates a BusRequestListener that answers requests with a concrete payload class and a Preprocessor.
+     *
+     * @param payloadClass Class of the expected request payload.
+     * @param preprocessor Set a preprocessor to intercept every request notification.
+     *                     Useful, for example, when you need to answer requests on a background thread.
+     */
+    public BusRequestListener(@NotNull Class<P> payloadClass, @Nullable Preprocessor<BusRequest> preprocessor) {
+        super(BusRequest.class, preprocessor);
+        this.payloadClass = payloadClass;
+    }
+
+    @Override
+    public final void notifyEvent(@NotNull BusRequest busData) {
+        Object payload = busData.getPayload();
+        if (payload != null && payloadClass.equals(payload.getClass())) {
+            onRequest(payloadClass.cast(payload), busData);
+        }
+    }
+
+    /**
+     * Callback executed when a request with the expected payload class is emitted to the bus channel this
+     * listener is subscribed to. Answer it with request.reply or request.replyError, either before
+     * returning or later from any thread.
+     *
+     * @param payload payload of the request.
+     * @param request request to answer.
+     */
+    public abstract void onRequest(@NotNull P payload, @NotNull BusRequest request);
+}
@@ -0,0 +1,115 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Handle of an event scheduled to be emitted after a delay, once or periodically.
+ * The event is also the entry of the timing wheel, so a scheduled event costs a single object.
+ *
+ * @see Bus#emitEventAfter(String, Object, long, java.util.concurrent.TimeUnit)
+ * @see Bus#emitEventEvery(String, Object, long, long, java.util.concurrent.TimeUnit)
+ */
+public final class BusScheduledEvent {
+
+    private static final int SCHEDULED = 0;
+    private static final int EMITTED = 1;
+    private static final int CANCELLED = 2;
+    private static final AtomicIntegerFieldUpdater<BusScheduledEvent> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(BusScheduledEvent.class, "state");
+
+    private final Bus bus;
+    private final String channel;
+    private final Object busData;
+    private final Runnable task;
+    private final BusTimingWheel timingWheel;
+    /*package*/ final long periodNanos;
+    private volatile int state = SCHEDULED;
+
+    // Only accessed by the timing wheel thread once the event has been handed over
+    /*package*/ long deadlineNanos;
+    /*package*/ int bucket = -1;
+    /*package*/ BusScheduledEvent previous;
+    /*package*/ BusScheduledEvent next;
+    // Links of the lock-free stacks handing events over to the timing wheel thread
+    /*package*/ BusScheduledEvent nextScheduled;
+    /*package*/ BusScheduledEvent nextCancelled;
+
+    /**
+     * @param task Runnable run instead of emitting the data, for example by window aggregators, or null.
+     */
+    /*package*/ BusScheduledEvent(@NotNull Bus bus, @NotNull String channel, @Nullable Object busData,
+                                  @Nullable Runnable task, @NotNull BusTimingWheel timingWheel,
+                                  long deadlineNanos, long periodNanos) {
+        this.bus = bus;
+        this.channel = channel;
+        this.busData = busData;
+        this.task = task;
+        this.timingWheel = timingWheel;
+        this.deadlineNanos = deadlineNanos;
+        this.periodNanos = periodNanos;
+    }
+
+    /**
+     * @return the channel the event is emitted to.
+     */
+    @NotNull
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return true if the event is emitted periodically.
+     */
+    public boolean isPeriodic() {
+        return periodNanos > 0;
+    }
+
+    /**
+     * @return true if the event has been cancelled.
+     */
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    /**
+     * Cancel the event so it is not emitted anymore.
+     *
+     * @return false if the event was already cancelled or, if it is not periodic, already emitted.
+     */
+    public boolean cancel() {
+        if (!STATE.compareAndSet(this, SCHEDULED, CANCELLED)) return false;
+        timingWheel.cancel(this);
+        return true;
+    }
+
+    /**
+     * Emit the event, or run its task, on the timing wheel thread.
+     */
+    /*package*/ void emit() {
+        // One-shot tasks still run, so request timeouts complete the futures of disposed buses
+        if (bus.isDisposed() && (task == null || periodNanos > 0)) {
+            cancel();
+            return;
+        }
+        if (task != null) {
+            if (periodNanos > 0 ? state == SCHEDULED : STATE.compareAndSet(this, SCHEDULED, EMITTED)) task.run();
+        } else if (periodNanos > 0) {
+            if (state != SCHEDULED) return;
+            // The wheel keeps its own reference to pooled data until the event is cancelled
+            BusPooledData.retain(busData);
+            bus.emitEvent(channel, busData);
+        } else if (STATE.compareAndSet(this, SCHEDULED, EMITTED)) {
+            bus.emitEvent(channel, busData);
+        }
+    }
+
+    /**
+     * Release the data of a cancelled event, on the timing wheel thread.
+     */
+    /*package*/ void release() {
+        BusPooledData.release(busData);
+    }
+}
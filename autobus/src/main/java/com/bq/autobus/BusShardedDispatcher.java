@@ -0,0 +1,465 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Emits events to a Bus from a fixed set of worker threads, one per shard.
+ * - Every channel is owned by a shard, chosen by hashing the channel name, and its events are emitted on
+ * the shard thread only. Producers never block on the channel monitor nor on slow listeners: they hand
+ * events over through a lock-free queue per shard and return.
+ * - Events of a channel are emitted in the order they were handed over by each producer, and their
+ * listeners are always notified on the same thread, so independent channels scale with the number of shards.
+ * - Hot channels can be moved from overloaded shards to the least loaded one. Events handed over while a
+ * channel is being moved are held by its new shard until the old one has emitted every previous event.
+ * <p/>
+ * Use about one shard per core. Shard threads are not pinned to cores, which the JVM cannot do portably.
+ */
+public final class BusShardedDispatcher {
+
+    /**
+     * A shard is considered overloaded when it emits this many times the average load of the shards.
+     */
+    private static final double IMBALANCE_RATIO = 1.5;
+
+    private static final int EVENT = 0;
+    private static final int PERSISTENT_EVENT = 1;
+    private static final int EVENT_WITHOUT_DATA = 2;
+    private static final int PERSISTENT_EVENT_WITHOUT_DATA = 3;
+    private static final int HANDOFF = 4;
+    private static final int RESUME = 5;
+
+    private final Bus bus;
+    private final Shard[] shards;
+    private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+    private final Logger logger = Logger.getLogger("Autobus");
+
+    private long rebalanceIntervalNanos;
+    private Thread rebalancer;
+    private boolean running;
+
+    /**
+     * Creates a new BusShardedDispatcher.
+     *
+     * @param bus        Bus the events are emitted to.
+     * @param shardCount number of shards, each with its own worker thread.
+     * @throws IllegalArgumentException if bus is null or shardCount is not positive.
+     */
+    public BusShardedDispatcher(@NotNull Bus bus, int shardCount) {
+        if (bus == null) throw new IllegalArgumentException("Bus must not be null");
+        if (shardCount <= 0) throw new IllegalArgumentException("Shard count must be positive");
+        this.bus = bus;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    /**
+     * @return number of shards of this dispatcher.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Get the shard currently owning a channel.
+     *
+     * @param channel String representing the channel being inspected.
+     * @return index of the shard emitting the events of the channel.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public int getShard(@NotNull String channel) {
+        return getRoute(channel).shard;
+    }
+
+    /**
+     * Sets how often hot channels are moved between shards while the dispatcher is running.
+     * Disabled by default.
+     *
+     * @param interval time between rebalancing passes, 0 or less to disable rebalancing.
+     * @param unit     time unit of the interval.
+     */
+    public synchronized void setRebalanceInterval(long interval, @NotNull TimeUnit unit) {
+        rebalanceIntervalNanos = Math.max(0, unit.toNanos(interval));
+        if (running) {
+            stopRebalancer();
+            startRebalancer();
+        }
+    }
+
+    /**
+     * Start the shard threads. Events handed over before starting are emitted once started.
+     * Does nothing if the dispatcher is already running.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        for (Shard shard : shards) {
+            shard.start();
+        }
+        startRebalancer();
+    }
+
+    /**
+     * Stop the shard threads once every event already handed over has been emitted.
+     * If the dispatcher is started again before, the new shard threads emit the remaining events once the
+     * previous ones exit. Does nothing if the dispatcher is not running.
+     */
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        stopRebalancer();
+        for (Shard shard : shards) {
+            shard.stop();
+        }
+    }
+
+    /**
+     * Hand over an event without data to the shard of the channel.
+     *
+     * @param channel String representing the channel the event will be emitted to.
+     * @throws IllegalArgumentException if channel is null.
+     * @see Bus#emitEvent(String)
+     */
+    public void emitEvent(@NotNull String channel) {
+        dispatch(channel, EVENT_WITHOUT_DATA, null);
+    }
+
+    /**
+     * Hand over an event containing data to the shard of the channel.
+     *
+     * @param channel String representing the channel the event will be emitted to.
+     * @param busData data sent to the channel.
+     * @throws IllegalArgumentException if channel is null.
+     * @see Bus#emitEvent(String, Object)
+     */
+    public void emitEvent(@NotNull String channel, @Nullable Object busData) {
+        dispatch(channel, EVENT, busData);
+    }
+
+    /**
+     * Hand over a persistent event without data to the shard of the channel.
+     *
+     * @param channel String representing the channel the event will be emitted to.
+     * @throws IllegalArgumentException if channel is null.
+     * @see Bus#emitPersistentEvent(String)
+     */
+    public void emitPersistentEvent(@NotNull String channel) {
+        dispatch(channel, PERSISTENT_EVENT_WITHOUT_DATA, null);
+    }
+
+    /**
+     * Hand over a persistent event containing data to the shard of the channel.
+     *
+     * @param channel String representing the channel the event will be emitted to.
+     * @param busData data sent to the channel.
+     * @throws IllegalArgumentException if channel is null.
+     * @see Bus#emitPersistentEvent(String, Object)
+     */
+    public void emitPersistentEvent(@NotNull String channel, @Nullable Object busData) {
+        dispatch(channel, PERSISTENT_EVENT, busData);
+    }
+
+    /**
+     * Move the hottest channel of the most loaded shard to the least loaded shard, if the most loaded shard
+     * emitted at least IMBALANCE_RATIO times the average since the previous pass and moving the channel
+     * reduces the imbalance. Called periodically when a rebalance interval is set.
+     *
+     * @return true if a channel was moved.
+     */
+    public synchronized boolean rebalance() {
+        long[] loads = new long[shards.length];
+        long total = 0;
+        List<Route> candidates = new ArrayList<>(routes.size());
+        for (Route route : routes.values()) {
+            long emitted = route.emitted;
+            route.load = emitted - route.sampledEmitted;
+            route.sampledEmitted = emitted;
+            loads[route.shard] += route.load;
+            total += route.load;
+            // Channels still being moved are not moved again
+            if (route.migration == null) candidates.add(route);
+        }
+
+        int hottest = 0;
+        int coolest = 0;
+        for (int i = 1; i < loads.length; i++) {
+            if (loads[i] > loads[hottest]) hottest = i;
+            if (loads[i] < loads[coolest]) coolest = i;
+        }
+        double average = (double) total / loads.length;
+        if (total == 0 || loads[hottest] < IMBALANCE_RATIO * average) return false;
+
+        // Moving a channel emitting less than the difference between both shards reduces the imbalance
+        Route selected = null;
+        for (Route route : candidates) {
+            if (route.shard == hottest && route.load > 0 && route.load < loads[hottest] - loads[coolest]
+                    && (selected == null || route.load > selected.load)) {
+                selected = route;
+            }
+        }
+        if (selected == null) return false;
+
+        move(selected, coolest);
+        logger.info("BUS -> Moved channel: " + selected.channel + " from shard " + hottest + " to shard " + coolest);
+        return true;
+    }
+
+    private void move(@NotNull Route route, int target) {
+        Shard source = shards[route.shard];
+        // The new shard holds the events of the channel until the old one has emitted the previous ones
+        route.migration = new Migration(target);
+        route.shard = target;
+        // Wait for producers that read the old shard to finish handing their events over
+        while (route.producers.get() != 0) {
+            Thread.yield();
+        }
+        source.offer(new Message(route, HANDOFF, shards[target]));
+    }
+
+    private void dispatch(@NotNull String channel, int kind, @Nullable Object busData) {
+        Route route = getRoute(channel);
+        route.producers.incrementAndGet();
+        try {
+            shards[route.shard].offer(new Message(route, kind, busData));
+        } finally {
+            route.producers.decrementAndGet();
+        }
+    }
+
+    @NotNull
+    private Route getRoute(@NotNull String channel) {
+        if (channel == null) throw new IllegalArgumentException("Channel must not be null");
+        Route route = routes.get(channel);
+        if (route == null) {
+            int hash = channel.hashCode();
+            hash ^= hash >>> 16;
+            Route newRoute = new Route(channel, (hash & Integer.MAX_VALUE) % shards.length);
+            route = routes.putIfAbsent(channel, newRoute);
+            if (route == null) route = newRoute;
+        }
+        return route;
+    }
+
+    private void startRebalancer() {
+        if (rebalanceIntervalNanos <= 0) return;
+        final long intervalMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(rebalanceIntervalNanos));
+        rebalancer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        Thread.sleep(intervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    synchronized (BusShardedDispatcher.this) {
+                        // Replaced or stopped while sleeping or waiting for the monitor
+                        if (rebalancer != Thread.currentThread()) return;
+                        rebalance();
+                    }
+                }
+            }
+        }, "Autobus-Rebalancer");
+        rebalancer.setDaemon(true);
+        rebalancer.start();
+    }
+
+    private void stopRebalancer() {
+        if (rebalancer == null) return;
+        rebalancer.interrupt();
+        rebalancer = null;
+    }
+
+    /**
+     * Routing state of a channel.
+     */
+    private static final class Route {
+
+        private final String channel;
+        /**
+         * Producers between reading the shard and handing their event over.
+         */
+        private final AtomicInteger producers = new AtomicInteger();
+        private volatile int shard;
+        /**
+         * Move in progress, published before the new shard.
+         */
+        private volatile Migration migration;
+        /**
+         * Events emitted so far, only written by the shard owning the channel.
+         */
+        private volatile long emitted;
+        private long sampledEmitted;
+        private long load;
+
+        private Route(@NotNull String channel, int shard) {
+            this.channel = channel;
+            this.shard = shard;
+        }
+    }
+
+    /**
+     * A channel being moved to a new shard.
+     */
+    private static final class Migration {
+
+        private final int target;
+        /**
+         * Events held by the new shard until the old one has emitted the previous ones.
+         * Only accessed by the new shard thread.
+         */
+        private final List<Message> backlog = new ArrayList<>();
+
+        private Migration(int target) {
+            this.target = target;
+        }
+    }
+
+    private static final class Message {
+
+        private final Route route;
+        private final int kind;
+        private final Object payload;
+
+        private Message(@NotNull Route route, int kind, @Nullable Object payload) {
+            this.route = route;
+            this.kind = kind;
+            this.payload = payload;
+        }
+    }
+
+    private final class Shard {
+
+        private final int index;
+        private final ConcurrentLinkedQueue<Message> queue = new ConcurrentLinkedQueue<>();
+        private volatile Thread thread;
+        private volatile boolean parked;
+        private volatile boolean stopping;
+        /**
+         * Incremented on every start, so threads of previous starts know they have been replaced.
+         */
+        private volatile int generation;
+
+        private Shard(int index) {
+            this.index = index;
+        }
+
+        private void start() {
+            final int shardGeneration = ++generation;
+            final Thread previous = thread;
+            stopping = false;
+            Thread shardThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    // The previous thread may still be draining the queue: only one thread polls it at a time
+                    if (previous != null) join(previous);
+                    Shard.this.run(shardGeneration);
+                }
+            }, "Autobus-Shard-" + index);
+            shardThread.setDaemon(true);
+            thread = shardThread;
+            // Wake the previous thread up if parked, so it sees it has been replaced and exits
+            if (previous != null) LockSupport.unpark(previous);
+            shardThread.start();
+        }
+
+        private void stop() {
+            stopping = true;
+            Thread shardThread = thread;
+            if (shardThread != null) LockSupport.unpark(shardThread);
+        }
+
+        private void offer(@NotNull Message message) {
+            queue.offer(message);
+            if (parked) {
+                Thread shardThread = thread;
+                if (shardThread != null) LockSupport.unpark(shardThread);
+            }
+        }
+
+        private void run(int shardGeneration) {
+            while (generation == shardGeneration) {
+                Message message = queue.poll();
+                if (message == null) {
+                    if (stopping) return;
+                    parked = true;
+                    // Check again: an event may have been handed over before parked was set
+                    if (queue.isEmpty() && !stopping && generation == shardGeneration) LockSupport.park(this);
+                    parked = false;
+                    continue;
+                }
+                process(message);
+            }
+        }
+
+        private void join(@NotNull Thread previous) {
+            while (previous.isAlive()) {
+                try {
+                    previous.join();
+                } catch (InterruptedException e) {
+                    // Shard threads are not interrupted by the dispatcher: keep waiting
+                }
+            }
+        }
+
+        private void process(@NotNull Message message) {
+            Route route = message.route;
+            switch (message.kind) {
+                case HANDOFF:
+                    // Every previous event of the channel has been emitted by this shard
+                    ((Shard) message.payload).offer(new Message(route, RESUME, null));
+                    return;
+                case RESUME:
+                    Migration completed = route.migration;
+                    route.migration = null;
+                    for (Message held : completed.backlog) {
+                        emit(held);
+                    }
+                    return;
+                default:
+                    Migration migration = route.migration;
+                    if (migration != null && migration.target == index) {
+                        migration.backlog.add(message);
+                    } else {
+                        emit(message);
+                    }
+            }
+        }
+
+        private void emit(@NotNull Message message) {
+            Route route = message.route;
+            route.emitted = route.emitted + 1;
+            try {
+                switch (message.kind) {
+                    case EVENT:
+                        bus.emitEvent(route.channel, message.payload);
+                        break;
+                    case PERSISTENT_EVENT:
+                        bus.emitPersistentEvent(route.channel, message.payload);
+                        break;
+                    case EVENT_WITHOUT_DATA:
+                        bus.emitEvent(route.channel);
+                        break;
+                    default:
+                        bus.emitPersistentEvent(route.channel);
+                        break;
+                }
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "BUS -> Listener failed while being notified on shard " + index
+                        + " of channel: " + route.channel, e);
+            }
+        }
+    }
+}
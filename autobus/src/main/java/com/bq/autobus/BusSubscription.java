@@ -0,0 +1,69 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Handle of a BusListener subscribed to a channel, or to a key of a channel.
+ * Unsubscribing through the handle does not need to look the listener up.
+ *
+ * @see BusCompositeSubscription
+ */
+public final class BusSubscription {
+
+    /*package*/ final Bus bus;
+    /*package*/ final String channel;
+    /*package*/ final Object key;
+    /*package*/ final BusListener listener;
+    /*package*/ final BusListenerList channelListeners;
+    /*package*/ volatile boolean subscribed = true;
+
+    /*package*/ BusSubscription(@NotNull Bus bus, @NotNull String channel, @Nullable Object key,
+                                @NotNull BusListener listener, @NotNull BusListenerList channelListeners) {
+        this.bus = bus;
+        this.channel = channel;
+        this.key = key;
+        this.listener = listener;
+        this.channelListeners = channelListeners;
+    }
+
+    /**
+     * @return the channel the listener is subscribed to.
+     */
+    @NotNull
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return the key of the channel the listener is subscribed to or null if it is subscribed to the whole channel.
+     */
+    @Nullable
+    public Object getKey() {
+        return key;
+    }
+
+    /**
+     * @return the subscribed listener.
+     */
+    @NotNull
+    public BusListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @return true until the listener is unsubscribed.
+     */
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    /**
+     * Unsubscribe the listener. Does nothing if it is already unsubscribed.
+     */
+    public void unSubscribe() {
+        synchronized (channelListeners) {
+            if (subscribed) bus.unSubscribe(this);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashed hierarchical timing wheel emitting scheduled events.
+ * - Four wheels of 256 buckets, each bucket of a wheel spanning a whole turn of the wheel below it. Events are
+ * linked into the bucket of their deadline and cascaded to lower wheels as time approaches it, so scheduling and
+ * cancelling are O(1) however many events are pending.
+ * - Scheduled and cancelled events are handed over to the wheel thread through lock-free stacks linked by the
+ * events themselves: no node is allocated per operation.
+ * - The daemon wheel thread sleeps until the next tick emitting or cascading events, so events far in the future
+ * cost no wakeups, and until something is scheduled when no events are pending.
+ * <p/>
+ * Events are emitted on the wheel thread, so listeners doing long work should hand it over to other threads.
+ */
+/*package*/ final class BusTimingWheel {
+
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickNanos;
+    private final long startNanos = System.nanoTime();
+    private final AtomicReference<BusScheduledEvent> scheduled = new AtomicReference<>();
+    private final AtomicReference<BusScheduledEvent> cancelled = new AtomicReference<>();
+    private final Logger logger = Logger.getLogger("Autobus");
+    private volatile Thread thread;
+    private volatile boolean idle;
+
+    // Only accessed by the wheel thread
+    private final BusScheduledEvent[] buckets = new BusScheduledEvent[LEVELS * WHEEL_SIZE];
+    private long tick;
+    private int size;
+
+    /**
+     * @param tickNanos resolution of the wheel, in nanoseconds.
+     */
+    /*package*/ BusTimingWheel(long tickNanos) {
+        this.tickNanos = tickNanos;
+    }
+
+    /*package*/ long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * @return System.nanoTime() of tick 0.
+     */
+    /*package*/ long getStartNanos() {
+        return startNanos;
+    }
+
+    /*package*/ void schedule(@NotNull BusScheduledEvent event) {
+        BusScheduledEvent head;
+        do {
+            head = scheduled.get();
+            event.nextScheduled = head;
+        } while (!scheduled.compareAndSet(head, event));
+        wakeUp();
+    }
+
+    /*package*/ void cancel(@NotNull BusScheduledEvent event) {
+        BusScheduledEvent head;
+        do {
+            head = cancelled.get();
+            event.nextCancelled = head;
+        } while (!cancelled.compareAndSet(head, event));
+        // Unlink it right away, as the thread may otherwise sleep until long after its deadline
+        wakeUp();
+    }
+
+    private void wakeUp() {
+        Thread wheelThread = thread;
+        if (wheelThread == null) {
+            synchronized (this) {
+                if (thread == null) {
+                    thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            BusTimingWheel.this.run();
+                        }
+                    }, "Autobus-Timer");
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+            }
+        } else if (idle) {
+            LockSupport.unpark(wheelThread);
+        }
+    }
+
+    private void run() {
+        while (true) {
+            unlinkCancelled();
+            long elapsedTicks = (System.nanoTime() - startNanos) / tickNanos;
+            linkScheduled(elapsedTicks);
+            advanceTo(elapsedTicks);
+
+            idle = true;
+            // Checked once idle, so events handed over concurrently are either seen here or unpark the thread
+            if (scheduled.get() == null && cancelled.get() == null) {
+                long nextTick = size > 0 ? getNextTick() : Long.MAX_VALUE;
+                if (nextTick == Long.MAX_VALUE) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, startNanos + nextTick * tickNanos - System.nanoTime());
+                }
+            }
+            idle = false;
+        }
+    }
+
+    private void advanceTo(long elapsedTicks) {
+        while (tick < elapsedTicks) {
+            // Nothing happens on the ticks before the next non-empty bucket: skip them
+            long nextTick = size > 0 ? getNextTick() : Long.MAX_VALUE;
+            if (nextTick > elapsedTicks) {
+                tick = elapsedTicks;
+                return;
+            }
+            tick = nextTick - 1;
+            advance();
+        }
+    }
+
+    /**
+     * Find the next tick emitting the events of a bucket of the lowest wheel or cascading those of a higher one.
+     *
+     * @return the next tick with events, or Long.MAX_VALUE if every bucket is empty.
+     */
+    private long getNextTick() {
+        long nextTick = Long.MAX_VALUE;
+        for (int ticks = 1; ticks <= WHEEL_SIZE; ticks++) {
+            if (buckets[(int) ((tick + ticks) & WHEEL_MASK)] != null) {
+                nextTick = tick + ticks;
+                break;
+            }
+        }
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            // Buckets of a wheel are cascaded when the wheel below completes a turn
+            long turnTick = ((tick >>> shift) + 1) << shift;
+            if (turnTick >= nextTick) break;
+            for (int turns = 0; turns < WHEEL_SIZE; turns++) {
+                long cascadeTick = turnTick + ((long) turns << shift);
+                if (cascadeTick >= nextTick) break;
+                if (buckets[level * WHEEL_SIZE + (int) ((cascadeTick >>> shift) & WHEEL_MASK)] != null) {
+                    nextTick = cascadeTick;
+                    break;
+                }
+            }
+        }
+        return nextTick;
+    }
+
+    private void linkScheduled(long elapsedTicks) {
+        // Reverse the stack, so events with the same deadline are emitted in the order they were scheduled
+        BusScheduledEvent event = scheduled.getAndSet(null);
+        BusScheduledEvent reversed = null;
+        long firstDeadlineTick = elapsedTicks;
+        while (event != null) {
+            BusScheduledEvent nextEvent = event.nextScheduled;
+            event.nextScheduled = reversed;
+            reversed = event;
+            firstDeadlineTick = Math.min(firstDeadlineTick, getDeadlineTick(event) - 1);
+            event = nextEvent;
+        }
+        // Nothing can expire on an empty wheel: skip the ticks it was idle for, but not the new deadlines
+        if (size == 0 && tick < firstDeadlineTick) tick = firstDeadlineTick;
+
+        event = reversed;
+        while (event != null) {
+            BusScheduledEvent nextEvent = event.nextScheduled;
+            event.nextScheduled = null;
+            // Cancelled before being linked: released with the other cancelled events
+            if (!event.isCancelled()) link(event);
+            event = nextEvent;
+        }
+    }
+
+    private void unlinkCancelled() {
+        BusScheduledEvent event = cancelled.getAndSet(null);
+        while (event != null) {
+            BusScheduledEvent nextEvent = event.nextCancelled;
+            event.nextCancelled = null;
+            if (event.bucket >= 0) unlink(event);
+            event.release();
+            event = nextEvent;
+        }
+    }
+
+    private void advance() {
+        tick++;
+        cascade(1);
+        int slot = (int) (tick & WHEEL_MASK);
+        BusScheduledEvent event = detach(slot);
+        while (event != null) {
+            BusScheduledEvent previousEvent = event.previous;
+            event.previous = null;
+            event.next = null;
+            if (!event.isCancelled()) emit(event);
+            event = previousEvent;
+        }
+    }
+
+    /**
+     * Move the events of the current bucket of a wheel to the lower wheels, when the wheel below completes a turn.
+     * Events whose deadline is the current tick are emitted right away instead.
+     */
+    private void cascade(int level) {
+        if (level >= LEVELS || (tick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) return;
+        int slot = (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        BusScheduledEvent event = detach(level * WHEEL_SIZE + slot);
+        while (event != null) {
+            BusScheduledEvent previousEvent = event.previous;
+            event.previous = null;
+            event.next = null;
+            if (getDeadlineTick(event) > tick) {
+                link(event);
+            } else if (!event.isCancelled()) {
+                emit(event);
+            }
+            event = previousEvent;
+        }
+        cascade(level + 1);
+    }
+
+    private void emit(@NotNull BusScheduledEvent event) {
+        try {
+            event.emit();
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "BUS -> Failed to emit scheduled event on channel: " + event.getChannel(), e);
+        }
+        if (event.periodNanos > 0 && !event.isCancelled()) {
+            event.deadlineNanos += event.periodNanos;
+            link(event);
+        }
+    }
+
+    private long getDeadlineTick(@NotNull BusScheduledEvent event) {
+        return (event.deadlineNanos - startNanos + tickNanos - 1) / tickNanos;
+    }
+
+    private void link(@NotNull BusScheduledEvent event) {
+        long deadlineTick = getDeadlineTick(event);
+        if (deadlineTick <= tick) deadlineTick = tick + 1;
+        long ticks = deadlineTick - tick;
+        int level = 0;
+        while (level < LEVELS - 1 && ticks >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        // Too far for the wheels: wait in the last bucket of the top wheel and link it again once cascaded
+        long position = ticks >= 1L << (WHEEL_BITS * LEVELS) ? tick + ((long) WHEEL_MASK << (WHEEL_BITS * level))
+                : deadlineTick;
+        int index = level * WHEEL_SIZE + (int) ((position >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+
+        BusScheduledEvent head = buckets[index];
+        event.bucket = index;
+        event.previous = null;
+        event.next = head;
+        if (head != null) head.previous = event;
+        buckets[index] = event;
+        size++;
+    }
+
+    private void unlink(@NotNull BusScheduledEvent event) {
+        if (event.previous != null) {
+            event.previous.next = event.next;
+        } else {
+            buckets[event.bucket] = event.next;
+        }
+        if (event.next != null) event.next.previous = event.previous;
+        event.previous = null;
+        event.next = null;
+        event.bucket = -1;
+        size--;
+    }
+
+    /**
+     * Take every event of a bucket.
+     * Events are linked at the head of their bucket, so the last one is the first that was linked.
+     *
+     * @return the last event of the bucket, linked to the rest through previous, or null if it was empty.
+     */
+    @Nullable
+    private BusScheduledEvent detach(int index) {
+        BusScheduledEvent last = null;
+        for (BusScheduledEvent event = buckets[index]; event != null; event = event.next) {
+            event.bucket = -1;
+            size--;
+            last = event;
+        }
+        buckets[index] = null;
+        return last;
+    }
+}
@@ -0,0 +1,56 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Hook to trace Bus dispatch, for example with a profiler or an event recorder.
+ * Every traced operation is bracketed by a call to begin and a call to end on the dispatching thread.
+ * <p/>
+ * Implementations should be cheap when they are not recording: return null from begin and
+ * the Bus will not call end for that operation.
+ */
+public interface BusTracer {
+
+    /**
+     * Operations traced by the Bus.
+     */
+    enum Operation {
+        /**
+         * An event emitted on a channel, including the notification of every listener.
+         */
+        EMIT,
+        /**
+         * A listener being notified of an event.
+         */
+        NOTIFY_LISTENER,
+        /**
+         * A listener's preprocessor being handed an event.
+         */
+        NOTIFY_PREPROCESSOR,
+        /**
+         * A persistent event being replayed to a listener as it subscribes to a channel.
+         */
+        PERSISTENT_REPLAY
+    }
+
+    /**
+     * Called when an operation begins.
+     *
+     * @param operation the operation being traced.
+     * @param channel   String representing the channel of the operation.
+     * @param listener  listener involved or null for EMIT operations.
+     * @param busData   data of the event or null if the event has no data.
+     * @return a trace that will be passed to end or null if the operation should not be traced.
+     */
+    @Nullable
+    Object begin(@NotNull Operation operation, @NotNull String channel,
+                 @Nullable BusListener listener, @Nullable Object busData);
+
+    /**
+     * Called when an operation ends.
+     *
+     * @param trace the non null value returned by begin for this operation.
+     */
+    void end(@NotNull Object trace);
+}
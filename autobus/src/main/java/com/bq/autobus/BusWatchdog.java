@@ -0,0 +1,352 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Detects listener invocations that run longer than a threshold.
+ * - Listeners are notified while the Bus holds the channel monitor, so a listener that hangs freezes
+ * the whole channel. The watchdog reports such invocations with the listener, the channel and the
+ * stack of the dispatching thread.
+ * - Optionally, slow listeners are quarantined: further events are delivered to them asynchronously through
+ * a quarantine executor instead of on the emitting thread. Use a single threaded executor to keep the
+ * order of the events delivered to quarantined listeners.
+ * <p/>
+ * Dispatching threads only record which listener they are notifying; a single watchdog thread scans
+ * those records periodically, so no timer is scheduled per event.
+ */
+public final class BusWatchdog {
+
+    private static final long MIN_SCAN_INTERVAL_MILLIS = 1;
+
+    private final long thresholdNanos;
+    private final long scanIntervalMillis;
+    private final ThreadLocal<Slot> slot = new ThreadLocal<>();
+    private final ConcurrentLinkedQueue<Slot> slots = new ConcurrentLinkedQueue<>();
+    private final Set<BusListener> quarantined = Collections.newSetFromMap(new ConcurrentHashMap<BusListener, Boolean>());
+
+    private volatile Reporter reporter = new LoggerReporter();
+    private volatile Executor quarantineExecutor;
+    private Thread thread;
+
+    /**
+     * Creates a new BusWatchdog.
+     *
+     * @param threshold listener invocations running longer than this are reported.
+     * @param unit      time unit of the threshold.
+     * @throws IllegalArgumentException if the threshold is not positive or unit is null.
+     */
+    public BusWatchdog(long threshold, @NotNull TimeUnit unit) {
+        if (threshold <= 0) throw new IllegalArgumentException("Threshold must be positive");
+        if (unit == null) throw new IllegalArgumentException("Time unit must not be null");
+        this.thresholdNanos = unit.toNanos(threshold);
+        this.scanIntervalMillis = Math.max(MIN_SCAN_INTERVAL_MILLIS, TimeUnit.NANOSECONDS.toMillis(thresholdNanos / 2));
+    }
+
+    /**
+     * Start scanning for slow listener invocations on a daemon thread.
+     * Does nothing if the watchdog is already running.
+     */
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        Thread.sleep(scanIntervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    scan();
+                }
+            }
+        }, "Autobus-Watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop scanning for slow listener invocations.
+     * Quarantined listeners remain quarantined.
+     */
+    public synchronized void stop() {
+        if (thread == null) return;
+        thread.interrupt();
+        thread = null;
+    }
+
+    /**
+     * @return true if the watchdog is scanning for slow listener invocations.
+     */
+    public synchronized boolean isRunning() {
+        return thread != null;
+    }
+
+    /**
+     * Sets the reporter notified of slow listener invocations.
+     * By default slow invocations are logged as warnings.
+     *
+     * @param reporter Reporter to notify.
+     * @throws IllegalArgumentException if reporter is null.
+     */
+    public void setReporter(@NotNull Reporter reporter) {
+        if (reporter == null) throw new IllegalArgumentException("Reporter must not be null");
+        this.reporter = reporter;
+    }
+
+    /**
+     * Sets the executor used to deliver events to quarantined listeners.
+     *
+     * @param quarantineExecutor Executor for quarantined listeners or null to disable quarantine.
+     *                           Disabling quarantine releases every quarantined listener.
+     */
+    public void setQuarantineExecutor(@Nullable Executor quarantineExecutor) {
+        this.quarantineExecutor = quarantineExecutor;
+        if (quarantineExecutor == null) quarantined.clear();
+    }
+
+    /**
+     * Check whether a listener is quarantined.
+     *
+     * @param listener BusListener being inspected.
+     * @return true if events are being delivered asynchronously to the listener.
+     */
+    public boolean isQuarantined(@NotNull BusListener listener) {
+        return !quarantined.isEmpty() && quarantined.contains(listener);
+    }
+
+    /**
+     * Release a quarantined listener so events are delivered to it on the emitting thread again.
+     *
+     * @param listener BusListener being released.
+     */
+    public void release(@NotNull BusListener listener) {
+        quarantined.remove(listener);
+    }
+
+    /**
+     * Get the executor events should be delivered through for a listener.
+     *
+     * @param listener BusListener about to be notified.
+     * @return the quarantine executor if the listener is quarantined, null otherwise.
+     */
+    @Nullable
+    /*package*/ Executor getQuarantineExecutor(@NotNull BusListener listener) {
+        Executor executor = quarantineExecutor;
+        return executor != null && isQuarantined(listener) ? executor : null;
+    }
+
+    /**
+     * Get the invocation record of the current thread.
+     *
+     * @return Slot of the current thread.
+     */
+    @NotNull
+    /*package*/ Slot getSlot() {
+        Slot threadSlot = slot.get();
+        if (threadSlot == null) {
+            threadSlot = new Slot(Thread.currentThread());
+            slot.set(threadSlot);
+            slots.add(threadSlot);
+        }
+        return threadSlot;
+    }
+
+    /**
+     * Report and quarantine every listener invocation running longer than the threshold.
+     */
+    /*package*/ void scan() {
+        long now = System.nanoTime();
+        Iterator<Slot> iterator = slots.iterator();
+        while (iterator.hasNext()) {
+            Slot threadSlot = iterator.next();
+            if (!threadSlot.thread.isAlive()) {
+                iterator.remove();
+                continue;
+            }
+
+            // Find the innermost slow invocation: it is the one actually blocking the thread.
+            int depth = threadSlot.depth;
+            Slot.Invocation[] invocations = threadSlot.invocations;
+            for (int i = Math.min(depth, invocations.length) - 1; i >= 0; i--) {
+                Slot.Invocation invocation = invocations[i];
+                BusListener listener = invocation.listener;
+                String channel = invocation.channel;
+                long startNanos = invocation.startNanos;
+                if (listener == null || now - startNanos < thresholdNanos) continue;
+
+                // Report each invocation once
+                if (invocation.reportedStartNanos == startNanos) break;
+                StackTraceElement[] stackTrace = threadSlot.thread.getStackTrace();
+                // Check the invocation did not finish while the stack was being captured
+                if (threadSlot.depth <= i || invocation.listener != listener || invocation.startNanos != startNanos) break;
+                invocation.reportedStartNanos = startNanos;
+
+                if (quarantineExecutor != null) quarantined.add(listener);
+                reporter.onSlowInvocation(new SlowInvocation(channel, listener, threadSlot.thread,
+                        now - startNanos, stackTrace));
+                break;
+            }
+        }
+    }
+
+    /**
+     * Callback notified of slow listener invocations, on the watchdog thread.
+     */
+    public interface Reporter {
+        void onSlowInvocation(@NotNull SlowInvocation slowInvocation);
+    }
+
+    /**
+     * A listener invocation that has been running longer than the threshold.
+     */
+    public static final class SlowInvocation {
+
+        private final String channel;
+        private final BusListener listener;
+        private final Thread thread;
+        private final long elapsedNanos;
+        private final StackTraceElement[] stackTrace;
+
+        private SlowInvocation(@NotNull String channel, @NotNull BusListener listener, @NotNull Thread thread,
+                               long elapsedNanos, @NotNull StackTraceElement[] stackTrace) {
+            this.channel = channel;
+            this.listener = listener;
+            this.thread = thread;
+            this.elapsedNanos = elapsedNanos;
+            this.stackTrace = stackTrace;
+        }
+
+        /**
+         * @return the channel of the event being notified.
+         */
+        @NotNull
+        public String getChannel() {
+            return channel;
+        }
+
+        /**
+         * @return the listener being notified.
+         */
+        @NotNull
+        public BusListener getListener() {
+            return listener;
+        }
+
+        /**
+         * @return the thread notifying the listener.
+         */
+        @NotNull
+        public Thread getThread() {
+            return thread;
+        }
+
+        /**
+         * @return time the invocation had been running for when it was detected, in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return stack trace of the thread notifying the listener when the invocation was detected.
+         */
+        @NotNull
+        public StackTraceElement[] getStackTrace() {
+            return stackTrace.clone();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder description = new StringBuilder("Listener ")
+                    .append(listener.getClass().getName())
+                    .append(" has been running for ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                    .append(" ms on channel: ")
+                    .append(channel)
+                    .append(" (thread ")
+                    .append(thread.getName())
+                    .append(")");
+            for (StackTraceElement element : stackTrace) {
+                description.append("\n\tat ").append(element);
+            }
+            return description.toString();
+        }
+    }
+
+    /**
+     * Listener invocations in progress on a dispatching thread. Only written by its thread; read by the
+     * watchdog thread. Invocations are stacked because listeners may emit events themselves.
+     */
+    /*package*/ static final class Slot {
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        private final Thread thread;
+        private volatile Invocation[] invocations;
+        private volatile int depth;
+
+        private Slot(@NotNull Thread thread) {
+            this.thread = thread;
+            Invocation[] initialInvocations = new Invocation[INITIAL_CAPACITY];
+            for (int i = 0; i < INITIAL_CAPACITY; i++) {
+                initialInvocations[i] = new Invocation();
+            }
+            this.invocations = initialInvocations;
+        }
+
+        /*package*/ void begin(@NotNull String channel, @NotNull BusListener listener) {
+            int index = depth;
+            Invocation[] current = invocations;
+            if (index == current.length) {
+                Invocation[] grown = new Invocation[current.length * 2];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                for (int i = current.length; i < grown.length; i++) {
+                    grown[i] = new Invocation();
+                }
+                invocations = grown;
+                current = grown;
+            }
+            // The volatile write of the listener publishes the channel and the start time
+            Invocation invocation = current[index];
+            invocation.startNanos = System.nanoTime();
+            invocation.channel = channel;
+            invocation.listener = listener;
+            depth = index + 1;
+        }
+
+        /*package*/ void end() {
+            Invocation invocation = invocations[depth - 1];
+            invocation.listener = null;
+            depth = depth - 1;
+        }
+
+        private static final class Invocation {
+            private volatile BusListener listener;
+            private String channel;
+            private long startNanos;
+            private long reportedStartNanos;
+        }
+    }
+
+    private static final class LoggerReporter implements Reporter {
+
+        private final Logger logger = Logger.getLogger("Autobus");
+
+        @Override
+        public void onSlowInvocation(@NotNull SlowInvocation slowInvocation) {
+            logger.log(Level.WARNING, "BUS -> Slow listener detected. " + slowInvocation);
+        }
+    }
+}
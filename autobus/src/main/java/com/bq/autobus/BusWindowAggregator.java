@@ -0,0 +1,224 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener aggregating the events of a channel over time windows and emitting the result of each window to
+ * an output channel, for example the number of location updates per minute.
+ * - Tumbling windows do not overlap: the result of each window is emitted when it ends.
+ * - Sliding windows span several panes of the slide length: the result of the last panes is emitted every slide.
+ * <p/>
+ * Events are aggregated incrementally: each event is combined into the accumulator of the current pane, and
+ * window results are combined from pane accumulators kept in two stacks, so every event and every slide costs
+ * O(1) combinations in amortized time, without rescanning the window or inverting the aggregation.
+ * <p/>
+ * Panes are closed by the timing wheel of delayed events, so results are emitted on its thread, aligned to the
+ * first event of the window. Windows without events are not emitted: once a whole window is empty the
+ * aggregator stops ticking until the next event.
+ *
+ * @param <T> class of the data of the aggregated events.
+ * @param <A> class of the accumulators, emitted as results.
+ * @see BusAggregation
+ */
+public final class BusWindowAggregator<T, A> extends BusListener<T> {
+
+    /**
+     * Maximum number of panes of a sliding window.
+     */
+    public static final int MAX_PANES = 1 << 16;
+
+    private final Bus bus;
+    private final String outputChannel;
+    private final BusAggregation<? super T, A> aggregation;
+    private final long paneNanos;
+    private final int windowPanes;
+
+    // Guarded by this
+    private A pane;
+    // Closed panes, oldest first, and their aggregate
+    private final Object[] backPanes;
+    private int backSize;
+    private A backAggregate;
+    // Aggregates of the older closed panes: each one aggregates its pane and every newer pane of the stack
+    private final Object[] frontAggregates;
+    private int frontSize;
+    private BusScheduledEvent ticker;
+    private int tickerGeneration;
+
+    private BusWindowAggregator(@NotNull Bus bus, @NotNull String outputChannel, @NotNull Class<T> dataClass,
+                                @NotNull BusAggregation<? super T, A> aggregation, long paneNanos, int windowPanes) {
+        super(dataClass);
+        this.bus = bus;
+        this.outputChannel = outputChannel;
+        this.aggregation = aggregation;
+        this.paneNanos = paneNanos;
+        this.windowPanes = windowPanes;
+        this.backPanes = new Object[windowPanes + 1];
+        this.frontAggregates = new Object[windowPanes + 1];
+    }
+
+    /**
+     * Creates a new aggregator of tumbling windows.
+     * Subscribe it to the channels whose events should be aggregated.
+     *
+     * @param bus           Bus the results are emitted on.
+     * @param outputChannel String representing the channel the results are emitted to.
+     * @param dataClass     Class of the data of the aggregated events.
+     * @param aggregation   BusAggregation of the data of the events.
+     * @param size          length of the windows.
+     * @param unit          time unit of the length.
+     * @return new BusWindowAggregator.
+     * @throws IllegalArgumentException if bus, outputChannel, dataClass, aggregation or unit are null or size is
+     *                                  not positive.
+     */
+    @NotNull
+    public static <T, A> BusWindowAggregator<T, A> tumbling(@NotNull Bus bus, @NotNull String outputChannel,
+                                                            @NotNull Class<T> dataClass,
+                                                            @NotNull BusAggregation<? super T, A> aggregation,
+                                                            long size, @NotNull TimeUnit unit) {
+        return sliding(bus, outputChannel, dataClass, aggregation, size, size, unit);
+    }
+
+    /**
+     * Creates a new aggregator of sliding windows.
+     * Subscribe it to the channels whose events should be aggregated.
+     *
+     * @param bus           Bus the results are emitted on.
+     * @param outputChannel String representing the channel the results are emitted to.
+     * @param dataClass     Class of the data of the aggregated events.
+     * @param aggregation   BusAggregation of the data of the events.
+     * @param size          length of the windows, a multiple of the slide.
+     * @param slide         time between results.
+     * @param unit          time unit of the length and the slide.
+     * @return new BusWindowAggregator.
+     * @throws IllegalArgumentException if bus, outputChannel, dataClass, aggregation or unit are null, slide is
+     *                                  not positive or size is not a multiple of slide of at most MAX_PANES slides.
+     */
+    @NotNull
+    public static <T, A> BusWindowAggregator<T, A> sliding(@NotNull Bus bus, @NotNull String outputChannel,
+                                                           @NotNull Class<T> dataClass,
+                                                           @NotNull BusAggregation<? super T, A> aggregation,
+                                                           long size, long slide, @NotNull TimeUnit unit) {
+        if (bus == null) throw new IllegalArgumentException("Bus must not be null");
+        if (outputChannel == null) throw new IllegalArgumentException("Output channel must not be null");
+        if (dataClass == null) throw new IllegalArgumentException("Data class must not be null");
+        if (aggregation == null) throw new IllegalArgumentException("Aggregation must not be null");
+        if (unit == null) throw new IllegalArgumentException("Time unit must not be null");
+        if (slide <= 0) throw new IllegalArgumentException("Slide must be positive");
+        if (size < slide || size % slide != 0) throw new IllegalArgumentException("Size must be a multiple of the slide");
+        if (size / slide > MAX_PANES) throw new IllegalArgumentException("Size must be at most " + MAX_PANES + " slides");
+        return new BusWindowAggregator<>(bus, outputChannel, dataClass, aggregation, unit.toNanos(slide),
+                (int) (size / slide));
+    }
+
+    @Override
+    public void notifyEvent(@NotNull T busData) {
+        A accumulator = aggregation.lift(busData);
+        synchronized (this) {
+            pane = pane != null ? aggregation.combine(pane, accumulator) : accumulator;
+            if (ticker == null) {
+                final int generation = ++tickerGeneration;
+                ticker = bus.scheduleTask(outputChannel, new Runnable() {
+                    @Override
+                    public void run() {
+                        closePane(generation);
+                    }
+                }, paneNanos);
+            }
+        }
+    }
+
+    /**
+     * Stop aggregating, dropping the events of the current window without emitting its result.
+     * Later events start a new window.
+     */
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.cancel();
+            ticker = null;
+        }
+        clear();
+    }
+
+    private void closePane(int generation) {
+        synchronized (this) {
+            // Skip ticks of a ticker stopped while they were running
+            if (generation != tickerGeneration || ticker == null) return;
+        }
+        closePane();
+    }
+
+    /**
+     * Close the current pane and emit the result of the window ending with it.
+     */
+    /*package*/ void closePane() {
+        A result;
+        synchronized (this) {
+            push(pane);
+            pane = null;
+            if (backSize + frontSize > windowPanes) pop();
+            result = combine(frontSize > 0 ? getFrontAggregate() : null, backAggregate);
+            if (result == null) {
+                // The whole window is empty: tick again once there are new events
+                if (ticker != null) ticker.cancel();
+                ticker = null;
+                clear();
+                return;
+            }
+        }
+        bus.emitEvent(outputChannel, result);
+    }
+
+    private void push(@Nullable A closedPane) {
+        backPanes[backSize++] = closedPane;
+        backAggregate = combine(backAggregate, closedPane);
+    }
+
+    /**
+     * Drop the oldest closed pane, moving the back stack to the front one if it is empty.
+     */
+    @SuppressWarnings("unchecked")
+    private void pop() {
+        if (frontSize == 0) {
+            // Newest panes go to the bottom, so the oldest one ends on top
+            A aggregate = null;
+            for (int i = backSize - 1; i >= 0; i--) {
+                aggregate = combine((A) backPanes[i], aggregate);
+                frontAggregates[frontSize++] = aggregate;
+                backPanes[i] = null;
+            }
+            backSize = 0;
+            backAggregate = null;
+        }
+        frontAggregates[--frontSize] = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private A getFrontAggregate() {
+        return (A) frontAggregates[frontSize - 1];
+    }
+
+    @Nullable
+    private A combine(@Nullable A older, @Nullable A newer) {
+        if (older == null) return newer;
+        if (newer == null) return older;
+        return aggregation.combine(older, newer);
+    }
+
+    private void clear() {
+        pane = null;
+        for (int i = 0; i < backSize; i++) {
+            backPanes[i] = null;
+        }
+        for (int i = 0; i < frontSize; i++) {
+            frontAggregates[i] = null;
+        }
+        backSize = 0;
+        frontSize = 0;
+        backAggregate = null;
+    }
+}
@@ -0,0 +1,115 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Count, sum, minimum and maximum of the values of the events of a window.
+ * Immutable; aggregated with {@link #of(ValueExtractor)} or {@link #counting()}.
+ */
+public final class BusWindowStats {
+
+    private static final BusAggregation<Object, BusWindowStats> COUNTING =
+            of(new ValueExtractor<Object>() {
+                @Override
+                public double getValue(@NotNull Object busData) {
+                    return 1;
+                }
+            });
+
+    private final long count;
+    private final double sum;
+    private final double min;
+    private final double max;
+
+    private BusWindowStats(long count, double sum, double min, double max) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Get an aggregation of the stats of the values extracted from the data of the events.
+     *
+     * @param extractor ValueExtractor getting the value of the data of an event.
+     * @return BusAggregation of BusWindowStats.
+     * @throws IllegalArgumentException if extractor is null.
+     */
+    @NotNull
+    public static <T> BusAggregation<T, BusWindowStats> of(@NotNull final ValueExtractor<? super T> extractor) {
+        if (extractor == null) throw new IllegalArgumentException("Extractor must not be null");
+        return new BusAggregation<T, BusWindowStats>() {
+            @NotNull
+            @Override
+            public BusWindowStats lift(@NotNull T busData) {
+                double value = extractor.getValue(busData);
+                return new BusWindowStats(1, value, value, value);
+            }
+
+            @NotNull
+            @Override
+            public BusWindowStats combine(@NotNull BusWindowStats older, @NotNull BusWindowStats newer) {
+                return new BusWindowStats(older.count + newer.count, older.sum + newer.sum,
+                        Math.min(older.min, newer.min), Math.max(older.max, newer.max));
+            }
+        };
+    }
+
+    /**
+     * Get an aggregation counting events of any data, every event having a value of 1.
+     *
+     * @return BusAggregation of BusWindowStats.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static <T> BusAggregation<T, BusWindowStats> counting() {
+        return (BusAggregation<T, BusWindowStats>) (BusAggregation<?, BusWindowStats>) COUNTING;
+    }
+
+    /**
+     * @return number of events of the window.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return sum of the values of the window.
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return minimum value of the window.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return maximum value of the window.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return average value of the window.
+     */
+    public double getAverage() {
+        return sum / count;
+    }
+
+    @Override
+    public String toString() {
+        return "BusWindowStats{count=" + count + ", sum=" + sum + ", min=" + min + ", max=" + max + "}";
+    }
+
+    /**
+     * Gets the value of the data of an event.
+     */
+    public interface ValueExtractor<T> {
+        double getValue(@NotNull T busData);
+    }
+}
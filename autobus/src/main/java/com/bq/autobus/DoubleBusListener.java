@@ -0,0 +1,42 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents a listener that can be subscribed to a Bus channel expecting double values.
+ * Values emitted with {@link Bus#emitEvent(String, double)} are delivered without boxing, unless the listener
+ * has a preprocessor. Double data emitted on the channel is unboxed and delivered as well.
+ */
+public abstract class DoubleBusListener extends BusListener<Double> {
+
+    /**
+     * Creates a BusListener that expects double values.
+     */
+    public DoubleBusListener() {
+        this(null);
+    }
+
+    /**
+     * Creates a BusListener that expects double values with a Preprocessor.
+     * Preprocessors are handed boxed values.
+     *
+     * @param preprocessor Set a preprocessor to intercept every event notification.
+     *                     Useful, for example, when you need to execute listeners on the main thread.
+     */
+    public DoubleBusListener(@Nullable Preprocessor<Double> preprocessor) {
+        super(Double.class, preprocessor);
+    }
+
+    /**
+     * Callback executed when a double value is emitted to the bus channel this listener is subscribed to.
+     *
+     * @param busData value emitted.
+     */
+    public abstract void notifyEvent(double busData);
+
+    @Override
+    public final void notifyEvent(@NotNull Double busData) {
+        notifyEvent(busData.doubleValue());
+    }
+}
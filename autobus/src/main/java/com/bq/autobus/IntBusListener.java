@@ -0,0 +1,42 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents a listener that can be subscribed to a Bus channel expecting int values.
+ * Values emitted with {@link Bus#emitEvent(String, int)} are delivered without boxing, unless the listener
+ * has a preprocessor. Integer data emitted on the channel is unboxed and delivered as well.
+ */
+public abstract class IntBusListener extends BusListener<Integer> {
+
+    /**
+     * Creates a BusListener that expects int values.
+     */
+    public IntBusListener() {
+        this(null);
+    }
+
+    /**
+     * Creates a BusListener that expects int values with a Preprocessor.
+     * Preprocessors are handed boxed values.
+     *
+     * @param preprocessor Set a preprocessor to intercept every event notification.
+     *                     Useful, for example, when you need to execute listeners on the main thread.
+     */
+    public IntBusListener(@Nullable Preprocessor<Integer> preprocessor) {
+        super(Integer.class, preprocessor);
+    }
+
+    /**
+     * Callback executed when a int value is emitted to the bus channel this listener is subscribed to.
+     *
+     * @param busData value emitted.
+     */
+    public abstract void notifyEvent(int busData);
+
+    @Override
+    public final void notifyEvent(@NotNull Integer busData) {
+        notifyEvent(busData.intValue());
+    }
+}
@@ -0,0 +1,42 @@
+package com.bq.autobus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents a listener that can be subscribed to a Bus channel expecting long values.
+ * Values emitted with {@link Bus#emitEvent(String, long)} are delivered without boxing, unless the listener
+ * has a preprocessor. Long data emitted on the channel is unboxed and delivered as well.
+ */
+public abstract class LongBusListener extends BusListener<Long> {
+
+    /**
+     * Creates a BusListener that expects long values.
+     */
+    public LongBusListener() {
+        this(null);
+    }
+
+    /**
+     * Creates a BusListener that expects long values with a Preprocessor.
+     * Preprocessors are handed boxed values.
+     *
+     * @param preprocessor Set a preprocessor to intercept every event notification.
+     *                     Useful, for example, when you need to execute listeners on the main thread.
+     */
+    public LongBusListener(@Nullable Preprocessor<Long> preprocessor) {
+        super(Long.class, preprocessor);
+    }
+
+    /**
+     * Callback executed when a long value is emitted to the bus channel this listener is subscribed to.
+     *
+     * @param busData value emitted.
+     */
+    public abstract void notifyEvent(long busData);
+
+    @Override
+    public final void notifyEvent(@NotNull Long busData) {
+        notifyEvent(busData.longValue());
+    }
+}
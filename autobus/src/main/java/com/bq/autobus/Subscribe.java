@@ -0,0 +1,34 @@
+package com.bq.autobus;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method to be notified of the events emitted on a Bus channel.
+ * - A method with one parameter is notified of events containing data of exactly the parameter class,
+ * or of any data (null included) if the parameter is an Object.
+ * - A method without parameters is notified of every event emitted on the channel.
+ * <p/>
+ * The autobus-compiler annotation processor generates, for every class declaring annotated methods,
+ * a class named after it with the "_BusBinding" suffix that subscribes and unsubscribes all of them at once,
+ * without any runtime reflection:
+ * <pre>
+ * {@literal @}Subscribe(BusChannels.LOCATION_CHANGED_BUS_CHANNEL)
+ * void onLocationChanged(LocationChangedBusData location) { ... }
+ *
+ * LocationHistoryFragment_BusBinding binding = new LocationHistoryFragment_BusBinding(this);
+ * binding.subscribe(bus);
+ * </pre>
+ * Annotated methods must not be private nor static.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface Subscribe {
+
+    /**
+     * @return the channel the method is subscribed to.
+     */
+    String value();
+}
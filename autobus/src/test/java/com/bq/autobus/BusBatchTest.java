@@ -0,0 +1,155 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BusBatchTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private static final String OTHER_CHANNEL = "OTHER_CHANNEL";
+    private Bus bus;
+    private List<String> notifications;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        notifications = new ArrayList<>();
+        bus.subscribe(TEST_CHANNEL, new RecordingListener(TEST_CHANNEL));
+        bus.subscribe(OTHER_CHANNEL, new RecordingListener(OTHER_CHANNEL));
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+        notifications = null;
+    }
+
+    public void testCommitNotifiesEveryEvent() throws Exception {
+        BusBatch batch = bus.beginBatch();
+        bus.emitEvent(TEST_CHANNEL, "1");
+        bus.emitEvent(OTHER_CHANNEL, "2");
+        bus.emitPersistentEvent(TEST_CHANNEL, "3");
+        bus.emitEvent(TEST_CHANNEL, 4);
+
+        assertTrue("Events should not be notified before committing.", notifications.isEmpty());
+        assertFalse("Persistent event should not be kept before committing.", bus.hasPersistent(TEST_CHANNEL));
+        assertEquals("Every event should be buffered.", 4, batch.size());
+
+        batch.commit();
+
+        assertFalse("Batch should be closed.", batch.isOpen());
+        assertEquals("Events should be notified grouped by channel, in order.",
+                "[TEST_CHANNEL:1, TEST_CHANNEL:3, TEST_CHANNEL:4, OTHER_CHANNEL:2]", notifications.toString());
+        assertEquals("Persistent event should be kept once committed.",
+                "3", bus.getPersistent(TEST_CHANNEL, String.class));
+
+        bus.emitEvent(TEST_CHANNEL, "5");
+        assertEquals("Events emitted after committing should be notified right away.", 5, notifications.size());
+    }
+
+    public void testDiscard() throws Exception {
+        BusBatch batch = bus.beginBatch();
+        bus.emitEvent(TEST_CHANNEL, "1");
+        bus.emitPersistentEvent(OTHER_CHANNEL, "2");
+
+        batch.discard();
+
+        assertTrue("Discarded events should not be notified.", notifications.isEmpty());
+        assertFalse("Discarded persistent event should not be kept.", bus.hasPersistent(OTHER_CHANNEL));
+        bus.emitEvent(TEST_CHANNEL, "3");
+        assertEquals("Events emitted after discarding should be notified right away.",
+                "[TEST_CHANNEL:3]", notifications.toString());
+    }
+
+    public void testOtherThreadsAreNotBuffered() throws Exception {
+        BusBatch batch = bus.beginBatch();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                bus.emitEvent(TEST_CHANNEL, "other thread");
+            }
+        });
+        thread.start();
+        thread.join(5000);
+
+        assertEquals("Events emitted by other threads should be notified right away.",
+                "[TEST_CHANNEL:other thread]", notifications.toString());
+        batch.discard();
+    }
+
+    public void testListenerExceptionDoesNotDropTheBatch() throws Exception {
+        bus.subscribe(TEST_CHANNEL, new BusListener<String>(String.class) {
+            @Override
+            public void notifyEvent(@NotNull String busData) {
+                if (busData.equals("1")) throw new IllegalStateException("Listener failure");
+            }
+        });
+        BusBatch batch = bus.beginBatch();
+        bus.emitEvent(TEST_CHANNEL, "1");
+        bus.emitEvent(TEST_CHANNEL, "2");
+        bus.emitEvent(OTHER_CHANNEL, "3");
+
+        try {
+            batch.commit();
+            fail("Listener exception should reach the committer.");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        assertEquals("Remaining events should be notified.",
+                "[TEST_CHANNEL:1, TEST_CHANNEL:2, OTHER_CHANNEL:3]", notifications.toString());
+    }
+
+    public void testInvalidUse() throws Exception {
+        final BusBatch batch = bus.beginBatch();
+        try {
+            bus.beginBatch();
+            fail("A thread should not open two batches on a bus.");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        final boolean[] rejected = new boolean[1];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    batch.commit();
+                } catch (IllegalStateException e) {
+                    rejected[0] = true;
+                }
+            }
+        });
+        thread.start();
+        thread.join(5000);
+        assertTrue("Batch should not be committed from another thread.", rejected[0]);
+
+        batch.commit();
+        try {
+            batch.discard();
+            fail("Batch should not be closed twice.");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    private final class RecordingListener extends BusAnyDataListener {
+
+        private final String channel;
+
+        private RecordingListener(@NotNull String channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void notifyEvent(@NotNull Object busData) {
+            notifications.add(channel + ":" + busData);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BusCombineLatestTest extends TestCase {
+
+    private static final String LOCATION_CHANNEL = "LOCATION_CHANNEL";
+    private static final String SETTINGS_CHANNEL = "SETTINGS_CHANNEL";
+    private static final String SESSION_CHANNEL = "SESSION_CHANNEL";
+    private static final String OUTPUT_CHANNEL = "OUTPUT_CHANNEL";
+    private Bus bus;
+    private List<BusCombined> combinations;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        combinations = new ArrayList<>();
+        bus.subscribe(OUTPUT_CHANNEL, new BusListener<BusCombined>(BusCombined.class) {
+            @Override
+            public void notifyEvent(@NotNull BusCombined busData) {
+                combinations.add(busData);
+            }
+        });
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+        combinations = null;
+    }
+
+    public void testCombinationIsEmittedOnceEveryInputIsSeen() throws Exception {
+        bus.combineLatest(OUTPUT_CHANNEL, LOCATION_CHANNEL, SETTINGS_CHANNEL, SESSION_CHANNEL);
+
+        bus.emitEvent(LOCATION_CHANNEL, "home");
+        bus.emitEvent(SETTINGS_CHANNEL, 1);
+        assertTrue("Nothing should be combined until every input is seen.", combinations.isEmpty());
+
+        bus.emitEvent(SESSION_CHANNEL);
+        bus.emitEvent(LOCATION_CHANNEL, "work");
+
+        assertEquals("A combination should be emitted on every input change.", 2, combinations.size());
+        BusCombined combined = combinations.get(1);
+        assertEquals("Combination should keep the order of the inputs.", LOCATION_CHANNEL, combined.getChannel(0));
+        assertEquals("Combination should hold the latest data.", "work", combined.get(LOCATION_CHANNEL, String.class));
+        assertEquals("Combination should hold the latest data.", Integer.valueOf(1), combined.get(1));
+        assertNull("Events without data should be combined as null.", combined.get(SESSION_CHANNEL, Object.class));
+        assertEquals("Previous combination should not change.", "home", combinations.get(0).get(0));
+        assertSame("Combination should be persistent.",
+                combined, bus.getPersistent(OUTPUT_CHANNEL, BusCombined.class));
+    }
+
+    public void testInputsAreSeededFromPersistentEvents() throws Exception {
+        bus.emitPersistentEvent(LOCATION_CHANNEL, "home");
+        bus.emitPersistentEvent(SETTINGS_CHANNEL, 1);
+
+        BusCompositeSubscription subscription = bus.combineLatest(OUTPUT_CHANNEL, LOCATION_CHANNEL, SETTINGS_CHANNEL);
+
+        assertEquals("Seeded inputs should be combined once.", 1, combinations.size());
+        assertEquals("Combination should hold the persistent data.",
+                "BusCombined{LOCATION_CHANNEL=home, SETTINGS_CHANNEL=1}", combinations.get(0).toString());
+
+        subscription.dispose();
+        bus.emitEvent(LOCATION_CHANNEL, "work");
+        assertEquals("Nothing should be combined once disposed.", 1, combinations.size());
+    }
+
+    public void testUnchangedInputsAreNotCombined() throws Exception {
+        bus.combineLatest(OUTPUT_CHANNEL, LOCATION_CHANNEL, SETTINGS_CHANNEL);
+
+        bus.emitEvent(LOCATION_CHANNEL, "home");
+        bus.emitEvent(SETTINGS_CHANNEL, 1);
+        bus.emitEvent(SETTINGS_CHANNEL, 1);
+        bus.emitEvent(LOCATION_CHANNEL, "home");
+        bus.emitEvent(SETTINGS_CHANNEL, 2);
+
+        assertEquals("Only input changes should be combined.", 2, combinations.size());
+        assertEquals("Combination should hold the changed data.", Integer.valueOf(2), combinations.get(1).get(1));
+    }
+
+    public void testFailedSeedUnsubscribesInputs() throws Exception {
+        final int[] notifications = new int[1];
+        bus.subscribe(OUTPUT_CHANNEL, new BusAnyDataListener() {
+            @Override
+            public void notifyEvent(@Nullable Object busData) {
+                notifications[0]++;
+                throw new IllegalStateException("Output failure");
+            }
+        });
+        bus.emitPersistentEvent(LOCATION_CHANNEL, "home");
+        bus.emitPersistentEvent(SETTINGS_CHANNEL, 1);
+
+        try {
+            bus.combineLatest(OUTPUT_CHANNEL, LOCATION_CHANNEL, SETTINGS_CHANNEL);
+            fail("Output failure should reach the caller.");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        assertEquals("Seeded combination should be emitted once.", 1, notifications[0]);
+
+        bus.emitEvent(LOCATION_CHANNEL, "work");
+        bus.emitEvent(SETTINGS_CHANNEL, 2);
+        assertEquals("Inputs should be unsubscribed.", 1, notifications[0]);
+    }
+
+    public void testUnchangedCombinationsCanBeSuppressed() throws Exception {
+        bus.setDistinctPersistent(OUTPUT_CHANNEL, BusEquivalence.EQUALS);
+        bus.combineLatest(OUTPUT_CHANNEL, LOCATION_CHANNEL, SETTINGS_CHANNEL);
+
+        bus.emitEvent(LOCATION_CHANNEL, "home");
+        bus.emitEvent(SETTINGS_CHANNEL, 1);
+        bus.emitEvent(SETTINGS_CHANNEL, 1);
+        bus.emitEvent(SETTINGS_CHANNEL, 2);
+
+        assertEquals("Equal combinations should be suppressed.", 2, combinations.size());
+    }
+
+    public void testInvalidParameters() throws Exception {
+        try {
+            bus.combineLatest(OUTPUT_CHANNEL);
+            fail("Input channels should not be empty.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            bus.combineLatest(OUTPUT_CHANNEL, LOCATION_CHANNEL, LOCATION_CHANNEL);
+            fail("Input channels should not be repeated.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            bus.combineLatest(OUTPUT_CHANNEL, LOCATION_CHANNEL, OUTPUT_CHANNEL);
+            fail("Output channel should not be an input.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BusDataPoolTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private Bus bus;
+    private BusDataPool<PooledStub> pool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        pool = new BusDataPool<>(new BusDataPool.Factory<PooledStub>() {
+            @NotNull
+            @Override
+            public PooledStub create() {
+                return new PooledStub();
+            }
+        });
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+        pool = null;
+    }
+
+    public void testDataIsRecycledAfterDispatch() throws Exception {
+        final List<Integer> values = new ArrayList<>();
+        bus.subscribe(TEST_CHANNEL, new PooledStubListener() {
+            @Override
+            public void notifyEvent(@NotNull PooledStub busData) {
+                values.add(busData.value);
+            }
+        });
+
+        for (int i = 0; i < 10; i++) {
+            PooledStub data = pool.obtain();
+            data.value = i;
+            bus.emitEvent(TEST_CHANNEL, data);
+            assertEquals("Data should be recycled after the emission.", 0, data.getReferenceCount());
+            assertEquals("Recycled data should be reset.", -1, data.value);
+        }
+
+        assertEquals("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", values.toString());
+        assertEquals("A single data object should be created.", 1, pool.getCreatedCount());
+    }
+
+    public void testRetainedDataIsNotRecycled() throws Exception {
+        final List<PooledStub> retained = new ArrayList<>();
+        bus.subscribe(TEST_CHANNEL, new PooledStubListener() {
+            @Override
+            public void notifyEvent(@NotNull PooledStub busData) {
+                busData.retain();
+                retained.add(busData);
+            }
+        });
+
+        PooledStub data = pool.obtain();
+        bus.emitEvent(TEST_CHANNEL, data);
+        assertEquals("Retained data should not be recycled.", 1, data.getReferenceCount());
+        assertNotSame("Retained data should not be reused.", data, pool.obtain());
+
+        retained.get(0).release();
+        assertEquals("Released data should be recycled.", 0, data.getReferenceCount());
+        assertSame("Recycled data should be reused.", data, pool.obtain());
+    }
+
+    public void testPersistentDataIsRetainedUntilReplaced() throws Exception {
+        PooledStub first = pool.obtain();
+        first.value = 1;
+        bus.emitPersistentEvent(TEST_CHANNEL, first);
+        assertEquals("Persistent data should be retained.", 1, first.getReferenceCount());
+
+        final List<Integer> values = new ArrayList<>();
+        bus.subscribe(TEST_CHANNEL, new PooledStubListener() {
+            @Override
+            public void notifyEvent(@NotNull PooledStub busData) {
+                values.add(busData.value);
+            }
+        });
+        assertEquals("Persistent data should be replayed.", "[1]", values.toString());
+
+        PooledStub second = pool.obtain();
+        second.value = 2;
+        bus.emitPersistentEvent(TEST_CHANNEL, second);
+        assertEquals("Replaced persistent data should be recycled.", 0, first.getReferenceCount());
+        assertEquals("New persistent data should be retained.", 1, second.getReferenceCount());
+
+        bus.emitPersistentEvent(TEST_CHANNEL);
+        assertEquals("Replaced persistent data should be recycled.", 0, second.getReferenceCount());
+    }
+
+    public void testPreprocessorOwnsAReference() throws Exception {
+        final List<PooledStub> pending = new ArrayList<>();
+        bus.subscribe(TEST_CHANNEL, new BusListener<PooledStub>(PooledStub.class, new BusListener.Preprocessor<PooledStub>() {
+            @Override
+            public void notifyEvent(@NotNull BusListener<PooledStub> listener, @NotNull PooledStub busData) {
+                // Deliver later
+                pending.add(busData);
+            }
+        }) {
+            @Override
+            public void notifyEvent(@NotNull PooledStub busData) {
+                assertTrue("Data should not be recycled while being delivered.", busData.getReferenceCount() > 0);
+            }
+        });
+
+        PooledStub data = pool.obtain();
+        bus.emitEvent(TEST_CHANNEL, data);
+        assertEquals("Preprocessor should own a reference.", 1, data.getReferenceCount());
+
+        PooledStub busData = pending.remove(0);
+        busData.release();
+        assertEquals("Data should be recycled when the preprocessor releases it.", 0, data.getReferenceCount());
+    }
+
+    public void testFailingPreprocessorReleasesItsReference() throws Exception {
+        bus.setErrorIsolation(new BusErrorIsolation());
+        bus.subscribe(TEST_CHANNEL, new BusListener<PooledStub>(PooledStub.class, new BusListener.Preprocessor<PooledStub>() {
+            @Override
+            public void notifyEvent(@NotNull BusListener<PooledStub> listener, @NotNull PooledStub busData) {
+                throw new IllegalStateException("Preprocessor failure");
+            }
+        }) {
+            @Override
+            public void notifyEvent(@NotNull PooledStub busData) {
+                fail("Listener should not be notified.");
+            }
+        });
+
+        PooledStub data = pool.obtain();
+        bus.emitEvent(TEST_CHANNEL, data);
+
+        assertEquals("Data should be recycled when the preprocessor fails.", 0, data.getReferenceCount());
+        assertSame("Recycled data should be reused.", data, pool.obtain());
+    }
+
+    public void testReleasingRecycledDataFails() throws Exception {
+        PooledStub data = pool.obtain();
+        data.release();
+        try {
+            data.release();
+            fail("Releasing recycled data should fail.");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        try {
+            data.retain();
+            fail("Retaining recycled data should fail.");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    public void testDataRecycledOnAnotherThreadIsShared() throws Exception {
+        final List<PooledStub> obtained = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            obtained.add(pool.obtain());
+        }
+        // Release everything on another thread: its cache fills up and the rest goes to the shared pool
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (PooledStub data : obtained) {
+                    data.release();
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+
+        for (int i = 0; i < 16; i++) {
+            pool.obtain();
+        }
+        assertEquals("Data recycled on another thread should be reused.", 32, pool.getCreatedCount());
+    }
+
+    private static class PooledStub extends BusPooledData {
+
+        private int value = -1;
+
+        @Override
+        protected void onRecycle() {
+            value = -1;
+        }
+    }
+
+    private abstract static class PooledStubListener extends BusListener<PooledStub> {
+
+        private PooledStubListener() {
+            super(PooledStub.class);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class BusErrorIsolationTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private static final String ERROR_CHANNEL = "ERROR_CHANNEL";
+    private Bus bus;
+    private FailingListener failingListener;
+    private BusDataStubListener listener;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        bus.setMetricsEnabled(true);
+        failingListener = new FailingListener();
+        listener = BusDataStubListener.getNewBusDataStubListener();
+        bus.subscribe(TEST_CHANNEL, failingListener);
+        bus.subscribe(TEST_CHANNEL, listener);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+        failingListener = null;
+        listener = null;
+    }
+
+    public void testExceptionsReachTheEmitterByDefault() throws Exception {
+        try {
+            bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+            fail("Listener exception should reach the emitter.");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        assertEquals("Listeners after the failing one should not be notified.", 0, listener.getReceivedBusDataCount());
+    }
+
+    public void testFailuresDoNotAbortTheEmission() throws Exception {
+        final List<BusErrorIsolation.ListenerError> handledErrors = new ArrayList<>();
+        BusErrorIsolation isolation = new BusErrorIsolation();
+        isolation.setHandler(new BusErrorIsolation.Handler() {
+            @Override
+            public void onListenerError(@NotNull BusErrorIsolation.ListenerError listenerError) {
+                handledErrors.add(listenerError);
+            }
+        });
+        bus.setErrorIsolation(isolation);
+        BusDataStub busData = new BusDataStub();
+
+        bus.emitEvent(TEST_CHANNEL, busData);
+
+        assertEquals("Listeners after the failing one should be notified.", 1, listener.getReceivedBusDataCount());
+        assertEquals("Failure should be handled.", 1, handledErrors.size());
+        BusErrorIsolation.ListenerError listenerError = handledErrors.get(0);
+        assertEquals("Failure should tell the channel.", TEST_CHANNEL, listenerError.getChannel());
+        assertSame("Failure should tell the listener.", failingListener, listenerError.getListener());
+        assertSame("Failure should tell the data.", busData, listenerError.getBusData());
+        assertTrue("Failure should tell the exception.", listenerError.getException() instanceof IllegalStateException);
+        assertEquals("Failure should be counted.",
+                1, bus.getMetrics().getSnapshot(TEST_CHANNEL).getListenerFailureCount());
+    }
+
+    public void testFailuresAreEmittedOnTheErrorChannel() throws Exception {
+        BusErrorIsolation isolation = new BusErrorIsolation();
+        isolation.setErrorChannel(ERROR_CHANNEL);
+        bus.setErrorIsolation(isolation);
+        final List<BusErrorIsolation.ListenerError> emittedErrors = new ArrayList<>();
+        bus.subscribe(ERROR_CHANNEL, new BusListener<BusErrorIsolation.ListenerError>(BusErrorIsolation.ListenerError.class) {
+            @Override
+            public void notifyEvent(@NotNull BusErrorIsolation.ListenerError busData) {
+                emittedErrors.add(busData);
+                // Failures of error listeners should not be emitted again
+                throw new IllegalStateException("Error listener failure");
+            }
+        });
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertEquals("Failure should be emitted once.", 1, emittedErrors.size());
+        assertSame("Emitted failure should tell the listener.", failingListener, emittedErrors.get(0).getListener());
+        assertEquals("Listeners after the failing one should be notified.", 1, listener.getReceivedBusDataCount());
+    }
+
+    public void testCircuitBreaker() throws Exception {
+        BusErrorIsolation isolation = new BusErrorIsolation(2, 50, TimeUnit.MILLISECONDS);
+        bus.setErrorIsolation(isolation);
+
+        for (int i = 0; i < 5; i++) {
+            bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        }
+
+        assertEquals("Listener should not be notified once its circuit is open.", 2, failingListener.notifications);
+        assertTrue("Circuit should be open.", isolation.isCircuitOpen(failingListener));
+        assertEquals("Skipped notifications should be counted.",
+                3, bus.getMetrics().getSnapshot(TEST_CHANNEL).getOpenCircuitSkipCount());
+        assertEquals("Other listeners should be notified.", 5, listener.getReceivedBusDataCount());
+
+        // A failing trial opens the circuit again
+        Thread.sleep(80);
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        assertEquals("Listener should be notified of a single trial event.", 3, failingListener.notifications);
+        assertTrue("Circuit should be open again.", isolation.isCircuitOpen(failingListener));
+
+        // A successful trial closes the circuit
+        Thread.sleep(80);
+        failingListener.failing = false;
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        assertEquals("Listener should be notified once its circuit is closed.", 5, failingListener.notifications);
+        assertFalse("Circuit should be closed.", isolation.isCircuitOpen(failingListener));
+    }
+
+    public void testPrimitiveEmission() throws Exception {
+        bus.setErrorIsolation(new BusErrorIsolation(1, 1, TimeUnit.MINUTES));
+        final List<Integer> values = new ArrayList<>();
+        bus.subscribe(TEST_CHANNEL, new IntBusListener() {
+            @Override
+            public void notifyEvent(int busData) {
+                throw new IllegalStateException("Listener failure");
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, new IntBusListener() {
+            @Override
+            public void notifyEvent(int busData) {
+                values.add(busData);
+            }
+        });
+
+        bus.emitEvent(TEST_CHANNEL, 1);
+        bus.emitEvent(TEST_CHANNEL, 2);
+
+        assertEquals("Listeners after the failing one should be notified.", "[1, 2]", values.toString());
+        assertEquals("Failure should be counted once before opening the circuit.",
+                1, bus.getMetrics().getSnapshot(TEST_CHANNEL).getListenerFailureCount());
+    }
+
+    public void testInvalidParameters() throws Exception {
+        try {
+            new BusErrorIsolation(0, 1, TimeUnit.SECONDS);
+            fail("Failure threshold should be positive.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            new BusErrorIsolation(1, 0, TimeUnit.SECONDS);
+            fail("Open time should be positive.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static final class FailingListener extends BusListener<BusDataStub> {
+
+        private int notifications;
+        private boolean failing = true;
+
+        private FailingListener() {
+            super(BusDataStub.class);
+        }
+
+        @Override
+        public void notifyEvent(@NotNull BusDataStub busData) {
+            notifications++;
+            if (failing) throw new IllegalStateException("Listener failure");
+        }
+    }
+}
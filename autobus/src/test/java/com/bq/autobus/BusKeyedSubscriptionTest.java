@@ -0,0 +1,148 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BusKeyedSubscriptionTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private Bus bus;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        bus.setKeyExtractor(Location.class, new BusKeyExtractor<Location>() {
+            @Override
+            public Object getKey(@NotNull Location busData) {
+                return busData.deviceId;
+            }
+        });
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+    }
+
+    public void testOnlyListenersOfTheKeyAreNotified() throws Exception {
+        LocationListener firstDeviceListener = new LocationListener();
+        LocationListener secondDeviceListener = new LocationListener();
+        LocationListener channelListener = new LocationListener();
+        bus.subscribe(TEST_CHANNEL, "first", firstDeviceListener);
+        bus.subscribe(TEST_CHANNEL, "second", secondDeviceListener);
+        bus.subscribe(TEST_CHANNEL, channelListener);
+
+        bus.emitEvent(TEST_CHANNEL, new Location("first"));
+        bus.emitEvent(TEST_CHANNEL, new Location("first"));
+        bus.emitEvent(TEST_CHANNEL, new Location("third"));
+
+        assertEquals("Listener of the first device should be notified twice.", 2, firstDeviceListener.locations.size());
+        assertEquals("Listener of the second device should not be notified.", 0, secondDeviceListener.locations.size());
+        assertEquals("Channel listener should be notified of every event.", 3, channelListener.locations.size());
+    }
+
+    public void testEmissionsDoNotVisitOtherKeys() throws Exception {
+        bus.setMetricsEnabled(true);
+        for (int i = 0; i < 100; i++) {
+            bus.subscribe(TEST_CHANNEL, "device" + i, new LocationListener());
+        }
+
+        bus.emitEvent(TEST_CHANNEL, new Location("device42"));
+
+        BusMetrics.ChannelSnapshot snapshot = bus.getMetrics().getSnapshot(TEST_CHANNEL);
+        assertEquals("Only the listener of the key should be notified.", 1, snapshot.getDeliveryCount());
+        assertEquals("Listeners of other keys should not be visited.", 0, snapshot.getClassMismatchCount());
+    }
+
+    public void testDataWithoutKeyExtractorIsNotRoutedToKeys() throws Exception {
+        bus.setKeyExtractor(Location.class, null);
+        LocationListener keyListener = new LocationListener();
+        bus.subscribe(TEST_CHANNEL, "first", keyListener);
+
+        bus.emitEvent(TEST_CHANNEL, new Location("first"));
+
+        assertNull("Key extractor should be removed.", bus.getKeyExtractor(Location.class));
+        assertEquals("Keyed listener should not be notified.", 0, keyListener.locations.size());
+    }
+
+    public void testPersistentEventsAreStoredPerKey() throws Exception {
+        Location first = new Location("first");
+        Location second = new Location("second");
+        bus.emitPersistentEvent(TEST_CHANNEL, first);
+        bus.emitPersistentEvent(TEST_CHANNEL, second);
+
+        LocationListener firstDeviceListener = new LocationListener();
+        LocationListener thirdDeviceListener = new LocationListener();
+        LocationListener channelListener = new LocationListener();
+        bus.subscribe(TEST_CHANNEL, "first", firstDeviceListener);
+        bus.subscribe(TEST_CHANNEL, "third", thirdDeviceListener);
+        bus.subscribe(TEST_CHANNEL, channelListener);
+
+        assertEquals("Last persistent event of the key should be replayed.", 1, firstDeviceListener.locations.size());
+        assertSame(first, firstDeviceListener.locations.get(0));
+        assertEquals("Nothing should be replayed for a key without events.", 0, thirdDeviceListener.locations.size());
+        assertEquals("Last persistent event of the channel should be replayed.", 1, channelListener.locations.size());
+        assertSame(second, channelListener.locations.get(0));
+    }
+
+    public void testUnSubscribeFromKey() throws Exception {
+        LocationListener listener = new LocationListener();
+        bus.subscribe(TEST_CHANNEL, "first", listener);
+        assertTrue("Keyed listener should be a subscriber.", bus.hasSubscribers(TEST_CHANNEL, Location.class));
+        bus.unSubscribe(TEST_CHANNEL, "first", listener);
+        assertFalse("Unsubscribed listener should not be a subscriber.", bus.hasSubscribers(TEST_CHANNEL, Location.class));
+
+        bus.emitEvent(TEST_CHANNEL, new Location("first"));
+
+        assertEquals("Unsubscribed listener should not be notified.", 0, listener.locations.size());
+        try {
+            bus.unSubscribe(TEST_CHANNEL, "first", listener);
+            fail("Unsubscribing a non-subscribed listener should fail.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    public void testSubscribeTwiceToKeyFails() throws Exception {
+        LocationListener listener = new LocationListener();
+        bus.subscribe(TEST_CHANNEL, "first", listener);
+        // Subscribing to another key is allowed
+        bus.subscribe(TEST_CHANNEL, "second", listener);
+        try {
+            bus.subscribe(TEST_CHANNEL, "first", listener);
+            fail("Subscribing twice to the same key should fail.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static class Location {
+
+        private final String deviceId;
+
+        private Location(String deviceId) {
+            this.deviceId = deviceId;
+        }
+    }
+
+    private static class LocationListener extends BusListener<Location> {
+
+        private final List<Location> locations = new ArrayList<>();
+
+        private LocationListener() {
+            super(Location.class);
+        }
+
+        @Override
+        public void notifyEvent(@NotNull Location busData) {
+            locations.add(busData);
+        }
+    }
+}
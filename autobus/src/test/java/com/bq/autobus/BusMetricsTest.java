@@ -0,0 +1,91 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+public class BusMetricsTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private Bus bus;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setMetricsEnabled(true);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+    }
+
+    public void testMetricsDisabledByDefault() throws Exception {
+        Bus defaultBus = new Bus();
+        assertFalse("Metrics should be disabled.", defaultBus.isMetricsEnabled());
+        assertNull("No metrics should be available.", defaultBus.getMetrics());
+
+        defaultBus.setMetricsEnabled(true);
+        assertTrue("Metrics should be enabled.", defaultBus.isMetricsEnabled());
+        assertNotNull("Metrics should be available.", defaultBus.getMetrics());
+    }
+
+    public void testEmitsDeliveriesAndClassMismatches() throws Exception {
+        // Subscribe a listener expecting BusDataStub, one expecting BusDataStubExtension and one expecting any data
+        bus.subscribe(TEST_CHANNEL, BusDataStubListener.getNewBusDataStubListener());
+        bus.subscribe(TEST_CHANNEL, BusDataStubExtensionListener.getNewBusDataStubExtensionListener());
+        bus.subscribe(TEST_CHANNEL, CustomBusAnyDataListener.getNewBusAnyDataListener());
+
+        // Emit two events of class BusDataStub
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        BusMetrics.ChannelSnapshot snapshot = bus.getMetrics().getSnapshot(TEST_CHANNEL);
+        assertEquals("Two events should be counted.", 2, snapshot.getEmitCount());
+        assertEquals("Four deliveries should be counted.", 4, snapshot.getDeliveryCount());
+        assertEquals("Two class mismatches should be counted.", 2, snapshot.getClassMismatchCount());
+        assertEquals("No persistent replays should be counted.", 0, snapshot.getPersistentReplayCount());
+
+        // Every delivery should be in the latency histogram
+        long latencyCount = 0;
+        for (int i = 0; i < BusMetrics.LATENCY_BUCKET_COUNT; i++) {
+            latencyCount += snapshot.getLatencyBucketCount(i);
+        }
+        assertEquals("Every delivery should be timed.", 4, latencyCount);
+    }
+
+    public void testPersistentReplays() throws Exception {
+        bus.emitPersistentEvent(TEST_CHANNEL, new BusDataStub());
+        bus.subscribe(TEST_CHANNEL, BusDataStubListener.getNewBusDataStubListener());
+        bus.subscribe(TEST_CHANNEL, BusDataStubListener.getNewBusDataStubListener());
+
+        BusMetrics.ChannelSnapshot snapshot = bus.getMetrics().getSnapshot(TEST_CHANNEL);
+        assertEquals("One event should be counted.", 1, snapshot.getEmitCount());
+        assertEquals("Two persistent replays should be counted.", 2, snapshot.getPersistentReplayCount());
+        assertEquals("Two deliveries should be counted.", 2, snapshot.getDeliveryCount());
+    }
+
+    public void testSnapshotsAndReset() throws Exception {
+        bus.emitEvent("TEST_CHANNEL1");
+        bus.emitEvent("TEST_CHANNEL2");
+
+        assertEquals("Two channels should have metrics.", 2, bus.getMetrics().getSnapshots().size());
+        assertNull("Channel without activity should have no metrics.", bus.getMetrics().getSnapshot(TEST_CHANNEL));
+
+        bus.getMetrics().reset();
+        assertTrue("No channel should have metrics.", bus.getMetrics().getSnapshots().isEmpty());
+    }
+
+    public void testLatencyBucketBounds() throws Exception {
+        assertEquals(4, BusMetrics.getLatencyBucketUpperBoundNanos(0));
+        assertEquals(16, BusMetrics.getLatencyBucketUpperBoundNanos(1));
+        assertEquals(Long.MAX_VALUE, BusMetrics.getLatencyBucketUpperBoundNanos(BusMetrics.LATENCY_BUCKET_COUNT - 1));
+
+        try {
+            BusMetrics.getLatencyBucketUpperBoundNanos(BusMetrics.LATENCY_BUCKET_COUNT);
+            fail("Illegally retrieved an out of range bucket.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Bucket out of range: " + BusMetrics.LATENCY_BUCKET_COUNT, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BusParallelFanOutTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private static final int LISTENER_COUNT = 1000;
+    private Bus bus;
+    private ForkJoinPool pool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        pool = new ForkJoinPool(4);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        pool.shutdownNow();
+        bus = null;
+        pool = null;
+    }
+
+    public void testWaitForCompletion() throws Exception {
+        bus.setParallelFanOut(new BusParallelFanOut(pool, 100, true));
+        final AtomicInteger notified = new AtomicInteger();
+        final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        for (int i = 0; i < LISTENER_COUNT; i++) {
+            bus.subscribe(TEST_CHANNEL, new BusAnyDataListener() {
+                @Override
+                public void notifyEvent(Object busData) {
+                    threads.add(Thread.currentThread());
+                    notified.incrementAndGet();
+                }
+            });
+        }
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertEquals("Every listener should be notified before the emission ends.", LISTENER_COUNT, notified.get());
+        assertFalse("Listeners should be notified on the pool.", threads.contains(Thread.currentThread()));
+    }
+
+    public void testWithoutWaitingForCompletion() throws Exception {
+        bus.setParallelFanOut(new BusParallelFanOut(pool, 100, false));
+        final CountDownLatch notified = new CountDownLatch(LISTENER_COUNT);
+        for (int i = 0; i < LISTENER_COUNT; i++) {
+            bus.subscribe(TEST_CHANNEL, new BusAnyDataListener() {
+                @Override
+                public void notifyEvent(Object busData) {
+                    notified.countDown();
+                }
+            });
+        }
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertTrue("Every listener should be notified.", notified.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testSmallChannelsAreNotifiedOnTheEmittingThread() throws Exception {
+        bus.setParallelFanOut(new BusParallelFanOut(pool, 100, false));
+        final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        for (int i = 0; i < 10; i++) {
+            bus.subscribe(TEST_CHANNEL, new BusAnyDataListener() {
+                @Override
+                public void notifyEvent(Object busData) {
+                    threads.add(Thread.currentThread());
+                }
+            });
+        }
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+    }
+
+    public void testListenersCanEmitToTheChannel() throws Exception {
+        bus.setParallelFanOut(new BusParallelFanOut(pool, 100, true));
+        final AtomicInteger stubs = new AtomicInteger();
+        final AtomicInteger strings = new AtomicInteger();
+        for (int i = 0; i < LISTENER_COUNT; i++) {
+            bus.subscribe(TEST_CHANNEL, new BusDataStubListener(BusDataStub.class) {
+                @Override
+                public void notifyEvent(@NotNull BusDataStub busData) {
+                    stubs.incrementAndGet();
+                    bus.emitEvent(TEST_CHANNEL, "reply");
+                }
+            });
+        }
+        bus.subscribe(TEST_CHANNEL, new BusListener<String>(String.class) {
+            @Override
+            public void notifyEvent(@NotNull String busData) {
+                strings.incrementAndGet();
+            }
+        });
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertEquals(LISTENER_COUNT, stubs.get());
+        assertEquals(LISTENER_COUNT, strings.get());
+    }
+
+    public void testListenerFailureIsThrownWhenWaiting() throws Exception {
+        bus.setParallelFanOut(new BusParallelFanOut(pool, 1, true));
+        bus.subscribe(TEST_CHANNEL, new BusAnyDataListener() {
+            @Override
+            public void notifyEvent(Object busData) {
+                throw new IllegalStateException("Failure");
+            }
+        });
+
+        try {
+            bus.emitEvent(TEST_CHANNEL);
+            fail("Listener failure should be thrown.");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BusPrimitiveTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private Bus bus;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+    }
+
+    public void testPrimitiveValuesAreDeliveredToPrimitiveListeners() throws Exception {
+        final List<Object> values = new ArrayList<>();
+        bus.subscribe(TEST_CHANNEL, new IntBusListener() {
+            @Override
+            public void notifyEvent(int busData) {
+                values.add("int " + busData);
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, new LongBusListener() {
+            @Override
+            public void notifyEvent(long busData) {
+                values.add("long " + busData);
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, new DoubleBusListener() {
+            @Override
+            public void notifyEvent(double busData) {
+                values.add("double " + busData);
+            }
+        });
+
+        bus.emitEvent(TEST_CHANNEL, 1);
+        bus.emitEvent(TEST_CHANNEL, 2L);
+        bus.emitEvent(TEST_CHANNEL, -3.5);
+        bus.emitEvent(TEST_CHANNEL, Double.NaN);
+
+        assertEquals("[int 1, long 2, double -3.5, double NaN]", values.toString());
+    }
+
+    public void testBoxedDataIsDeliveredToPrimitiveListeners() throws Exception {
+        final List<Integer> values = new ArrayList<>();
+        bus.subscribe(TEST_CHANNEL, new IntBusListener() {
+            @Override
+            public void notifyEvent(int busData) {
+                values.add(busData);
+            }
+        });
+
+        bus.emitEvent(TEST_CHANNEL, (Object) 1);
+        bus.emitPersistentEvent(TEST_CHANNEL, 2);
+
+        assertEquals("[1, 2]", values.toString());
+    }
+
+    public void testPrimitiveValuesAreBoxedForOtherListeners() throws Exception {
+        final List<Object> values = new ArrayList<>();
+        bus.subscribe(TEST_CHANNEL, new BusListener<Long>(Long.class) {
+            @Override
+            public void notifyEvent(@NotNull Long busData) {
+                values.add(busData);
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, new BusAnyDataListener() {
+            @Override
+            public void notifyEvent(Object busData) {
+                values.add(busData);
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, new IntBusListener(new BusListener.Preprocessor<Integer>() {
+            @Override
+            public void notifyEvent(@NotNull BusListener<Integer> listener, @NotNull Integer busData) {
+                values.add("preprocessed " + busData);
+            }
+        }) {
+            @Override
+            public void notifyEvent(int busData) {
+                fail("Listener with preprocessor should not be notified directly.");
+            }
+        });
+
+        bus.emitEvent(TEST_CHANNEL, 7L);
+        bus.emitEvent(TEST_CHANNEL, 8);
+
+        assertEquals("[7, 7, 8, preprocessed 8]", values.toString());
+    }
+
+    public void testNarrowPrimitiveValuesKeepTheirWrapperClass() throws Exception {
+        final List<Object> values = new ArrayList<>();
+        bus.subscribe(TEST_CHANNEL, new BusListener<Float>(Float.class) {
+            @Override
+            public void notifyEvent(@NotNull Float busData) {
+                values.add(busData);
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, new BusListener<Short>(Short.class) {
+            @Override
+            public void notifyEvent(@NotNull Short busData) {
+                values.add(busData);
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, new BusListener<Byte>(Byte.class) {
+            @Override
+            public void notifyEvent(@NotNull Byte busData) {
+                values.add(busData);
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, new BusListener<Character>(Character.class) {
+            @Override
+            public void notifyEvent(@NotNull Character busData) {
+                values.add(busData);
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, new IntBusListener() {
+            @Override
+            public void notifyEvent(int busData) {
+                fail("Narrow values should not be widened to int.");
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, new DoubleBusListener() {
+            @Override
+            public void notifyEvent(double busData) {
+                fail("Float values should not be widened to double.");
+            }
+        });
+
+        bus.emitEvent(TEST_CHANNEL, 1f);
+        bus.emitEvent(TEST_CHANNEL, (short) 2);
+        bus.emitEvent(TEST_CHANNEL, (byte) 3);
+        bus.emitEvent(TEST_CHANNEL, 'c');
+
+        assertEquals("[1.0, 2, 3, c]", values.toString());
+        assertEquals("Float listener should receive the Float wrapper.", Float.class, values.get(0).getClass());
+    }
+
+    public void testMetricsCountPrimitiveDeliveries() throws Exception {
+        bus.setMetricsEnabled(true);
+        final int[] sum = new int[1];
+        bus.subscribe(TEST_CHANNEL, new IntBusListener() {
+            @Override
+            public void notifyEvent(int busData) {
+                sum[0] += busData;
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, BusDataStubListener.getNewBusDataStubListener());
+
+        bus.emitEvent(TEST_CHANNEL, 1);
+        bus.emitEvent(TEST_CHANNEL, 2);
+
+        BusMetrics.ChannelSnapshot snapshot = bus.getMetrics().getSnapshot(TEST_CHANNEL);
+        assertEquals(3, sum[0]);
+        assertEquals("Two events should be counted.", 2, snapshot.getEmitCount());
+        assertEquals("Two deliveries should be counted.", 2, snapshot.getDeliveryCount());
+        assertEquals("Two class mismatches should be counted.", 2, snapshot.getClassMismatchCount());
+    }
+}
@@ -0,0 +1,147 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BusQueuedDispatchTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private static final String OTHER_CHANNEL = "OTHER_CHANNEL";
+    private Bus bus;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        bus.setQueuedDispatchEnabled(true);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+    }
+
+    public void testNestedEmissionsDoNotGrowTheStack() throws Exception {
+        final int emissions = 10000;
+        final List<Integer> stackDepths = new ArrayList<>();
+        bus.subscribe(TEST_CHANNEL, new BusListener<Integer>(Integer.class) {
+            @Override
+            public void notifyEvent(@NotNull Integer busData) {
+                stackDepths.add(Thread.currentThread().getStackTrace().length);
+                if (busData < emissions) bus.emitEvent(TEST_CHANNEL, (Object) (busData + 1));
+            }
+        });
+
+        bus.emitEvent(TEST_CHANNEL, (Object) 1);
+
+        assertEquals("Every nested emission should be notified.", emissions, stackDepths.size());
+        assertEquals("Stack depth should not grow with nested emissions.",
+                stackDepths.get(0), stackDepths.get(emissions - 1));
+    }
+
+    public void testNestedEmissionsAreNotifiedAfterTheCurrentOne() throws Exception {
+        final List<String> notifications = new ArrayList<>();
+        bus.subscribe(TEST_CHANNEL, new BusListener<BusDataStub>(BusDataStub.class) {
+            @Override
+            public void notifyEvent(@NotNull BusDataStub busData) {
+                notifications.add("first");
+                bus.emitEvent(OTHER_CHANNEL, new BusDataStub());
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, new BusListener<BusDataStub>(BusDataStub.class) {
+            @Override
+            public void notifyEvent(@NotNull BusDataStub busData) {
+                notifications.add("second");
+            }
+        });
+        bus.subscribe(OTHER_CHANNEL, new BusListener<BusDataStub>(BusDataStub.class) {
+            @Override
+            public void notifyEvent(@NotNull BusDataStub busData) {
+                notifications.add("other");
+            }
+        });
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertEquals("Nested emission should be notified once the outer one is done.",
+                "[first, second, other]", notifications.toString());
+    }
+
+    public void testChannelsEmittingIntoEachOtherDoNotDeadlock() throws Exception {
+        final CountDownLatch bothNotifying = new CountDownLatch(2);
+        final CountDownLatch done = new CountDownLatch(2);
+        bus.subscribe(TEST_CHANNEL, new CrossEmittingListener(OTHER_CHANNEL, bothNotifying));
+        bus.subscribe(OTHER_CHANNEL, new CrossEmittingListener(TEST_CHANNEL, bothNotifying));
+
+        for (final String channel : new String[]{TEST_CHANNEL, OTHER_CHANNEL}) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    bus.emitEvent(channel, new BusDataStub());
+                    done.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        assertTrue("Emissions should not deadlock.", done.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testListenerExceptionDoesNotDropQueuedEmissions() throws Exception {
+        final BusDataStubListener otherListener = BusDataStubListener.getNewBusDataStubListener();
+        bus.subscribe(OTHER_CHANNEL, otherListener);
+        bus.subscribe(TEST_CHANNEL, new BusListener<BusDataStub>(BusDataStub.class) {
+            @Override
+            public void notifyEvent(@NotNull BusDataStub busData) {
+                bus.emitEvent(OTHER_CHANNEL, new BusDataStub());
+                throw new IllegalStateException("Listener failure");
+            }
+        });
+
+        try {
+            bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+            fail("Listener exception should reach the emitter.");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        assertEquals("Queued emission should be notified.", 1, otherListener.getReceivedBusDataCount());
+
+        // The dispatch queue is usable again
+        bus.emitEvent(OTHER_CHANNEL, new BusDataStub());
+        assertEquals("Later emissions should be notified.", 2, otherListener.getReceivedBusDataCount());
+    }
+
+    private final class CrossEmittingListener extends BusListener<BusDataStub> {
+
+        private final String targetChannel;
+        private final CountDownLatch bothNotifying;
+
+        private CrossEmittingListener(@NotNull String targetChannel, @NotNull CountDownLatch bothNotifying) {
+            super(BusDataStub.class);
+            this.targetChannel = targetChannel;
+            this.bothNotifying = bothNotifying;
+        }
+
+        @Override
+        public void notifyEvent(@NotNull BusDataStub busData) {
+            if (bothNotifying.getCount() == 0) return;
+            // Wait until the other thread is notifying its channel too
+            bothNotifying.countDown();
+            try {
+                bothNotifying.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            bus.emitEvent(targetChannel, new BusDataStub());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class BusRateLimitTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private static final String OVERFLOW_CHANNEL = "OVERFLOW_CHANNEL";
+    // Slow enough for no token to be refilled during a test
+    private static final double SLOW_RATE = 0.001;
+    private Bus bus;
+    private BusDataStubListener listener;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        bus.setMetricsEnabled(true);
+        listener = BusDataStubListener.getNewBusDataStubListener();
+        bus.subscribe(TEST_CHANNEL, listener);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+        listener = null;
+    }
+
+    public void testRateLimitRejects() throws Exception {
+        bus.setRateLimit(TEST_CHANNEL, new BusRateLimit(SLOW_RATE, 2, BusOverflowPolicy.REJECT));
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        bus.emitPersistentEvent(TEST_CHANNEL, new BusDataStub());
+        try {
+            bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+            fail("Event over the rate limit should be rejected.");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        }
+
+        assertEquals("Events within the burst should be notified.", 2, listener.getReceivedBusDataCount());
+        assertEquals("Rejected event should be counted.",
+                1, bus.getMetrics().getSnapshot(TEST_CHANNEL).getRejectedEmitCount());
+    }
+
+    public void testRateLimitDrops() throws Exception {
+        bus.setRateLimit(TEST_CHANNEL, new BusRateLimit(SLOW_RATE, 1, BusOverflowPolicy.DROP));
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        bus.emitEvent(TEST_CHANNEL, 1);
+
+        assertEquals("Events over the rate limit should not be notified.", 1, listener.getReceivedBusDataCount());
+        assertEquals("Dropped events should be counted.",
+                2, bus.getMetrics().getSnapshot(TEST_CHANNEL).getDroppedEmitCount());
+    }
+
+    public void testRateLimitOverflows() throws Exception {
+        bus.setRateLimit(TEST_CHANNEL, new BusRateLimit(SLOW_RATE, 1, BusOverflowPolicy.overflowTo(OVERFLOW_CHANNEL)));
+        // Overflowed events are not limited again by the overflow channel
+        bus.setRateLimit(OVERFLOW_CHANNEL, new BusRateLimit(SLOW_RATE, 1, BusOverflowPolicy.REJECT));
+        BusDataStubListener overflowListener = BusDataStubListener.getNewBusDataStubListener();
+        bus.subscribe(OVERFLOW_CHANNEL, overflowListener);
+
+        for (int i = 0; i < 3; i++) {
+            bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        }
+
+        assertEquals("Events within the rate limit should be notified.", 1, listener.getReceivedBusDataCount());
+        assertEquals("Events over the rate limit should be emitted on the overflow channel.",
+                2, overflowListener.getReceivedBusDataCount());
+        assertEquals("Overflowed events should be counted.",
+                2, bus.getMetrics().getSnapshot(TEST_CHANNEL).getOverflowedEmitCount());
+    }
+
+    public void testTokensAreRefilled() throws Exception {
+        bus.setRateLimit(TEST_CHANNEL, new BusRateLimit(100, 1, BusOverflowPolicy.DROP));
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        Thread.sleep(20);
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertEquals("Event emitted after refilling a token should be notified.",
+                2, listener.getReceivedBusDataCount());
+
+        bus.setRateLimit(TEST_CHANNEL, null);
+        for (int i = 0; i < 10; i++) {
+            bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        }
+        assertEquals("Every event should be notified without rate limit.", 12, listener.getReceivedBusDataCount());
+    }
+
+    public void testConcurrencyLimit() throws Exception {
+        bus.setConcurrencyLimit(new BusConcurrencyLimit(1, BusOverflowPolicy.DROP));
+        final CountDownLatch notifying = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final BusDataStubListener nestedListener = BusDataStubListener.getNewBusDataStubListener();
+        bus.subscribe(OVERFLOW_CHANNEL, nestedListener);
+        bus.subscribe(TEST_CHANNEL, new BusListener<Integer>(Integer.class) {
+            @Override
+            public void notifyEvent(@NotNull Integer busData) {
+                // Events emitted by listeners belong to the admitted emission
+                bus.emitEvent(OVERFLOW_CHANNEL, new BusDataStub());
+                notifying.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                bus.emitEvent(TEST_CHANNEL, (Object) 1);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+
+        assertTrue("Listener should be notified.", notifying.await(5, TimeUnit.SECONDS));
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        release.countDown();
+        thread.join(5000);
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertEquals("Nested event should be notified.", 1, nestedListener.getReceivedBusDataCount());
+        assertEquals("Only the event emitted once the slot is free should be notified.",
+                1, listener.getReceivedBusDataCount());
+        assertEquals("Dropped event should be counted.",
+                1, bus.getMetrics().getSnapshot(TEST_CHANNEL).getDroppedEmitCount());
+    }
+
+    public void testInvalidParameters() throws Exception {
+        try {
+            new BusRateLimit(0, 1, BusOverflowPolicy.DROP);
+            fail("Rate should be positive.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            new BusRateLimit(1, 0, BusOverflowPolicy.DROP);
+            fail("Burst should be positive.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            new BusConcurrencyLimit(0, BusOverflowPolicy.DROP);
+            fail("Max concurrent emits should be positive.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            BusOverflowPolicy.overflowTo(null);
+            fail("Overflow channel should not be null.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            bus.setRateLimit(null, new BusRateLimit(1, 1, BusOverflowPolicy.DROP));
+            fail("Channel should not be null.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+}
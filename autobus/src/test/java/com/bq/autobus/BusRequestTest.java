@@ -0,0 +1,209 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BusRequestTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private Bus bus;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+    }
+
+    public void testRequestReply() throws Exception {
+        bus.subscribe(TEST_CHANNEL, new BusRequestListener<String>(String.class) {
+            @Override
+            public void onRequest(@NotNull String payload, @NotNull BusRequest request) {
+                request.reply(payload.length());
+            }
+        });
+
+        BusFuture<Integer> future = bus.request(TEST_CHANNEL, "four", Integer.class);
+
+        assertTrue("Request should be answered.", future.isDone());
+        assertEquals(Integer.valueOf(4), future.get());
+    }
+
+    public void testOnlyFirstReplyCounts() throws Exception {
+        final AtomicReference<Boolean> secondReplyAccepted = new AtomicReference<>();
+        bus.subscribe(TEST_CHANNEL, new BusRequestListener<String>(String.class) {
+            @Override
+            public void onRequest(@NotNull String payload, @NotNull BusRequest request) {
+                request.reply("first");
+            }
+        });
+        bus.subscribe(TEST_CHANNEL, new BusRequestListener<String>(String.class) {
+            @Override
+            public void onRequest(@NotNull String payload, @NotNull BusRequest request) {
+                secondReplyAccepted.set(request.reply("second"));
+            }
+        });
+
+        assertEquals("first", bus.request(TEST_CHANNEL, "payload", String.class).get());
+        assertFalse("Second reply should be ignored.", secondReplyAccepted.get());
+    }
+
+    public void testAsynchronousReplyAndCallback() throws Exception {
+        final AtomicReference<BusRequest> pending = new AtomicReference<>();
+        bus.subscribe(TEST_CHANNEL, new BusRequestListener<String>(String.class) {
+            @Override
+            public void onRequest(@NotNull String payload, @NotNull BusRequest request) {
+                pending.set(request);
+            }
+        });
+        final AtomicReference<String> callbackReply = new AtomicReference<>();
+
+        BusFuture<String> future = bus.request(TEST_CHANNEL, "payload", String.class);
+        future.addCallback(new BusFuture.Callback<String>() {
+            @Override
+            public void onReply(@Nullable String reply) {
+                callbackReply.set(reply);
+            }
+
+            @Override
+            public void onFailure(@NotNull Throwable failure) {
+                fail("Request should not fail.");
+            }
+        });
+        assertFalse("Request should be pending.", future.isDone());
+
+        Thread responder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                pending.get().reply("reply");
+            }
+        });
+        responder.start();
+
+        assertEquals("reply", future.get(1, TimeUnit.SECONDS));
+        responder.join();
+        assertEquals("reply", callbackReply.get());
+    }
+
+    public void testTimeoutWithoutResponders() throws Exception {
+        BusFuture<String> future = bus.request(TEST_CHANNEL, "payload", String.class, 10, TimeUnit.MILLISECONDS);
+
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            fail("Request without responders should time out.");
+        } catch (ExecutionException e) {
+            assertTrue("Request should time out.", e.getCause() instanceof TimeoutException);
+        }
+    }
+
+    public void testTimeoutOfDisposedBus() throws Exception {
+        BusFuture<String> future = bus.request(TEST_CHANNEL, "payload", String.class, 10, TimeUnit.MILLISECONDS);
+        bus.dispose();
+
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            fail("Request of a disposed bus should time out.");
+        } catch (ExecutionException e) {
+            assertTrue("Request should time out.", e.getCause() instanceof TimeoutException);
+        }
+    }
+
+    public void testErrorReply() throws Exception {
+        bus.subscribe(TEST_CHANNEL, new BusRequestListener<String>(String.class) {
+            @Override
+            public void onRequest(@NotNull String payload, @NotNull BusRequest request) {
+                request.replyError(new IllegalStateException("Not available"));
+            }
+        });
+
+        try {
+            bus.request(TEST_CHANNEL, "payload", String.class).get();
+            fail("Request should fail.");
+        } catch (ExecutionException e) {
+            assertEquals("Not available", e.getCause().getMessage());
+        }
+    }
+
+    public void testResponderExceptionFailsRequest() throws Exception {
+        bus.subscribe(TEST_CHANNEL, new BusRequestListener<String>(String.class) {
+            @Override
+            public void onRequest(@NotNull String payload, @NotNull BusRequest request) {
+                throw new IllegalStateException("Responder crashed");
+            }
+        });
+
+        try {
+            bus.request(TEST_CHANNEL, "payload", String.class).get();
+            fail("Request should fail.");
+        } catch (ExecutionException e) {
+            assertEquals("Responder crashed", e.getCause().getMessage());
+        }
+    }
+
+    public void testUnexpectedReplyClassFailsRequest() throws Exception {
+        bus.subscribe(TEST_CHANNEL, new BusRequestListener<String>(String.class) {
+            @Override
+            public void onRequest(@NotNull String payload, @NotNull BusRequest request) {
+                request.reply(1);
+            }
+        });
+
+        try {
+            bus.request(TEST_CHANNEL, "payload", String.class).get();
+            fail("Request should fail.");
+        } catch (ExecutionException e) {
+            assertTrue("Reply class should be checked.", e.getCause() instanceof ClassCastException);
+        }
+    }
+
+    public void testRespondersIgnoreOtherPayloadClasses() throws Exception {
+        bus.subscribe(TEST_CHANNEL, new BusRequestListener<Integer>(Integer.class) {
+            @Override
+            public void onRequest(@NotNull Integer payload, @NotNull BusRequest request) {
+                request.reply("integer");
+            }
+        });
+
+        BusFuture<String> future = bus.request(TEST_CHANNEL, "payload", String.class, 0, TimeUnit.MILLISECONDS);
+        assertFalse("Request should not be answered.", future.isDone());
+        future.cancel(false);
+    }
+
+    public void testCancel() throws Exception {
+        BusFuture<String> future = bus.request(TEST_CHANNEL, "payload", String.class);
+
+        assertTrue("Request should be cancelled.", future.cancel(false));
+        assertTrue(future.isCancelled());
+        try {
+            future.get();
+            fail("Cancelled request should not return.");
+        } catch (CancellationException e) {
+            assertEquals("Request cancelled", e.getMessage());
+        }
+    }
+
+    public void testDefaultRequestTimeout() throws Exception {
+        assertEquals(30, bus.getRequestTimeout(TimeUnit.SECONDS));
+        bus.setRequestTimeout(10, TimeUnit.MILLISECONDS);
+
+        try {
+            bus.request(TEST_CHANNEL, "payload", String.class).get(1, TimeUnit.SECONDS);
+            fail("Request without responders should time out.");
+        } catch (ExecutionException e) {
+            assertTrue("Request should time out.", e.getCause() instanceof TimeoutException);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BusScheduledEventTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private Bus bus;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+    }
+
+    public void testEmitEventAfter() throws Exception {
+        LatchListener listener = new LatchListener(1);
+        bus.subscribe(TEST_CHANNEL, listener);
+
+        long startNanos = System.nanoTime();
+        bus.emitEventAfter(TEST_CHANNEL, "data", 20, TimeUnit.MILLISECONDS);
+
+        assertTrue("Delayed event should be emitted.", listener.latch.await(5, TimeUnit.SECONDS));
+        assertTrue("Delayed event should not be emitted before the delay.",
+                System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    public void testCancel() throws Exception {
+        LatchListener listener = new LatchListener(1);
+        bus.subscribe(TEST_CHANNEL, listener);
+
+        BusScheduledEvent cancelledEvent = bus.emitEventAfter(TEST_CHANNEL, "cancelled", 10, TimeUnit.MILLISECONDS);
+        assertTrue("Scheduled event should be cancelled.", cancelledEvent.cancel());
+        assertFalse("Cancelled event should not be cancelled again.", cancelledEvent.cancel());
+        bus.emitEventAfter(TEST_CHANNEL, "emitted", 30, TimeUnit.MILLISECONDS);
+
+        assertTrue("Delayed event should be emitted.", listener.latch.await(5, TimeUnit.SECONDS));
+        assertEquals("Cancelled event should not be emitted.", Collections.singletonList("emitted"), listener.received);
+    }
+
+    public void testEmitEventEvery() throws Exception {
+        LatchListener listener = new LatchListener(3);
+        bus.subscribe(TEST_CHANNEL, listener);
+
+        BusScheduledEvent periodicEvent = bus.emitEventEvery(TEST_CHANNEL, "data", 0, 5, TimeUnit.MILLISECONDS);
+
+        assertTrue("Periodic event should be emitted repeatedly.", listener.latch.await(5, TimeUnit.SECONDS));
+        assertTrue("Periodic event should be cancelled.", periodicEvent.cancel());
+        int emissions = listener.received.size();
+        Thread.sleep(50);
+        assertEquals("Cancelled periodic event should not be emitted anymore.", emissions, listener.received.size());
+    }
+
+    public void testDeadlinesAcrossWheels() throws Exception {
+        // A fine resolution makes some deadlines need cascading from the second and third wheels
+        BusTimingWheel timingWheel = new BusTimingWheel(TimeUnit.MICROSECONDS.toNanos(10));
+        long[] delaysMillis = {1, 2, 5, 30, 700, 800};
+        LatchListener listener = new LatchListener(delaysMillis.length);
+        bus.subscribe(TEST_CHANNEL, listener);
+
+        long startNanos = System.nanoTime();
+        for (int i = delaysMillis.length - 1; i >= 0; i--) {
+            timingWheel.schedule(new BusScheduledEvent(bus, TEST_CHANNEL, String.valueOf(delaysMillis[i]), null,
+                    timingWheel, startNanos + TimeUnit.MILLISECONDS.toNanos(delaysMillis[i]), 0));
+        }
+
+        assertTrue("Every event should be emitted.", listener.latch.await(5, TimeUnit.SECONDS));
+        List<String> expected = new ArrayList<>();
+        for (long delayMillis : delaysMillis) {
+            expected.add(String.valueOf(delayMillis));
+        }
+        assertEquals("Events should be emitted in deadline order.", expected, listener.received);
+    }
+
+    public void testDeadlineOnCascadeTick() throws Exception {
+        BusTimingWheel timingWheel = new BusTimingWheel(TimeUnit.MILLISECONDS.toNanos(1));
+        long startNanos = timingWheel.getStartNanos();
+        LatchListener listener = new LatchListener(2);
+        bus.subscribe(TEST_CHANNEL, listener);
+
+        // Both cascade from the second wheel on tick 512: the first one is due right then
+        timingWheel.schedule(new BusScheduledEvent(bus, TEST_CHANNEL, "513", null, timingWheel,
+                startNanos + TimeUnit.MILLISECONDS.toNanos(513), 0));
+        timingWheel.schedule(new BusScheduledEvent(bus, TEST_CHANNEL, "512", null, timingWheel,
+                startNanos + TimeUnit.MILLISECONDS.toNanos(512), 0));
+
+        assertTrue("Every event should be emitted.", listener.latch.await(5, TimeUnit.SECONDS));
+        assertEquals("Events due on a cascade tick should be emitted on it.", Arrays.asList("512", "513"),
+                listener.received);
+    }
+
+    public void testLongDelayWithShortOnes() throws Exception {
+        LatchListener listener = new LatchListener(3);
+        bus.subscribe(TEST_CHANNEL, listener);
+
+        BusScheduledEvent hourlyEvent = bus.emitEventEvery(TEST_CHANNEL, "hourly", 1, 1, TimeUnit.HOURS);
+        for (int i = 1; i <= 3; i++) {
+            bus.emitEventAfter(TEST_CHANNEL, String.valueOf(i), 10 * i, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue("Events should be emitted while sleeping until a far deadline.",
+                listener.latch.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("1", "2", "3"), listener.received);
+        assertTrue("Periodic event should be cancelled.", hourlyEvent.cancel());
+    }
+
+    public void testManyPendingEvents() throws Exception {
+        LatchListener listener = new LatchListener(1);
+        bus.subscribe(TEST_CHANNEL, listener);
+
+        List<BusScheduledEvent> events = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            events.add(bus.emitEventAfter(TEST_CHANNEL, "cancelled", 1000 + i % 1000, TimeUnit.MILLISECONDS));
+        }
+        bus.emitEventAfter(TEST_CHANNEL, "emitted", 10, TimeUnit.MILLISECONDS);
+        for (BusScheduledEvent event : events) {
+            assertTrue("Pending event should be cancelled.", event.cancel());
+        }
+
+        assertTrue("Delayed event should be emitted.", listener.latch.await(5, TimeUnit.SECONDS));
+        assertEquals("Cancelled events should not be emitted.", Collections.singletonList("emitted"), listener.received);
+    }
+
+    public void testInvalidParameters() throws Exception {
+        try {
+            bus.emitEventAfter(TEST_CHANNEL, "data", -1, TimeUnit.MILLISECONDS);
+            fail("Negative delays should be rejected.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            bus.emitEventEvery(TEST_CHANNEL, "data", 0, 0, TimeUnit.MILLISECONDS);
+            fail("Non positive periods should be rejected.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static final class LatchListener extends BusListener<String> {
+
+        private final List<String> received = Collections.synchronizedList(new ArrayList<String>());
+        private final CountDownLatch latch;
+
+        private LatchListener(int count) {
+            super(String.class);
+            latch = new CountDownLatch(count);
+        }
+
+        @Override
+        public void notifyEvent(@NotNull String busData) {
+            received.add(busData);
+            latch.countDown();
+        }
+    }
+}
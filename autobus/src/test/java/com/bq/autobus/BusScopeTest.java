@@ -0,0 +1,97 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+public class BusScopeTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private Bus bus;
+    private Bus child;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        child = bus.newChild();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+        child = null;
+    }
+
+    public void testEventsAreForwardedThroughTheTree() throws Exception {
+        Bus sibling = bus.newChild();
+        Bus grandChild = child.newChild();
+        BusDataStubListener parentListener = BusDataStubListener.getNewBusDataStubListener();
+        BusDataStubListener childListener = BusDataStubListener.getNewBusDataStubListener();
+        BusDataStubListener siblingListener = BusDataStubListener.getNewBusDataStubListener();
+        BusDataStubListener grandChildListener = BusDataStubListener.getNewBusDataStubListener();
+        bus.subscribe(TEST_CHANNEL, parentListener);
+        child.subscribe(TEST_CHANNEL, childListener);
+        sibling.subscribe(TEST_CHANNEL, siblingListener);
+        grandChild.subscribe(TEST_CHANNEL, grandChildListener);
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        grandChild.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertEquals("Parent listener should be notified of every event.", 2, parentListener.getReceivedBusDataCount());
+        assertEquals("Child listener should be notified of every event.", 2, childListener.getReceivedBusDataCount());
+        assertEquals("Sibling listener should be notified of every event.", 2, siblingListener.getReceivedBusDataCount());
+        assertEquals("Grandchild listener should be notified of every event.",
+                2, grandChildListener.getReceivedBusDataCount());
+        assertTrue("Parent listeners should be subscribers of the child.", child.hasSubscribers(TEST_CHANNEL, BusDataStub.class));
+    }
+
+    public void testPersistentEventsAreKeptByTheirBus() throws Exception {
+        BusDataStub parentData = new BusDataStub();
+        bus.emitPersistentEvent(TEST_CHANNEL, parentData);
+        BusDataStubListener childListener = BusDataStubListener.getNewBusDataStubListener();
+        child.subscribe(TEST_CHANNEL, childListener);
+        assertEquals("Parent persistent event should be replayed to child subscribers.",
+                1, childListener.getReceivedBusDataCount());
+        assertSame("Parent persistent event should be visible from the child.",
+                parentData, child.getPersistent(TEST_CHANNEL, BusDataStub.class));
+
+        BusDataStub childData = new BusDataStub();
+        child.emitPersistentEvent(TEST_CHANNEL, childData);
+        assertSame("Child persistent event should hide the parent one.",
+                childData, child.getPersistent(TEST_CHANNEL, BusDataStub.class));
+        assertSame("Child persistent event should not be kept by the parent.",
+                parentData, bus.getPersistent(TEST_CHANNEL, BusDataStub.class));
+    }
+
+    public void testDispose() throws Exception {
+        Bus grandChild = child.newChild();
+        BusDataStubListener parentListener = BusDataStubListener.getNewBusDataStubListener();
+        BusDataStubListener childListener = BusDataStubListener.getNewBusDataStubListener();
+        BusDataStubListener grandChildListener = BusDataStubListener.getNewBusDataStubListener();
+        bus.subscribe(TEST_CHANNEL, parentListener);
+        child.subscribe(TEST_CHANNEL, childListener);
+        grandChild.subscribe(TEST_CHANNEL, grandChildListener);
+        child.emitPersistentEvent(TEST_CHANNEL, new BusDataStub());
+
+        child.dispose();
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        child.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertTrue("Child should be disposed.", child.isDisposed());
+        assertTrue("Grandchild should be disposed.", grandChild.isDisposed());
+        assertEquals("Parent listener should only be notified of events emitted before disposing and on the parent.",
+                2, parentListener.getReceivedBusDataCount());
+        assertEquals("Child listener should not be notified after disposing.", 1, childListener.getReceivedBusDataCount());
+        assertEquals("Grandchild listener should not be notified after disposing.",
+                1, grandChildListener.getReceivedBusDataCount());
+        assertFalse("Child persistent events should be dropped.", child.hasPersistent(TEST_CHANNEL));
+        assertEquals("Parent listeners should remain subscribed.", 1, bus.getBusListeners(TEST_CHANNEL).size());
+        try {
+            child.subscribe(TEST_CHANNEL, BusDataStubListener.getNewBusDataStubListener());
+            fail("Disposed bus should reject subscriptions.");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BusShardedDispatcherTest extends TestCase {
+
+    private Bus bus;
+    private BusShardedDispatcher dispatcher;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        dispatcher = new BusShardedDispatcher(bus, 2);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        dispatcher.stop();
+        bus = null;
+        dispatcher = null;
+    }
+
+    public void testEventsAreEmittedInOrderOnTheShardThread() throws Exception {
+        final List<Integer> values = Collections.synchronizedList(new ArrayList<Integer>());
+        final Set<String> threads = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        final CountDownLatch latch = new CountDownLatch(1000);
+        bus.subscribe("CHANNEL", new BusListener<Integer>(Integer.class) {
+            @Override
+            public void notifyEvent(Integer busData) {
+                values.add(busData);
+                threads.add(Thread.currentThread().getName());
+                latch.countDown();
+            }
+        });
+
+        dispatcher.start();
+        for (int i = 0; i < 1000; i++) {
+            dispatcher.emitEvent("CHANNEL", (Object) i);
+        }
+
+        assertTrue("Every event should be emitted.", latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("Events should be emitted in order.", i, (int) values.get(i));
+        }
+        assertEquals(Collections.singleton("Autobus-Shard-" + dispatcher.getShard("CHANNEL")), threads);
+    }
+
+    public void testEventsHandedOverBeforeStartingAreEmitted() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(2);
+        bus.subscribe("CHANNEL", new BusAnyDataListener() {
+            @Override
+            public void notifyEvent(Object busData) {
+                latch.countDown();
+            }
+        });
+
+        dispatcher.emitEvent("CHANNEL");
+        dispatcher.emitPersistentEvent("CHANNEL", "persistent");
+        dispatcher.start();
+
+        assertTrue("Every event should be emitted.", latch.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testListenerFailuresDoNotStopTheShard() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(2);
+        bus.subscribe("CHANNEL", new BusListener<String>(String.class) {
+            @Override
+            public void notifyEvent(String busData) {
+                latch.countDown();
+                throw new IllegalStateException("Failure");
+            }
+        });
+
+        dispatcher.start();
+        dispatcher.emitEvent("CHANNEL", "first");
+        dispatcher.emitEvent("CHANNEL", "second");
+
+        assertTrue("Every event should be emitted.", latch.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testRebalanceMovesHotChannelAndKeepsOrder() throws Exception {
+        // Find two channels owned by the same shard
+        String hotChannel = "CHANNEL_0";
+        String otherChannel = null;
+        for (int i = 1; otherChannel == null; i++) {
+            if (dispatcher.getShard("CHANNEL_" + i) == dispatcher.getShard(hotChannel)) otherChannel = "CHANNEL_" + i;
+        }
+        int hotShard = dispatcher.getShard(hotChannel);
+
+        final int eventCount = 20000;
+        final List<Integer> values = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch latch = new CountDownLatch(eventCount);
+        bus.subscribe(hotChannel, new BusListener<Integer>(Integer.class) {
+            @Override
+            public void notifyEvent(Integer busData) {
+                values.add(busData);
+                latch.countDown();
+            }
+        });
+
+        dispatcher.start();
+        for (int i = 0; i < 100; i++) {
+            dispatcher.emitEvent(otherChannel);
+        }
+        for (int i = 0; i < eventCount / 2; i++) {
+            dispatcher.emitEvent(hotChannel, (Object) i);
+        }
+        // Move the hot channel while its events are still being emitted
+        assertTrue("Hot channel should be moved.", dispatcher.rebalance());
+        for (int i = eventCount / 2; i < eventCount; i++) {
+            dispatcher.emitEvent(hotChannel, (Object) i);
+        }
+
+        assertTrue("Every event should be emitted.", latch.await(5, TimeUnit.SECONDS));
+        assertEquals("Hot channel should be owned by the other shard.", 1 - hotShard, dispatcher.getShard(hotChannel));
+        for (int i = 0; i < eventCount; i++) {
+            assertEquals("Events should be emitted in order.", i, (int) values.get(i));
+        }
+        assertFalse("Balanced shards should not be rebalanced.", dispatcher.rebalance());
+    }
+
+    public void testRestartKeepsOneThreadPerShard() throws Exception {
+        final int eventCount = 20000;
+        final List<Integer> values = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger notifying = new AtomicInteger();
+        final AtomicBoolean concurrent = new AtomicBoolean();
+        final CountDownLatch latch = new CountDownLatch(eventCount);
+        bus.subscribe("CHANNEL", new BusListener<Integer>(Integer.class) {
+            @Override
+            public void notifyEvent(Integer busData) {
+                if (notifying.incrementAndGet() > 1) concurrent.set(true);
+                values.add(busData);
+                notifying.decrementAndGet();
+                latch.countDown();
+            }
+        });
+
+        dispatcher.start();
+        for (int i = 0; i < eventCount; i++) {
+            dispatcher.emitEvent("CHANNEL", (Object) i);
+            if (i % 1000 == 0) {
+                // Restart while the shards are still emitting
+                dispatcher.stop();
+                dispatcher.start();
+            }
+        }
+
+        assertTrue("Every event should be emitted.", latch.await(5, TimeUnit.SECONDS));
+        assertFalse("A channel should not be emitted on two threads at once.", concurrent.get());
+        for (int i = 0; i < eventCount; i++) {
+            assertEquals("Events should be emitted in order.", i, (int) values.get(i));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (countShardThreads() > dispatcher.getShardCount() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("Replaced shard threads should exit.", dispatcher.getShardCount(), countShardThreads());
+    }
+
+    private static int countShardThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && thread.getName().startsWith("Autobus-Shard-")) count++;
+        }
+        return count;
+    }
+
+    public void testInvalidParameters() throws Exception {
+        try {
+            new BusShardedDispatcher(bus, 0);
+            fail("Shard count must be positive.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Shard count must be positive", e.getMessage());
+        }
+        try {
+            dispatcher.emitEvent(null);
+            fail("Channel must not be null.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Channel must not be null", e.getMessage());
+        }
+    }
+}
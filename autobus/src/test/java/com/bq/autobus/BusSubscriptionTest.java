@@ -0,0 +1,155 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BusSubscriptionTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private static final String OTHER_CHANNEL = "OTHER_CHANNEL";
+    private Bus bus;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+    }
+
+    public void testUnSubscribeThroughSubscription() throws Exception {
+        BusDataStubListener busDataStubListener = BusDataStubListener.getNewBusDataStubListener();
+        BusSubscription subscription = bus.subscribe(TEST_CHANNEL, busDataStubListener);
+        assertTrue("Subscription should be subscribed.", subscription.isSubscribed());
+        assertSame("Subscription should hold the listener.", busDataStubListener, subscription.getListener());
+
+        subscription.unSubscribe();
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertFalse("Subscription should not be subscribed.", subscription.isSubscribed());
+        assertEquals("Unsubscribed listener should not be notified.", 0, busDataStubListener.getReceivedBusDataCount());
+        assertFalse("Channel should have no subscribers.", bus.hasSubscribers(TEST_CHANNEL, BusDataStub.class));
+
+        // Unsubscribing again does nothing, and the listener can subscribe again
+        subscription.unSubscribe();
+        bus.subscribe(TEST_CHANNEL, busDataStubListener);
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        assertEquals("Subscribed again listener should be notified.", 1, busDataStubListener.getReceivedBusDataCount());
+    }
+
+    public void testUnSubscribeKeyedSubscription() throws Exception {
+        BusDataStubListener busDataStubListener = BusDataStubListener.getNewBusDataStubListener();
+        BusSubscription subscription = bus.subscribe(TEST_CHANNEL, "key", busDataStubListener);
+        assertEquals("Subscription should hold the key.", "key", subscription.getKey());
+
+        subscription.unSubscribe();
+
+        assertFalse("Subscription should not be subscribed.", subscription.isSubscribed());
+        assertFalse("Channel should have no subscribers.", bus.hasSubscribers(TEST_CHANNEL, BusDataStub.class));
+        try {
+            bus.unSubscribe(TEST_CHANNEL, "key", busDataStubListener);
+            fail("Unsubscribed listener should not be unsubscribed again.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    public void testSubscribeAllReplaysPersistentEvents() throws Exception {
+        bus.setMetricsEnabled(true);
+        bus.emitPersistentEvent(TEST_CHANNEL, new BusDataStub());
+        BusDataStubListener firstListener = BusDataStubListener.getNewBusDataStubListener();
+        BusDataStubListener secondListener = BusDataStubListener.getNewBusDataStubListener();
+        BusDataStubListener otherListener = BusDataStubListener.getNewBusDataStubListener();
+        Map<String, List<BusDataStubListener>> listeners = new LinkedHashMap<>();
+        listeners.put(TEST_CHANNEL, Arrays.asList(firstListener, secondListener));
+        listeners.put(OTHER_CHANNEL, Collections.singletonList(otherListener));
+
+        BusCompositeSubscription compositeSubscription = bus.subscribeAll(listeners);
+
+        assertEquals("Every listener should be in the composite.", 3, compositeSubscription.size());
+        assertEquals("First listener should be notified of the persistent event.", 1, firstListener.getReceivedBusDataCount());
+        assertEquals("Second listener should be notified of the persistent event.", 1, secondListener.getReceivedBusDataCount());
+        assertEquals("Listener of the other channel should not be notified.", 0, otherListener.getReceivedBusDataCount());
+        assertEquals("Two persistent events should be replayed.",
+                2, bus.getMetrics().getSnapshot(TEST_CHANNEL).getPersistentReplayCount());
+
+        bus.emitEvent(OTHER_CHANNEL, new BusDataStub());
+        assertEquals("Listener of the other channel should be notified.", 1, otherListener.getReceivedBusDataCount());
+    }
+
+    public void testSubscribeAllSubscribesNoneOnFailure() throws Exception {
+        BusDataStubListener subscribedListener = BusDataStubListener.getNewBusDataStubListener();
+        BusDataStubListener newListener = BusDataStubListener.getNewBusDataStubListener();
+        bus.subscribe(OTHER_CHANNEL, subscribedListener);
+        Map<String, List<BusDataStubListener>> listeners = new LinkedHashMap<>();
+        listeners.put(TEST_CHANNEL, Collections.singletonList(newListener));
+        listeners.put(OTHER_CHANNEL, Collections.singletonList(subscribedListener));
+
+        try {
+            bus.subscribeAll(listeners);
+            fail("Already subscribed listener should not be subscribed again.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        assertEquals("Listeners subscribed before the failure should be unsubscribed.",
+                0, bus.getBusListeners(TEST_CHANNEL).size());
+        assertEquals("Previous subscriptions should remain.", 1, bus.getBusListeners(OTHER_CHANNEL).size());
+    }
+
+    public void testDisposeCompositeSubscription() throws Exception {
+        BusDataStubListener firstListener = BusDataStubListener.getNewBusDataStubListener();
+        BusDataStubListener secondListener = BusDataStubListener.getNewBusDataStubListener();
+        BusCompositeSubscription compositeSubscription = new BusCompositeSubscription();
+        compositeSubscription.add(bus.subscribe(TEST_CHANNEL, firstListener));
+        compositeSubscription.add(bus.subscribe(OTHER_CHANNEL, "key", secondListener));
+        BusSubscription alreadyUnSubscribed = bus.subscribe(OTHER_CHANNEL, BusDataStubListener.getNewBusDataStubListener());
+        compositeSubscription.add(alreadyUnSubscribed);
+        alreadyUnSubscribed.unSubscribe();
+
+        compositeSubscription.dispose();
+
+        assertTrue("Composite should be disposed.", compositeSubscription.isDisposed());
+        assertFalse("Test channel should have no subscribers.", bus.hasSubscribers(TEST_CHANNEL, BusDataStub.class));
+        assertFalse("Other channel should have no subscribers.", bus.hasSubscribers(OTHER_CHANNEL, BusDataStub.class));
+
+        // Subscriptions added after disposing are unsubscribed right away
+        BusSubscription lateSubscription = bus.subscribe(TEST_CHANNEL, firstListener);
+        compositeSubscription.add(lateSubscription);
+        assertFalse("Late subscription should be unsubscribed.", lateSubscription.isSubscribed());
+        assertEquals("Disposed composite should be empty.", 0, compositeSubscription.size());
+    }
+
+    public void testSubscribeAndUnSubscribeManyListeners() throws Exception {
+        BusDataStubListener keptListener = BusDataStubListener.getNewBusDataStubListener();
+        bus.subscribe(TEST_CHANNEL, keptListener);
+        for (int round = 0; round < 10; round++) {
+            BusSubscription[] subscriptions = new BusSubscription[100];
+            for (int i = 0; i < subscriptions.length; i++) {
+                subscriptions[i] = bus.subscribe(TEST_CHANNEL, BusDataStubListener.getNewBusDataStubListener());
+            }
+            // Unsubscribe in an order that leaves holes everywhere
+            for (int i = 0; i < subscriptions.length; i += 2) {
+                subscriptions[i].unSubscribe();
+            }
+            for (int i = 1; i < subscriptions.length; i += 2) {
+                subscriptions[i].unSubscribe();
+            }
+        }
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertEquals("Only the kept listener should be subscribed.", 1, bus.getBusListeners(TEST_CHANNEL).size());
+        assertEquals("Kept listener should be notified.", 1, keptListener.getReceivedBusDataCount());
+    }
+}
@@ -2,9 +2,14 @@ package com.bq.autobus;
 
 import junit.framework.TestCase;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
 public class BusTest extends TestCase {
 
     private final String TEST_CHANNEL = "TEST_CHANNEL";
+    private final String OTHER_TEST_CHANNEL = "OTHER_TEST_CHANNEL";
     private Bus bus;
 
     @Override
@@ -403,4 +408,121 @@ public class BusTest extends TestCase {
             assertEquals("Listener must not be null", e.getMessage());
         }
     }
+
+    public void testUnSubscribeWhileBeingNotified() throws Exception {
+        final BusDataStubListener busDataStubListener = BusDataStubListener.getNewBusDataStubListener();
+        BusListener<BusDataStub> unSubscribingListener = new BusListener<BusDataStub>(BusDataStub.class) {
+            @Override
+            public void notifyEvent(@NotNull BusDataStub busData) {
+                bus.unSubscribe(TEST_CHANNEL, this);
+                bus.unSubscribe(TEST_CHANNEL, busDataStubListener);
+            }
+        };
+
+        // Subscribe listeners to test channel
+        bus.subscribe(TEST_CHANNEL, unSubscribingListener);
+        bus.subscribe(TEST_CHANNEL, busDataStubListener);
+
+        // Emit event: listeners unsubscribed during the emission are not notified anymore
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        assertEquals("No BusData should be delivered to the unsubscribed listener.",
+                0, busDataStubListener.getReceivedBusDataCount());
+        assertEquals("No listeners should be subscribed",
+                0, bus.getBusListeners(TEST_CHANNEL).size());
+    }
+
+    public void testHasSubscribers() throws Exception {
+        assertFalse("Channel without listeners should have no subscribers.",
+                bus.hasSubscribers(TEST_CHANNEL, BusDataStub.class));
+
+        BusDataStubListener busDataStubListener = BusDataStubListener.getNewBusDataStubListener();
+        bus.subscribe(TEST_CHANNEL, busDataStubListener);
+        assertTrue("Listener expecting the class should be a subscriber.",
+                bus.hasSubscribers(TEST_CHANNEL, BusDataStub.class));
+        assertFalse("Listener expecting another class should not be a subscriber.",
+                bus.hasSubscribers(TEST_CHANNEL, BusDataStubExtension.class));
+
+        CustomBusAnyDataListener busAnyDataListener = CustomBusAnyDataListener.getNewBusAnyDataListener();
+        bus.subscribe(TEST_CHANNEL, busAnyDataListener);
+        assertTrue("Listener expecting any data should be a subscriber.",
+                bus.hasSubscribers(TEST_CHANNEL, BusDataStubExtension.class));
+
+        bus.unSubscribe(TEST_CHANNEL, busAnyDataListener);
+        bus.unSubscribe(TEST_CHANNEL, busDataStubListener);
+        assertFalse("Unsubscribed listeners should not be subscribers.",
+                bus.hasSubscribers(TEST_CHANNEL, BusDataStub.class));
+    }
+
+    public void testLazyEmitEvent() throws Exception {
+        final int[] builds = new int[1];
+        BusDataSupplier<BusDataStub> supplier = new BusDataSupplier<BusDataStub>() {
+            @Override
+            public BusDataStub get() {
+                builds[0]++;
+                return new BusDataStub();
+            }
+        };
+
+        // Without matching listeners the data should not be built
+        bus.subscribe(TEST_CHANNEL, BusDataStubExtensionListener.getNewBusDataStubExtensionListener());
+        bus.emitEvent(TEST_CHANNEL, BusDataStub.class, supplier);
+        assertEquals("Data should not be built.", 0, builds[0]);
+
+        BusDataStubListener busDataStubListener = BusDataStubListener.getNewBusDataStubListener();
+        bus.subscribe(TEST_CHANNEL, busDataStubListener);
+        bus.emitEvent(TEST_CHANNEL, BusDataStub.class, supplier);
+        assertEquals("Data should be built once.", 1, builds[0]);
+        assertEquals("One BusData should be delivered.", 1, busDataStubListener.getReceivedBusDataCount());
+    }
+
+    public void testGetPersistent() throws Exception {
+        assertNull("Channel without persistent events should have no persistent data.",
+                bus.getPersistent(TEST_CHANNEL, BusDataStub.class));
+        assertFalse("Channel without persistent events should have no persistent event.", bus.hasPersistent(TEST_CHANNEL));
+
+        BusDataStub busDataStub = new BusDataStub();
+        bus.emitPersistentEvent(TEST_CHANNEL, busDataStub);
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        bus.emitPersistentEvent(OTHER_TEST_CHANNEL);
+
+        assertSame("Last persistent data should be returned.", busDataStub, bus.getPersistent(TEST_CHANNEL, BusDataStub.class));
+        assertNull("Persistent data of another class should not be returned.",
+                bus.getPersistent(TEST_CHANNEL, BusDataStubExtension.class));
+        assertTrue("Persistent event without data should be present.", bus.hasPersistent(OTHER_TEST_CHANNEL));
+        assertNull("Persistent event without data should have no data.",
+                bus.getPersistent(OTHER_TEST_CHANNEL, BusDataStub.class));
+
+        Map<String, Object> snapshot = bus.getPersistentSnapshot();
+        assertEquals("Snapshot should contain every channel with persistent events.", 2, snapshot.size());
+        assertSame("Snapshot should contain the last persistent data.", busDataStub, snapshot.get(TEST_CHANNEL));
+        assertTrue("Snapshot should contain persistent events without data.", snapshot.containsKey(OTHER_TEST_CHANNEL));
+        assertNull("Persistent event without data should be null.", snapshot.get(OTHER_TEST_CHANNEL));
+    }
+
+    public void testDistinctPersistent() throws Exception {
+        bus.setMetricsEnabled(true);
+        bus.setDistinctPersistent(TEST_CHANNEL, BusEquivalence.EQUALS);
+        final StringBuilder notifications = new StringBuilder();
+        BusListener<String> listener = new BusListener<String>(String.class) {
+            @Override
+            public void notifyEvent(@NotNull String busData) {
+                notifications.append(busData);
+            }
+        };
+        bus.subscribe(TEST_CHANNEL, listener);
+
+        bus.emitPersistentEvent(TEST_CHANNEL, "a");
+        bus.emitPersistentEvent(TEST_CHANNEL, new String("a"));
+        bus.emitPersistentEvent(TEST_CHANNEL, "b");
+        bus.emitEvent(TEST_CHANNEL, "b");
+        bus.emitPersistentEvent(TEST_CHANNEL, "b");
+
+        assertEquals("Equal persistent events should be suppressed.", "abb", notifications.toString());
+        assertEquals("Suppressed emits should be counted.",
+                2, bus.getMetrics().getSnapshot(TEST_CHANNEL).getSuppressedEmitCount());
+
+        bus.setDistinctPersistent(TEST_CHANNEL, null);
+        bus.emitPersistentEvent(TEST_CHANNEL, "b");
+        assertEquals("Every persistent event should be emitted once disabled.", "abbb", notifications.toString());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BusTracerTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private Bus bus;
+    private RecordingBusTracer tracer;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        tracer = new RecordingBusTracer();
+        bus.setTracer(tracer);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+        tracer = null;
+    }
+
+    public void testEmitAndNotifyAreTraced() throws Exception {
+        bus.subscribe(TEST_CHANNEL, BusDataStubListener.getNewBusDataStubListener());
+        bus.subscribe(TEST_CHANNEL, BusDataStubListenerWithPreprocessor.getNewBusDataStubListener());
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertEquals("begin EMIT, begin NOTIFY_LISTENER, end NOTIFY_LISTENER, "
+                        + "begin NOTIFY_PREPROCESSOR, end NOTIFY_PREPROCESSOR, end EMIT",
+                tracer.getTrace());
+    }
+
+    public void testPersistentReplayIsTraced() throws Exception {
+        bus.emitPersistentEvent(TEST_CHANNEL, new BusDataStub());
+        bus.subscribe(TEST_CHANNEL, BusDataStubListener.getNewBusDataStubListener());
+
+        assertEquals("begin EMIT, end EMIT, begin PERSISTENT_REPLAY, "
+                        + "begin NOTIFY_LISTENER, end NOTIFY_LISTENER, end PERSISTENT_REPLAY",
+                tracer.getTrace());
+    }
+
+    public void testFailingListenerIsEnded() throws Exception {
+        bus.setLoggingEnabled(false);
+        bus.emitPersistentEvent(TEST_CHANNEL, new BusDataStub());
+        tracer.calls.clear();
+        BusListener<BusDataStub> failingListener = new BusListener<BusDataStub>(BusDataStub.class) {
+            @Override
+            public void notifyEvent(@NotNull BusDataStub busData) {
+                throw new IllegalStateException("Listener failure");
+            }
+        };
+
+        try {
+            bus.subscribe(TEST_CHANNEL, failingListener);
+            fail("Listener exception should reach the subscriber.");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        assertEquals("begin PERSISTENT_REPLAY, begin NOTIFY_LISTENER, end NOTIFY_LISTENER, end PERSISTENT_REPLAY",
+                tracer.getTrace());
+    }
+
+    public void testEndNotCalledWhenNotTracing() throws Exception {
+        tracer.tracing = false;
+        bus.subscribe(TEST_CHANNEL, BusDataStubListener.getNewBusDataStubListener());
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertEquals("begin EMIT, begin NOTIFY_LISTENER", tracer.getTrace());
+    }
+
+    public void testRemoveTracer() throws Exception {
+        bus.setTracer(null);
+        assertNull("No tracer should be set.", bus.getTracer());
+
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+
+        assertEquals("", tracer.getTrace());
+    }
+
+    private static class RecordingBusTracer implements BusTracer {
+
+        private final List<String> calls = new ArrayList<>();
+        private boolean tracing = true;
+
+        @Nullable
+        @Override
+        public Object begin(@NotNull Operation operation, @NotNull String channel,
+                            @Nullable BusListener listener, @Nullable Object busData) {
+            calls.add("begin " + operation);
+            return tracing ? operation : null;
+        }
+
+        @Override
+        public void end(@NotNull Object trace) {
+            calls.add("end " + trace);
+        }
+
+        private String getTrace() {
+            StringBuilder trace = new StringBuilder();
+            for (String call : calls) {
+                if (trace.length() > 0) trace.append(", ");
+                trace.append(call);
+            }
+            return trace.toString();
+        }
+    }
+}
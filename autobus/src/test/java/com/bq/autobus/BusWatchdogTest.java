@@ -0,0 +1,182 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+public class BusWatchdogTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private Bus bus;
+    private BusWatchdog watchdog;
+    private List<BusWatchdog.SlowInvocation> reports;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        watchdog = new BusWatchdog(10, TimeUnit.MILLISECONDS);
+        reports = new CopyOnWriteArrayList<>();
+        watchdog.setReporter(new BusWatchdog.Reporter() {
+            @Override
+            public void onSlowInvocation(@NotNull BusWatchdog.SlowInvocation slowInvocation) {
+                reports.add(slowInvocation);
+            }
+        });
+        bus.setWatchdog(watchdog);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        watchdog.stop();
+        bus = null;
+        watchdog = null;
+        reports = null;
+    }
+
+    public void testInvalidThreshold() {
+        try {
+            new BusWatchdog(0, TimeUnit.MILLISECONDS);
+            fail("Illegally created a watchdog without threshold.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Threshold must be positive", e.getMessage());
+        }
+    }
+
+    public void testFastListenerIsNotReported() throws Exception {
+        bus.subscribe(TEST_CHANNEL, BusDataStubListener.getNewBusDataStubListener());
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        watchdog.scan();
+
+        assertTrue("No slow invocation should be reported.", reports.isEmpty());
+    }
+
+    public void testSlowListenerIsReportedOnce() throws Exception {
+        BlockingListener listener = new BlockingListener();
+        bus.subscribe(TEST_CHANNEL, listener);
+        Thread emitter = emitInBackground();
+
+        listener.entered.await();
+        Thread.sleep(20);
+        watchdog.scan();
+        watchdog.scan();
+        listener.release.countDown();
+        emitter.join();
+
+        assertEquals("One slow invocation should be reported.", 1, reports.size());
+        BusWatchdog.SlowInvocation slowInvocation = reports.get(0);
+        assertEquals(TEST_CHANNEL, slowInvocation.getChannel());
+        assertSame(listener, slowInvocation.getListener());
+        assertSame(emitter, slowInvocation.getThread());
+        assertTrue("Elapsed time should exceed the threshold.",
+                slowInvocation.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals("Stack trace should show the blocked listener.",
+                "await", slowInvocation.getStackTrace()[findListenerFrame(slowInvocation) - 1].getMethodName());
+
+        // Not quarantined without a quarantine executor
+        assertFalse("Listener should not be quarantined.", watchdog.isQuarantined(listener));
+    }
+
+    public void testSlowListenerIsQuarantined() throws Exception {
+        final List<Runnable> quarantinedDeliveries = new ArrayList<>();
+        watchdog.setQuarantineExecutor(new Executor() {
+            @Override
+            public void execute(@NotNull Runnable command) {
+                quarantinedDeliveries.add(command);
+            }
+        });
+
+        BlockingListener listener = new BlockingListener();
+        bus.subscribe(TEST_CHANNEL, listener);
+        Thread emitter = emitInBackground();
+
+        listener.entered.await();
+        Thread.sleep(20);
+        watchdog.scan();
+        listener.release.countDown();
+        emitter.join();
+
+        assertTrue("Listener should be quarantined.", watchdog.isQuarantined(listener));
+
+        // Next event is handed to the quarantine executor instead of being delivered on this thread
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        assertEquals("One event should be delivered.", 1, listener.count);
+        assertEquals("One delivery should be quarantined.", 1, quarantinedDeliveries.size());
+        quarantinedDeliveries.get(0).run();
+        assertEquals("Two events should be delivered.", 2, listener.count);
+
+        // Released listeners are notified synchronously again
+        watchdog.release(listener);
+        bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+        assertEquals("Three events should be delivered.", 3, listener.count);
+        assertEquals("One delivery should be quarantined.", 1, quarantinedDeliveries.size());
+    }
+
+    public void testStartAndStop() throws Exception {
+        watchdog.start();
+        assertTrue("Watchdog should be running.", watchdog.isRunning());
+
+        BlockingListener listener = new BlockingListener();
+        bus.subscribe(TEST_CHANNEL, listener);
+        Thread emitter = emitInBackground();
+        listener.entered.await();
+        for (int i = 0; i < 100 && reports.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        listener.release.countDown();
+        emitter.join();
+        assertEquals("One slow invocation should be reported.", 1, reports.size());
+
+        watchdog.stop();
+        assertFalse("Watchdog should not be running.", watchdog.isRunning());
+    }
+
+    private Thread emitInBackground() {
+        Thread emitter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                bus.emitEvent(TEST_CHANNEL, new BusDataStub());
+            }
+        });
+        emitter.start();
+        return emitter;
+    }
+
+    private static int findListenerFrame(BusWatchdog.SlowInvocation slowInvocation) {
+        StackTraceElement[] stackTrace = slowInvocation.getStackTrace();
+        for (int i = 0; i < stackTrace.length; i++) {
+            if (stackTrace[i].getClassName().equals(BlockingListener.class.getName())) return i;
+        }
+        return -1;
+    }
+
+    private static class BlockingListener extends BusListener<BusDataStub> {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile int count;
+
+        private BlockingListener() {
+            super(BusDataStub.class);
+        }
+
+        @Override
+        public void notifyEvent(@NotNull BusDataStub busData) {
+            count++;
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
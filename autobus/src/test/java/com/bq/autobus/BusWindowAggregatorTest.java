@@ -0,0 +1,123 @@
+package com.bq.autobus;
+
+import junit.framework.TestCase;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BusWindowAggregatorTest extends TestCase {
+
+    private static final String TEST_CHANNEL = "TEST_CHANNEL";
+    private static final String OUTPUT_CHANNEL = "OUTPUT_CHANNEL";
+    private static final BusWindowStats.ValueExtractor<Integer> INTEGER_VALUE =
+            new BusWindowStats.ValueExtractor<Integer>() {
+                @Override
+                public double getValue(@NotNull Integer busData) {
+                    return busData;
+                }
+            };
+    private Bus bus;
+    private List<BusWindowStats> results;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        bus = new Bus();
+        bus.setLoggingEnabled(false);
+        results = new ArrayList<>();
+        bus.subscribe(OUTPUT_CHANNEL, new BusListener<BusWindowStats>(BusWindowStats.class) {
+            @Override
+            public void notifyEvent(@NotNull BusWindowStats busData) {
+                results.add(busData);
+            }
+        });
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        bus = null;
+        results = null;
+    }
+
+    public void testTumblingWindow() throws Exception {
+        final CountDownLatch emitted = new CountDownLatch(1);
+        final List<BusWindowStats> timerResults = new ArrayList<>();
+        bus.subscribe(OUTPUT_CHANNEL, new BusListener<BusWindowStats>(BusWindowStats.class) {
+            @Override
+            public void notifyEvent(@NotNull BusWindowStats busData) {
+                synchronized (timerResults) {
+                    timerResults.add(busData);
+                }
+                emitted.countDown();
+            }
+        });
+        BusWindowAggregator<Object, BusWindowStats> aggregator = BusWindowAggregator.tumbling(
+                bus, OUTPUT_CHANNEL, Object.class, BusWindowStats.counting(), 100, TimeUnit.MILLISECONDS);
+        bus.subscribe(TEST_CHANNEL, aggregator);
+
+        for (int i = 0; i < 3; i++) {
+            bus.emitEvent(TEST_CHANNEL, new Object());
+        }
+
+        assertTrue("Window result should be emitted when the window ends.", emitted.await(5, TimeUnit.SECONDS));
+        aggregator.stop();
+        synchronized (timerResults) {
+            assertEquals("Window should count every event.", 3, timerResults.get(0).getCount());
+        }
+    }
+
+    public void testSlidingWindow() throws Exception {
+        // Panes are closed by hand: the window is long enough for the timing wheel never to close them
+        BusWindowAggregator<Integer, BusWindowStats> aggregator = BusWindowAggregator.sliding(
+                bus, OUTPUT_CHANNEL, Integer.class, BusWindowStats.of(INTEGER_VALUE), 3, 1, TimeUnit.HOURS);
+        int[][] panes = {{5, 3}, {7}, {}, {9}, {}, {}, {}};
+        for (int[] pane : panes) {
+            for (int value : pane) {
+                aggregator.notifyEvent(value);
+            }
+            aggregator.closePane();
+        }
+        aggregator.stop();
+
+        assertEquals("Every window with events should be emitted.", 6, results.size());
+        long[] counts = {2, 3, 3, 2, 1, 1};
+        double[] mins = {3, 3, 3, 7, 9, 9};
+        double[] sums = {8, 15, 15, 16, 9, 9};
+        for (int i = 0; i < counts.length; i++) {
+            BusWindowStats stats = results.get(i);
+            assertEquals("Window should count the events of its panes.", counts[i], stats.getCount());
+            assertEquals("Window should keep the minimum of its panes.", mins[i], stats.getMin());
+            assertEquals("Window should sum the values of its panes.", sums[i], stats.getSum());
+        }
+        assertEquals("Average should be computed from the sum and count.", 5.0, results.get(1).getAverage());
+    }
+
+    public void testInvalidParameters() throws Exception {
+        try {
+            BusWindowAggregator.sliding(bus, OUTPUT_CHANNEL, Integer.class, BusWindowStats.of(INTEGER_VALUE),
+                    5, 2, TimeUnit.SECONDS);
+            fail("Size should be a multiple of the slide.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            BusWindowAggregator.tumbling(bus, OUTPUT_CHANNEL, Integer.class, BusWindowStats.of(INTEGER_VALUE),
+                    0, TimeUnit.SECONDS);
+            fail("Size should be positive.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            BusWindowAggregator.tumbling(bus, null, Integer.class, BusWindowStats.of(INTEGER_VALUE),
+                    1, TimeUnit.SECONDS);
+            fail("Output channel should not be null.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+}